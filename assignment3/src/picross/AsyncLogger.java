@@ -0,0 +1,139 @@
+package picross;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * AsyncLogger is the headless replacement for the server's text pane.
+ * Callers only put the message in a lock-free ring buffer (See
+ * MpscRingBuffer), so network threads never wait on I/O or on each
+ * other; a single daemon thread writes messages out in batches with a
+ * timestamp. If the buffer is full the message is counted as dropped
+ * rather than blocking the caller.
+ */
+public class AsyncLogger implements Consumer<String>, AutoCloseable {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final int DEFAULT_CAPACITY = 8192;
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final PrintStream out;
+    private final MpscRingBuffer<String> queue;
+    private final AtomicLong dropped;
+    private final Thread writerThread;
+    private volatile boolean open;
+
+    /**
+     * @param out Stream to write to, eg. System.out
+     * @since 2026-10-18
+     */
+    public AsyncLogger(PrintStream out) {
+        this.out = out;
+        this.queue = new MpscRingBuffer<>(DEFAULT_CAPACITY);
+        this.dropped = new AtomicLong();
+        this.open = true;
+
+        writerThread = new Thread(this::writeLoop, "AsyncLogger");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * @param file File to append to, created if it does not exist
+     * @return Returns a logger that appends to the file
+     * @throws IOException if the file cannot be opened
+     * @since 2026-10-18
+     */
+    public static AsyncLogger toFile(Path file) throws IOException {
+        OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new AsyncLogger(new PrintStream(stream, false, "UTF-8"));
+    }
+
+    /**
+     * @param message Message to log. Trailing newlines are dropped
+     * @since 2026-10-18
+     */
+    @Override
+    public void accept(String message) {
+        if (!open || !queue.offer(message))
+            dropped.incrementAndGet();
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Body of the writer thread. Drains up to a batch of messages and
+     * writes them with one flush, or naps briefly if there are none.
+     */
+    private void writeLoop() {
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+
+        while (open || !queue.isEmpty()) {
+            if (queue.drain(batch::add, BATCH_SIZE) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<String> batch) {
+        String time = LocalTime.now().toString();
+
+        for (String message : batch) {
+            int end = message.length();
+            while (end > 0 && message.charAt(end - 1) == '\n')
+                end--;
+            if (end > 0)
+                out.append(time).append(' ').append(message, 0, end).append(System.lineSeparator());
+        }
+        out.flush();
+    }
+
+    /**
+     * @return Returns the number of messages dropped because the buffer was full
+     * @since 2026-10-18
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Stops accepting messages and waits (briefly) for the queued ones to
+     * be written.
+     */
+    @Override
+    public void close() {
+        open = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        if (out != System.out && out != System.err)
+            out.close();
+    }
+}
@@ -0,0 +1,394 @@
+package picross;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * BlockingServerEngine is the original connection model: one thread
+ * calls .accept() in a loop, and every client gets its own thread that
+ * blocks reading until the client sends a line (or, once upgraded, a
+ * frame). Simple, but with platform threads memory and context switching
+ * grow linearly with the number of clients (See NioServerEngine).
+ *
+ * The threads come from a ThreadFactory, so the same code also runs
+ * every handler on a virtual thread where the JVM supports them (See
+ * VirtualThreads), which keeps the blocking style at a fraction of the
+ * cost per client.
+ *
+ * Replies go into the client's bounded OutboundQueue and are written by
+ * a second thread per client, so the protocol's workers never block on
+ * a client that stops reading. A watchdog thread closes any client
+ * whose writer has been stuck for the write timeout.
+ */
+public class BlockingServerEngine implements ServerEngine {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final String NAME = "blocking";
+    protected static final String VIRTUAL_NAME = "virtual";
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final ServerProtocol protocol;
+    private final ServerMetrics metrics;
+    private final String name;
+    private final ThreadFactory threadFactory;
+    private final Set<ClientThread> clients;
+    private volatile boolean serverOn;
+    private volatile boolean accepting;
+    private ServerSocket serverSocket;
+
+    /**
+     * @param protocol The protocol to hand lines to
+     * @since 2026-10-18
+     */
+    public BlockingServerEngine(ServerProtocol protocol) {
+        this(protocol, NAME, Thread::new);
+    }
+
+    /**
+     * @param protocol      The protocol to hand lines to
+     * @param name          Name of the engine (See getName())
+     * @param threadFactory Creates the accept thread and every client thread
+     * @since 2026-10-18
+     */
+    public BlockingServerEngine(ServerProtocol protocol, String name, ThreadFactory threadFactory) {
+        this.protocol = protocol;
+        this.metrics = protocol.getMetrics();
+        this.name = name;
+        this.threadFactory = threadFactory;
+        this.clients = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * @param protocol The protocol to hand lines to
+     * @return Returns an engine that runs the accept loop and every client
+     * on virtual threads, or on platform threads if the JVM has none
+     * @since 2026-10-18
+     */
+    public static BlockingServerEngine withVirtualThreads(ServerProtocol protocol) {
+        ThreadFactory factory = VirtualThreads.factory();
+
+        if (factory == null) {
+            System.err.println("Server: Virtual threads need Java 21 or later, using platform threads");
+            factory = Thread::new;
+        }
+        return new BlockingServerEngine(protocol, VIRTUAL_NAME, factory);
+    }
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2021-11-28
+     *
+     * ClientThread implements the run() method from the Runnable
+     * interface. This allows the code for each client to be run on a
+     * separate thread, allowing for parallel execution. Aside from
+     * that, each client thread listens for messages from their
+     * respective clients and hands them to the protocol.
+     * */
+    class ClientThread implements Runnable, ClientConnection {
+
+        private final Socket clientSocket;
+        private OutputStream dataOutStream;
+        private volatile String clientID;
+        private volatile int version = Frame.TEXT_VERSION;
+        private volatile boolean closeRequested;
+        private volatile boolean closed;
+        private volatile boolean writerParked;
+        private final OutboundQueue outbound = new OutboundQueue();
+        private volatile Thread writer;
+
+        ClientThread(Socket socket) {
+            clientSocket = socket;
+        }
+
+        @Override
+        public void run() {
+            try {
+                DataInputStream dataInStream = new DataInputStream(new BufferedInputStream(new CountingInputStream(clientSocket.getInputStream())));
+                dataOutStream = clientSocket.getOutputStream();
+                writer = threadFactory.newThread(this::write);
+                writer.start();
+                clientID = protocol.connect(this);
+
+                String clientMsg;
+                while (version == Frame.TEXT_VERSION && (clientMsg = Frame.readLine(dataInStream)) != null)
+                    protocol.handle(this, clientMsg);
+
+                ByteBuffer frame;
+                while (version >= Frame.VERSION && (frame = Frame.read(dataInStream)) != null)
+                    protocol.handleFrame(this, frame);
+
+            } catch (IOException ioe) {
+                //Ignore when client disconnects
+            } finally {
+                closeQuietly();
+                if (clients.remove(this))
+                    protocol.disconnected(this);
+            }
+        }
+
+        @Override
+        public String getClientID() {
+            return clientID;
+        }
+
+        @Override
+        public SocketAddress getLocalAddress() {
+            return clientSocket.getLocalSocketAddress();
+        }
+
+        @Override
+        public void send(String line) {
+            enqueue(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)), false);
+        }
+
+        @Override
+        public void sendFrame(ByteBuffer frame) {
+            enqueue(frame.duplicate(), false);
+        }
+
+        @Override
+        public void sendLatest(ByteBuffer encoded) {
+            enqueue(encoded.duplicate(), true);
+        }
+
+        private void enqueue(ByteBuffer bytes, boolean replaceable) {
+            if (closed)
+                return;
+
+            if (!(replaceable ? outbound.offerLatest(bytes) : outbound.offer(bytes))) {
+                System.err.println("Server: Closing client " + clientID + ", " + outbound.getCloseReason());
+                closeQuietly(); //The reading thread sees the closed socket and cleans up
+                return;
+            }
+            if (writerParked)
+                LockSupport.unpark(writer);
+        }
+
+        /**
+         * @since 2026-10-18
+         *
+         * Body of the writer thread. Writes block, so this is the only
+         * thread that ever waits on the client; it parks while the queue
+         * is empty and ends when the socket closes.
+         */
+        private void write() {
+            while (!closed) {
+                try {
+                    ByteBuffer next;
+                    while ((next = outbound.poll()) != null) {
+                        int size = next.remaining();
+                        if (!next.hasArray())
+                            next = ByteBuffer.allocate(size).put(next).flip();
+                        dataOutStream.write(next.array(), next.arrayOffset() + next.position(), size);
+                        outbound.wrote(size, true);
+                        metrics.bytesOut(size);
+                    }
+                } catch (IOException ioe) {
+                    closeQuietly();
+                    return;
+                }
+
+                if (closeRequested && !outbound.hasPending()) {
+                    closeQuietly();
+                    return;
+                }
+
+                //Senders only unpark a parked writer, so check for work again once marked
+                writerParked = true;
+                if (!outbound.hasPending() && !closeRequested && !closed)
+                    LockSupport.park(this);
+                writerParked = false;
+            }
+        }
+
+        @Override
+        public void upgrade(int version) {
+            this.version = version;
+        }
+
+        @Override
+        public int getVersion() {
+            return version;
+        }
+
+        @Override
+        public OutboundQueue getOutbound() {
+            return outbound;
+        }
+
+        /**
+         * @since 2026-10-18
+         *
+         * Closes the socket once the writer has drained the queue. Closing
+         * also wakes the client's thread out of its blocking read.
+         */
+        @Override
+        public void close() {
+            closeRequested = true;
+            if (writer == null)
+                closeQuietly();
+            else
+                LockSupport.unpark(writer);
+        }
+
+        private void closeQuietly() {
+            closed = true;
+            Thread writer = this.writer;
+            if (writer != null)
+                LockSupport.unpark(writer);
+
+            try {
+                clientSocket.close();
+            } catch (IOException ioe) {
+                System.err.println("Server: Something went wrong while disconnecting");
+                ioe.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * CountingInputStream adds every byte read from a socket to the
+     * metrics. It sits below the BufferedInputStream, so it is called
+     * once per read from the socket rather than once per byte.
+     */
+    private class CountingInputStream extends FilterInputStream {
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                metrics.bytesIn(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0)
+                metrics.bytesIn(n);
+            return n;
+        }
+    }
+
+    /* ---------------------- ServerEngine -------------------- */
+
+    @Override
+    public void start(int port) throws IOException {
+
+        serverSocket = new ServerSocket(port);
+        serverOn = true;
+        accepting = true;
+
+        //Perpetually accept new client connections (must be on new thread so that server can still perform other operations)
+        Thread listenThread = threadFactory.newThread(() -> {
+            while (accepting) {
+                try {
+                    ClientThread cliThread = new ClientThread(serverSocket.accept()); //Blocking function
+                    clients.add(cliThread);
+                    threadFactory.newThread(cliThread).start(); //Create new thread for client
+                } catch (IOException ioe) {
+                    if (accepting)
+                        System.err.println("Failed to connect to client: " + ioe.getMessage());
+                }
+            }
+        });
+        listenThread.setName("BlockingServerEngine-accept");
+        listenThread.start();
+
+        Thread watchdog = threadFactory.newThread(this::closeStalled);
+        watchdog.setName("BlockingServerEngine-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Closes every client whose writer has not written a byte for the
+     * write timeout. Closing the socket fails the blocked write, which
+     * frees the writer thread.
+     */
+    private void closeStalled() {
+        while (serverOn) {
+            try {
+                Thread.sleep(OutboundQueue.STALL_CHECK_MILLIS);
+            } catch (InterruptedException ie) {
+                return;
+            }
+
+            long now = System.nanoTime();
+            for (ClientThread client : clients) {
+                if (client.outbound.isStalled(now)) {
+                    System.err.println("Server: Closing client " + client.clientID + ", " + client.outbound.getCloseReason());
+                    client.closeQuietly();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void stopAccepting() {
+        accepting = false;
+
+        try {
+            if (serverSocket != null)
+                serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Unable to close one or more streams/sockets");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void stop() {
+        serverOn = false;
+
+        //Close all sockets
+        stopAccepting();
+        for (ClientThread client : clients)
+            client.closeQuietly();
+    }
+
+    @Override
+    public int getLocalPort() {
+        return (serverSocket == null) ? -1 : serverSocket.getLocalPort();
+    }
+
+    @Override
+    public int getConnectionCount() {
+        return clients.size();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,94 @@
+package picross;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * ClientConnection is the server's handle on one connected client,
+ * independent of the engine (See ServerEngine) that drives it. It is
+ * all that ServerProtocol needs in order to reply to a client, in lines
+ * or, once upgraded, in binary frames (See Frame).
+ */
+public interface ClientConnection {
+
+    /**
+     * @return Returns the UUID assigned to the client when it connected
+     * @since 2026-10-18
+     */
+    String getClientID();
+
+    /**
+     * @return Returns the local address of the server side of the connection
+     * @since 2026-10-18
+     */
+    SocketAddress getLocalAddress();
+
+    /**
+     * @param line The line to send, without the line terminator
+     * @since 2026-10-18
+     *
+     * Queues a line for the client. Never blocks; a client that does not
+     * keep up is dealt with by its OutboundQueue's policy. May be called
+     * from any thread.
+     */
+    void send(String line);
+
+    /**
+     * @param frame A whole frame, including its length (See Frame.encode())
+     * @since 2026-10-18
+     *
+     * Queues a frame for the client, in order with any lines sent before
+     * it. May be called from any thread.
+     */
+    void sendFrame(ByteBuffer frame);
+
+    /**
+     * @param encoded A whole line (with its terminator) or frame, already
+     *                encoded for this connection's protocol version. It
+     *                may be shared with other connections and is not
+     *                modified
+     * @since 2026-10-18
+     *
+     * Sends a message that only matters until a newer one replaces it,
+     * eg. a pushed puzzle. Under the default COALESCE policy at most one
+     * such message waits per connection: if the client has not taken the
+     * previous one yet, it is dropped in favour of this one (See
+     * OutboundQueue). Never blocks. May be called from any thread.
+     */
+    void sendLatest(ByteBuffer encoded);
+
+    /**
+     * @param version Protocol version agreed with the client (See Frame)
+     * @since 2026-10-18
+     *
+     * Switches reading to binary frames for everything after the line
+     * being handled. Only called by ServerProtocol while it handles a
+     * line, on the thread that reads for this connection.
+     */
+    void upgrade(int version);
+
+    /**
+     * @return Returns the protocol version in use, Frame.TEXT_VERSION until upgraded
+     * @since 2026-10-18
+     */
+    int getVersion();
+
+    /**
+     * @return Returns the queue of messages waiting for the client, whose
+     * counters describe how well the client keeps up
+     * @since 2026-10-18
+     */
+    OutboundQueue getOutbound();
+
+    /**
+     * @since 2026-10-18
+     *
+     * Closes the connection once every line sent so far has been written.
+     * May be called from any thread.
+     */
+    void close();
+}
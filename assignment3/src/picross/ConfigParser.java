@@ -0,0 +1,168 @@
+package picross;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * ConfigParser turns a configuration string of '0'/'1' cells into a
+ * PackedBoard in a single pass. Commas and whitespace are treated as
+ * separators and skipped, so the comma-decorated configs produced by
+ * GameClient can be parsed as-is. Cells are accumulated 64 at a time
+ * and written straight into the board's rows; no intermediate Strings
+ * or arrays are created.
+ */
+public class ConfigParser {
+
+    private ConfigParser() {
+    }
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Cursor tracks where the next cell goes while characters are fed
+     * in one at a time, regardless of where they come from.
+     */
+    private static class Cursor {
+
+        private final PackedBoard dest;
+        private final int dimension;
+        private int x, y, w;
+        private long word;
+
+        Cursor(PackedBoard dest) {
+            this.dest = dest;
+            this.dimension = dest.getDimension();
+        }
+
+        void accept(int ch, int index) {
+            long bit;
+
+            switch (ch) {
+                case '0' -> bit = 0L;
+                case '1' -> bit = 1L;
+                case ',', ' ', '\t', '\r', '\n' -> {
+                    return;
+                }
+                default -> throw new IllegalArgumentException("Unexpected character '" + (char) ch + "' at index " + index);
+            }
+
+            if (y == dimension)
+                throw new IllegalArgumentException("Configuration has more than " + dimension + "x" + dimension + " cells");
+
+            word |= bit << x;
+            x++;
+
+            //Flush the word when it is full or the row ends
+            if ((x & (PackedBoard.WORD_BITS - 1)) == 0 || x == dimension) {
+                dest.setWord(y, w++, word);
+                word = 0L;
+            }
+            if (x == dimension) {
+                x = 0;
+                w = 0;
+                y++;
+            }
+        }
+
+        void finish() {
+            if (y != dimension)
+                throw new IllegalArgumentException("Configuration is too short: expected " + dimension + "x" + dimension
+                        + " cells, got " + ((y * dimension) + x));
+        }
+    }
+
+    /* ---------------------- Parsers -------------------- */
+
+    /**
+     * @param config    The configuration to parse
+     * @param dimension The dimension of the board
+     * @return Returns a new board holding the configuration
+     * @since 2026-10-18
+     */
+    public static PackedBoard parse(CharSequence config, int dimension) {
+        PackedBoard board = new PackedBoard(dimension);
+        parse(config, board);
+        return board;
+    }
+
+    /**
+     * @param config The configuration to parse
+     * @return Returns a new board holding the configuration
+     * @since 2026-10-18
+     *
+     * Same as parse(config, dimension), but infers the dimension first.
+     */
+    public static PackedBoard parse(CharSequence config) {
+        return parse(config, inferDimension(config));
+    }
+
+    /**
+     * @param config The configuration to parse
+     * @param dest   The board to overwrite. Its dimension must match the config
+     * @since 2026-10-18
+     */
+    public static void parse(CharSequence config, PackedBoard dest) {
+        Cursor cursor = new Cursor(dest);
+
+        for (int i = 0, len = config.length(); i < len; i++)
+            cursor.accept(config.charAt(i), i);
+        cursor.finish();
+    }
+
+    /**
+     * @param config The configuration to parse, as ASCII bytes
+     * @param offset Index of the first byte to parse
+     * @param length Number of bytes to parse
+     * @param dest   The board to overwrite. Its dimension must match the config
+     * @since 2026-10-18
+     */
+    public static void parse(byte[] config, int offset, int length, PackedBoard dest) {
+        Cursor cursor = new Cursor(dest);
+
+        for (int i = offset, end = offset + length; i < end; i++)
+            cursor.accept(config[i], i);
+        cursor.finish();
+    }
+
+    /**
+     * @param config The configuration to parse, as ASCII bytes. Bytes between
+     *               position and limit are consumed
+     * @param dest   The board to overwrite. Its dimension must match the config
+     * @since 2026-10-18
+     */
+    public static void parse(ByteBuffer config, PackedBoard dest) {
+        Cursor cursor = new Cursor(dest);
+
+        for (int i = config.position(), end = config.limit(); i < end; i++)
+            cursor.accept(config.get(i), i);
+        config.position(config.limit());
+        cursor.finish();
+    }
+
+    /* ---------------------- Helpers -------------------- */
+
+    /**
+     * @param config The configuration to inspect
+     * @return Returns the dimension of the board the config describes
+     * @since 2026-10-18
+     *
+     * Comma-decorated configs have one comma per row, so the dimension is
+     * the number of cells before the first comma. Plain configs have no
+     * separators, so the dimension is the square root of the length.
+     */
+    public static int inferDimension(CharSequence config) {
+
+        int len = config.length();
+
+        for (int i = 0; i < len; i++)
+            if (config.charAt(i) == ',')
+                return i;
+
+        return (int) Math.round(Math.sqrt(len));
+    }
+}
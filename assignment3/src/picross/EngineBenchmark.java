@@ -0,0 +1,203 @@
+package picross;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * EngineBenchmark compares the server engines (See ServerEngine) on
+ * connection capacity and request latency. For each engine it starts a
+ * server on a free port, opens up to the requested number of idle
+ * connections, then has a few of them send RECEIVE_GAME requests back
+ * to back and reports the latency percentiles. Client and server share
+ * the JVM, so thread and heap figures include the client side, which is
+ * the same for every engine. The blocking engines run a writer thread
+ * per connection as well as a reader (See OutboundQueue), so they are
+ * not the original one-thread-per-client model; the output says so.
+ *
+ * Usage: java picross.EngineBenchmark [connections] [activeClients] [requestsPerClient] [engine...]
+ */
+public class EngineBenchmark {
+
+    /* ---------------------- Constants -------------------- */
+
+    private static final int DEFAULT_CONNECTIONS = 2000;
+    private static final int DEFAULT_ACTIVE_CLIENTS = 16;
+    private static final int DEFAULT_REQUESTS = 2000;
+    private static final String[] DEFAULT_ENGINES = {BlockingServerEngine.NAME, BlockingServerEngine.VIRTUAL_NAME, NioServerEngine.NAME};
+
+    private EngineBenchmark() {
+    }
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Client is the benchmark's end of one connection.
+     */
+    private static class Client {
+
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+        private final String clientID;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            out = new PrintWriter(socket.getOutputStream(), true);
+            clientID = in.readLine(); //Server sends the UUID first
+            if (clientID == null)
+                throw new IOException("Server closed the connection during the handshake");
+        }
+
+        long roundTrip() throws IOException {
+            long start = System.nanoTime();
+            out.println(clientID + GameServer.PROTOCOL_SEP + GameServer.Protocols.RECEIVE_GAME.getValue());
+            if (in.readLine() == null)
+                throw new IOException("Server closed the connection");
+            return System.nanoTime() - start;
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ioe) {
+                //Closing anyway
+            }
+        }
+    }
+
+    /**
+     * @param engineName        Engine to benchmark
+     * @param connections       Number of connections to try to open
+     * @param activeClients     Number of connections that send requests
+     * @param requestsPerClient Requests sent by each active connection
+     * @since 2026-10-18
+     */
+    private static void run(String engineName, int connections, int activeClients, int requestsPerClient) throws Exception {
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Runtime runtime = Runtime.getRuntime();
+
+        System.gc();
+        int threadsBefore = threads.getThreadCount();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+
+        ServerProtocol protocol = new ServerProtocol(message -> {
+        });
+        ServerEngine engine = ServerEngine.create(engineName, protocol);
+        List<Client> clients = new ArrayList<>(connections);
+        ExecutorService pool = null;
+        String stoppedBy = "";
+        long connectMillis;
+        int threadCount;
+        long heapUsed;
+        long[] latencies;
+        long requestNanos;
+
+        //Stops everything even if a run fails, so the next run starts clean
+        try {
+            engine.start(0);
+
+            /* ---------------------- Capacity -------------------- */
+
+            long connectStart = System.nanoTime();
+
+            try {
+                while (clients.size() < connections)
+                    clients.add(new Client(engine.getLocalPort()));
+            } catch (IOException | OutOfMemoryError e) {
+                stoppedBy = " (stopped by " + e + ")";
+            }
+
+            connectMillis = (System.nanoTime() - connectStart) / 1_000_000;
+            System.gc();
+            threadCount = threads.getThreadCount() - threadsBefore;
+            heapUsed = (runtime.totalMemory() - runtime.freeMemory()) - heapBefore;
+
+            /* ---------------------- Latency -------------------- */
+
+            int active = Math.min(activeClients, clients.size());
+            latencies = new long[active * requestsPerClient];
+            pool = Executors.newFixedThreadPool(Math.max(1, active));
+            List<Future<?>> results = new ArrayList<>(active);
+
+            long requestStart = System.nanoTime();
+            for (int c = 0; c < active; c++) {
+                Client client = clients.get(c);
+                int offset = c * requestsPerClient;
+                results.add(pool.submit(() -> {
+                    for (int r = 0; r < requestsPerClient; r++)
+                        latencies[offset + r] = client.roundTrip();
+                    return null;
+                }));
+            }
+            for (Future<?> result : results)
+                result.get();
+            requestNanos = System.nanoTime() - requestStart;
+        } finally {
+            if (pool != null)
+                pool.shutdown();
+            for (Client client : clients)
+                client.close();
+            engine.stop();
+            protocol.shutdown();
+        }
+
+        /* ---------------------- Report -------------------- */
+
+        Arrays.sort(latencies);
+        System.out.printf("%-9s %7d %9d %8d %9.1f %10.0f %8.1f %8.1f %8.1f%s%n",
+                engine.getName(), clients.size(), connectMillis, threadCount, heapUsed / (1024.0 * 1024.0),
+                latencies.length / (requestNanos / 1e9),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0), stoppedBy);
+    }
+
+    /**
+     * @return Returns the given percentile of the sorted latencies, in microseconds
+     * @since 2026-10-18
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0)
+            return 0.0;
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        int connections = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_CONNECTIONS;
+        int activeClients = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_ACTIVE_CLIENTS;
+        int requests = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_REQUESTS;
+        String[] engines = (args.length > 3) ? Arrays.copyOfRange(args, 3, args.length) : DEFAULT_ENGINES;
+
+        if (!VirtualThreads.isSupported())
+            System.out.println("Note: this JVM has no virtual threads, the virtual engine runs on platform threads");
+
+        //Since outbound queues (See OutboundQueue), blocking is no longer the one-thread-per-client model it replaced
+        System.out.println("Note: blocking and virtual use two threads per connection, a reader and a writer");
+        System.out.printf("%-9s %7s %9s %8s %9s %10s %8s %8s %8s%n",
+                "engine", "conns", "conn ms", "threads", "heap MB", "req/s", "p50 us", "p99 us", "max us");
+        for (String engine : engines)
+            run(engine, connections, activeClients, requests);
+
+        System.exit(0);
+    }
+}
@@ -0,0 +1,197 @@
+package picross;
+
+import javax.swing.*;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import java.awt.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * EventConsole is the log sink behind every outputEvent() method. Any
+ * thread may log; messages go into a lock-free ring buffer (See
+ * MpscRingBuffer) and the caller returns straight away. At most once per
+ * frame, a Swing timer drains the buffer on the Event Dispatch Thread
+ * and appends everything in one batch, moving the caret once. The text
+ * pane keeps only the newest maxLines lines, and messages that arrive
+ * while the buffer is full are counted and reported instead of kept.
+ */
+public class EventConsole implements Consumer<String> {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final int FRAME_MILLIS = 16;
+    protected static final int DEFAULT_CAPACITY = 4096;
+    protected static final int DEFAULT_MAX_LINES = 1000;
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final Supplier<JTextPane> textPane;
+    private final MpscRingBuffer<Event> events;
+    private final int maxLines;
+    private final AtomicLong dropped;
+    private final AtomicBoolean drainScheduled;
+    private final Timer drainTimer;
+    private long droppedReported; //Only touched on the EDT
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Event is one logged message and its colour (null for the default).
+     */
+    private static class Event {
+
+        private final String text;
+        private final Color color;
+
+        Event(String text, Color color) {
+            this.text = text;
+            this.color = color;
+        }
+    }
+
+    /**
+     * @param textPane Supplies the pane to append to. It is asked on every
+     *                 drain, so the pane may be replaced or not exist yet
+     * @since 2026-10-18
+     */
+    public EventConsole(Supplier<JTextPane> textPane) {
+        this(textPane, DEFAULT_CAPACITY, DEFAULT_MAX_LINES);
+    }
+
+    /**
+     * @param textPane Supplies the pane to append to
+     * @param capacity Number of messages that can wait for the next frame
+     * @param maxLines Number of lines the pane keeps
+     * @since 2026-10-18
+     */
+    public EventConsole(Supplier<JTextPane> textPane, int capacity, int maxLines) {
+        this.textPane = textPane;
+        this.events = new MpscRingBuffer<>(capacity);
+        this.maxLines = maxLines;
+        this.dropped = new AtomicLong();
+        this.drainScheduled = new AtomicBoolean();
+        this.drainTimer = new Timer(FRAME_MILLIS, actionEvent -> drain());
+        this.drainTimer.setRepeats(false);
+    }
+
+    /* ---------------------- Logging -------------------- */
+
+    /**
+     * @param text The text to output, in the default colour
+     * @since 2026-10-18
+     */
+    @Override
+    public void accept(String text) {
+        log(text, null);
+    }
+
+    /**
+     * @param text  The text to output
+     * @param color The colour of the text, or null for the default
+     * @since 2026-10-18
+     *
+     * May be called from any thread. Never blocks.
+     */
+    public void log(String text, Color color) {
+        if (!events.offer(new Event(text, color)))
+            dropped.incrementAndGet();
+
+        //Only the first message of a frame starts the timer
+        if (drainScheduled.compareAndSet(false, true))
+            drainTimer.start();
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Runs on the EDT. Appends every waiting message, merging messages of
+     * the same colour into a single insert, then trims the oldest lines.
+     */
+    private void drain() {
+        drainScheduled.set(false);
+
+        JTextPane pane = textPane.get();
+        if (pane == null) {
+            events.drain(event -> {
+            }, events.getCapacity());
+            return;
+        }
+
+        Document document = pane.getDocument();
+        StringBuilder run = new StringBuilder();
+        Color runColor = null;
+
+        try {
+            Event event;
+            int count = 0;
+            while (count++ < events.getCapacity() && (event = events.poll()) != null) {
+                if (event.color != runColor && run.length() > 0) {
+                    document.insertString(document.getLength(), run.toString(), attributes(runColor));
+                    run.setLength(0);
+                }
+                runColor = event.color;
+                run.append(event.text).append('\n');
+            }
+
+            if (run.length() > 0)
+                document.insertString(document.getLength(), run.toString(), attributes(runColor));
+
+            long droppedNow = dropped.get();
+            if (droppedNow != droppedReported) {
+                document.insertString(document.getLength(), "(" + (droppedNow - droppedReported) + " messages dropped)\n", null);
+                droppedReported = droppedNow;
+            }
+
+            trim(document);
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+        }
+
+        // Update caret position to bottom of text pane
+        pane.setCaretPosition(document.getLength());
+
+        //Producers outpaced this drain, pick up the rest next frame
+        if (!events.isEmpty() && drainScheduled.compareAndSet(false, true))
+            drainTimer.start();
+    }
+
+    private void trim(Document document) throws BadLocationException {
+        Element root = document.getDefaultRootElement();
+        int excess = root.getElementCount() - maxLines;
+
+        if (excess > 0)
+            document.remove(0, root.getElement(excess - 1).getEndOffset());
+    }
+
+    private static AttributeSet attributes(Color color) {
+        if (color == null)
+            return null;
+
+        SimpleAttributeSet attributes = new SimpleAttributeSet();
+        StyleConstants.setForeground(attributes, color);
+        return attributes;
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    /**
+     * @return Returns the number of messages dropped because the buffer was full
+     * @since 2026-10-18
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+}
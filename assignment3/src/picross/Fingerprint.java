@@ -0,0 +1,131 @@
+package picross;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * Fingerprint computes 64-bit hashes of boards and hint sets, for use as
+ * dedup and cache keys in place of comparing configuration strings.
+ *
+ * Boards use Zobrist hashing: every (dimension, cell) pair has its own
+ * pseudo-random 64-bit key and a board's fingerprint is the XOR of the
+ * keys of its filled cells, so it is computed visiting only those
+ * (See PackedBoard.fingerprint(), which caches it). The keys are derived on the fly with
+ * the SplitMix64 finalizer instead of being kept in a table, so large
+ * boards cost no extra memory.
+ *
+ * Hint sets are hashed word by word with the same mixing function.
+ */
+public class Fingerprint {
+
+    /* ---------------------- Constants -------------------- */
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long BOARD_SEED = 0x5DEECE66DL;
+    private static final long HINT_SEED = 0x2545F4914F6CDD1DL;
+
+    private Fingerprint() {
+    }
+
+    /* ---------------------- Mixing -------------------- */
+
+    /**
+     * @param z Value to mix
+     * @return Returns the SplitMix64 finalizer of z
+     * @since 2026-10-18
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /* ---------------------- Boards -------------------- */
+
+    /**
+     * @param dimension Dimension of the board
+     * @return Returns the fingerprint of an empty board of that dimension
+     * @since 2026-10-18
+     */
+    public static long emptyBoard(int dimension) {
+        return mix64(BOARD_SEED + ((long) dimension * GOLDEN_GAMMA));
+    }
+
+    /**
+     * @param dimension Dimension of the board
+     * @param x         Column of the cell
+     * @param y         Row of the cell
+     * @return Returns the Zobrist key of the cell
+     * @since 2026-10-18
+     */
+    public static long cellKey(int dimension, int x, int y) {
+        long index = ((long) y * dimension) + x;
+        return mix64(BOARD_SEED ^ ((long) dimension << 40) ^ ((index + 1) * GOLDEN_GAMMA));
+    }
+
+    /**
+     * @param board The board to fingerprint
+     * @return Returns the fingerprint of the board
+     * @since 2026-10-18
+     *
+     * Computes the fingerprint from scratch, visiting only the filled
+     * cells. PackedBoard.fingerprint() caches the result until the board
+     * changes.
+     */
+    public static long of(PackedBoard board) {
+
+        int dimension = board.getDimension();
+        long hash = emptyBoard(dimension);
+
+        for (int y = 0; y < dimension; y++) {
+            for (int w = 0; w < board.getWordsPerRow(); w++) {
+                long word = board.getWord(y, w);
+                while (word != 0) {
+                    hash ^= cellKey(dimension, (w * PackedBoard.WORD_BITS) + Long.numberOfTrailingZeros(word), y);
+                    word &= word - 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /* ---------------------- Hints -------------------- */
+
+    /**
+     * @param hints The hints to fingerprint
+     * @return Returns the fingerprint of the row and column hints
+     * @since 2026-10-18
+     *
+     * Every run is folded in together with a line terminator, so that
+     * moving a run from one line to the next changes the result.
+     */
+    public static long of(HintEngine hints) {
+
+        long hash = mix64(HINT_SEED + ((long) hints.getDimension() * GOLDEN_GAMMA));
+
+        hash = fold(hash, hints.getRowHints());
+        hash = fold(hash, hints.getColumnHints());
+        return hash;
+    }
+
+    private static long fold(long hash, HintEngine.Axis axis) {
+
+        for (int line = 0; line < axis.getLineCount(); line++) {
+            for (int i = 0; i < axis.getRunCount(line); i++)
+                hash = mix64(hash + GOLDEN_GAMMA + axis.getRun(line, i));
+            hash = mix64(hash ^ GOLDEN_GAMMA);
+        }
+        return hash;
+    }
+
+    /**
+     * @param fingerprint The fingerprint to format
+     * @return Returns the fingerprint as 16 hex digits
+     * @since 2026-10-18
+     */
+    public static String toHex(long fingerprint) {
+        String hex = Long.toHexString(fingerprint);
+        return "0".repeat(16 - hex.length()) + hex;
+    }
+}
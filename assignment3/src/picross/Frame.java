@@ -0,0 +1,242 @@
+package picross;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * Frame is one message of protocol version 2, the binary successor of
+ * the clientID#opcode#payload text lines. On the wire a frame is
+ *   int  length of everything after this field
+ *   byte opcode (See GameServer.Protocols)
+ *   int  request ID, chosen by the client and echoed in the reply
+ *   long client handle (See handleOf())
+ *   payload
+ * all big-endian. Payloads are read straight from the ByteBuffer:
+ *   SEND_GAME, RECEIVE_GAME  the PuzzleCodec encoding, empty if none
+ *   SEND_DATA                int score, int time in seconds, int
+ *                            dimension, then the name in UTF-8
+ *   END_GAME                 empty from the client, a UTF-8 message
+ *                            from the server, which also sends one
+ *                            with request ID 0 when it shuts down
+ *   SUBSCRIBE                byte 1 (or empty) to subscribe, 0 to stop,
+ *                            from the client; the PuzzleCodec encoding
+ *                            from the server, both in the reply and in
+ *                            every push. Pushes have request ID 0 and
+ *                            handle 0, so one encoding serves everyone
+ *   JOIN                     the room's name in UTF-8 from the client; a
+ *                            UTF-8 status from the server
+ *   LEAVE                    empty from the client; a UTF-8 status from
+ *                            the server
+ *
+ * Every connection starts in text (version 1). A client that wants
+ * frames sends clientID#V#2 as its first line; the server answers with
+ * clientID#V#<version> and, if that is 2, both sides switch to frames
+ * for everything after that line. Servers that predate the negotiation
+ * ignore the request, so a client that gets no answer stays on text.
+ */
+public final class Frame {
+
+    /* ---------------------- Constants -------------------- */
+
+    public static final int VERSION = 2;
+    public static final int TEXT_VERSION = 1;
+    public static final String NEGOTIATE = "V";
+
+    protected static final int LENGTH_SIZE = 4;
+    protected static final int HEADER_SIZE = 1 + 4 + 8;
+    protected static final int MAX_FRAME_LENGTH = Integer.getInteger("picross.maxFrameLength", 1 << 20);
+    protected static final int MAX_LINE_LENGTH = NioServerEngine.MAX_LINE_LENGTH;
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final int opcode;
+    private final int requestId;
+    private final long handle;
+    private final ByteBuffer payload;
+
+    private Frame(int opcode, int requestId, long handle, ByteBuffer payload) {
+        this.opcode = opcode;
+        this.requestId = requestId;
+        this.handle = handle;
+        this.payload = payload;
+    }
+
+    /* ---------------------- Encoding -------------------- */
+
+    /**
+     * @param opcode    Protocol value (See GameServer.Protocols)
+     * @param requestId Request ID to send or echo
+     * @param handle    Handle of the client (See handleOf())
+     * @param payload   Payload, from its position to its limit. Not consumed
+     * @return Returns the whole frame, including the length, ready to write
+     * @since 2026-10-18
+     */
+    public static ByteBuffer encode(int opcode, int requestId, long handle, ByteBuffer payload) {
+        int payloadSize = (payload == null) ? 0 : payload.remaining();
+        if (HEADER_SIZE + payloadSize > MAX_FRAME_LENGTH)
+            throw new IllegalArgumentException("Frame payload too large: " + payloadSize + " bytes");
+
+        ByteBuffer frame = ByteBuffer.allocate(LENGTH_SIZE + HEADER_SIZE + payloadSize);
+        frame.putInt(HEADER_SIZE + payloadSize).put((byte) opcode).putInt(requestId).putLong(handle);
+        if (payload != null)
+            frame.put(payload.duplicate());
+        return frame.flip();
+    }
+
+    /**
+     * @return Returns a SEND_DATA payload (See class comment)
+     * @since 2026-10-18
+     */
+    public static ByteBuffer gameData(String name, int score, int timeSeconds, int dimension) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(12 + nameBytes.length).putInt(score).putInt(timeSeconds).putInt(dimension).put(nameBytes).flip();
+    }
+
+    public static ByteBuffer text(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param clientID UUID assigned by the server
+     * @return Returns the 64-bit handle that stands in for the UUID in
+     * frame headers. Both sides derive it, so it is never sent on its own
+     * @since 2026-10-18
+     */
+    public static long handleOf(String clientID) {
+        try {
+            UUID uuid = UUID.fromString(clientID);
+            return uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+        } catch (IllegalArgumentException iae) {
+            return Fingerprint.mix64(clientID.hashCode());
+        }
+    }
+
+    /* ---------------------- Decoding -------------------- */
+
+    /**
+     * @param body A frame without its length field, from position to limit
+     * @return Returns the decoded frame. Its payload shares the buffer
+     * @throws IllegalArgumentException if the body is shorter than the header
+     * @since 2026-10-18
+     */
+    public static Frame decode(ByteBuffer body) {
+        if (body.remaining() < HEADER_SIZE)
+            throw new IllegalArgumentException("Frame shorter than its header: " + body.remaining() + " bytes");
+
+        int opcode = body.get() & 0xFF;
+        int requestId = body.getInt();
+        long handle = body.getLong();
+        return new Frame(opcode, requestId, handle, body.slice());
+    }
+
+    /**
+     * @param length Value of a frame's length field
+     * @throws IllegalArgumentException if no valid frame can have that length
+     * @since 2026-10-18
+     */
+    public static void checkLength(int length) {
+        if (length < HEADER_SIZE || length > MAX_FRAME_LENGTH)
+            throw new IllegalArgumentException("Bad frame length: " + length);
+    }
+
+    /**
+     * @param in Stream positioned at the start of a frame
+     * @return Returns the frame body (without the length field), or null at end of stream
+     * @throws IOException if the stream fails or ends inside a frame
+     * @since 2026-10-18
+     */
+    public static ByteBuffer read(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException eof) {
+            return null;
+        }
+
+        try {
+            checkLength(length);
+        } catch (IllegalArgumentException iae) {
+            throw new IOException(iae.getMessage());
+        }
+
+        byte[] body = new byte[length];
+        in.readFully(body);
+        return ByteBuffer.wrap(body);
+    }
+
+    /**
+     * @param in Stream positioned at the start of a line
+     * @return Returns the line without its terminator, or null at end of stream
+     * @throws IOException if the stream fails or the line is longer than MAX_LINE_LENGTH
+     * @since 2026-10-18
+     *
+     * Reads byte by byte (from a buffered stream) rather than through a
+     * Reader, so that nothing past the line is consumed and the stream can
+     * switch to frames right after it.
+     */
+    public static String readLine(DataInputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0)
+                return (line.size() == 0) ? null : line.toString(StandardCharsets.UTF_8);
+            if (line.size() >= MAX_LINE_LENGTH)
+                throw new IOException("Line longer than " + MAX_LINE_LENGTH + " bytes");
+            line.write(b);
+        }
+
+        byte[] bytes = line.toByteArray();
+        int end = (bytes.length > 0 && bytes[bytes.length - 1] == '\r') ? bytes.length - 1 : bytes.length;
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    public int getOpcode() {
+        return opcode;
+    }
+
+    public int getRequestId() {
+        return requestId;
+    }
+
+    public long getHandle() {
+        return handle;
+    }
+
+    /**
+     * @return Returns the payload, positioned at its start
+     * @since 2026-10-18
+     */
+    public ByteBuffer getPayload() {
+        return payload;
+    }
+
+    /**
+     * @return Returns the payload decoded as UTF-8
+     * @since 2026-10-18
+     */
+    public String getText() {
+        return StandardCharsets.UTF_8.decode(payload.duplicate()).toString();
+    }
+
+    /**
+     * @return Returns a copy of the payload bytes
+     * @since 2026-10-18
+     */
+    public byte[] getBytes() {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -3,6 +3,7 @@ package picross;
 import picross.GameServer;
 import picross.GameClient;
 import java.awt.*;
+import java.util.Arrays;
 
 /**
  * @author Neil Kingdom
@@ -11,20 +12,31 @@ import java.awt.*;
  *
  * Game contains the main method, as well as global constants
  * for the game. It creates a new GameController object, passing references
- * to GameModel and GameView.
+ * to a PicrossGame session and a GameView.
  */
 public class Game {
 
-    /* ---------------------- Constants -------------------- */
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Screen holds the constants derived from the screen size. They live
+     * in their own class so that the Toolkit is only queried the first
+     * time a window is laid out, and never by the headless server.
+     */
+    public static class Screen {
 
-    public static final int MIN_WIN_WIDTH = (Toolkit.getDefaultToolkit().getScreenSize().width / 2);
-    public static final int MIN_WIN_HEIGHT = (Toolkit.getDefaultToolkit().getScreenSize().height / 2);
-    public static final int X_START_POS = ((Toolkit.getDefaultToolkit().getScreenSize().width / 2));
-    public static final int Y_START_POS = ((Toolkit.getDefaultToolkit().getScreenSize().height / 2));
+        /* ---------------------- Constants -------------------- */
 
-    /* ---------------------- Member Variables -------------------- */
+        public static final int MIN_WIN_WIDTH = (Toolkit.getDefaultToolkit().getScreenSize().width / 2);
+        public static final int MIN_WIN_HEIGHT = (Toolkit.getDefaultToolkit().getScreenSize().height / 2);
+        public static final int X_START_POS = ((Toolkit.getDefaultToolkit().getScreenSize().width / 2));
+        public static final int Y_START_POS = ((Toolkit.getDefaultToolkit().getScreenSize().height / 2));
 
-    protected static int dimension = 5;
+        private Screen() {
+        }
+    }
 
     public static void main(String[] args) {
 
@@ -33,6 +45,14 @@ public class Game {
             if(args[0].toLowerCase().equals("s")) {
                 GameServer.main(args);
             }
+            //Create server instance without a GUI
+            else if(args[0].toLowerCase().equals("h")) {
+                HeadlessServer.main(Arrays.copyOfRange(args, 1, args.length));
+            }
+            //Drive a running server with generated load
+            else if(args[0].toLowerCase().equals("l")) {
+                LoadGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            }
             //Create client instance
             else if(args[0].toLowerCase().equals("c")) {
                 GameClient.main(args);
@@ -43,15 +63,11 @@ public class Game {
         }
         //Regular MVC implementation
         else {
-            GameModel gameModel = new GameModel();
-            GameView gameView = new GameView();
-            new GameController(gameModel, gameView);
+            //Start filling the puzzle pool while the splash screen is up
+            PuzzlePool.getDefault();
+            PicrossGame game = new PicrossGame();
+            GameView gameView = new GameView(game);
+            new GameController(game, gameView);
         }
     }
-
-    /* ---------------------- Setters -------------------- */
-
-    public static void setDimension(int newDimension) {
-        dimension = newDimension;
-    }
 }
@@ -2,15 +2,18 @@ package picross;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
-import javax.swing.text.BadLocationException;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static picross.Game.*;
-import static picross.Game.Y_START_POS;
+import static picross.Game.Screen.*;
 
 /**
  * @author Neil Kingdom
@@ -28,9 +31,11 @@ public class GameClient extends JFrame {
     /* ---------------------- Constants -------------------- */
 
     final static char PROTOCOL_SEP = '#';
+    final static char REQUEST_SEP = '@'; //Separates the protocolID from an optional request ID
+    private final static int NEGOTIATE_TIMEOUT_MILLIS = 2000;
 
     enum Protocols {
-        END_GAME(0), SEND_GAME(1), RECEIVE_GAME(2), SEND_DATA(3);
+        END_GAME(0), SEND_GAME(1), RECEIVE_GAME(2), SEND_DATA(3), SUBSCRIBE(4), JOIN(5), LEAVE(6);
         private final int value;
         private Protocols(int value) {
             this.value = value;
@@ -51,13 +56,18 @@ public class GameClient extends JFrame {
     private static String serverIP;
     private static String config;
     private static JTextPane dataLog;
+    private final EventConsole console = new EventConsole(() -> dataLog);
     private static JLabel splashLabel;
 
     private Socket clientSocket;
-    private BufferedReader dataInStream;
-    private PrintWriter dataOutStream;
-
-    private GameModel gameModel;
+    private DataInputStream dataInStream;
+    private OutputStream dataOutStream;
+    private Thread listenThread;
+    private volatile int version = Frame.TEXT_VERSION; //See Frame
+    private final Map<Integer, Long> pendingRequests = new ConcurrentHashMap<>(); //Request ID -> System.nanoTime() when sent
+    private int nextRequestId;
+
+    private PicrossGame game;
     private GameView gameView;
     private GameController gameController;
 
@@ -78,8 +88,10 @@ public class GameClient extends JFrame {
         serverIP = "";
         config = "";
 
-        gameModel = new GameModel();
-        gameView = new GameView();
+        //Start filling the puzzle pool before the first "New Game"
+        PuzzlePool.getDefault();
+        game = new PicrossGame();
+        gameView = new GameView(game);
 
         clientSplash();
     }
@@ -139,6 +151,9 @@ public class GameClient extends JFrame {
         JButton bReceiveGame = new JButton("Receive Game");
         JButton bSendData = new JButton("Send Data");
         JButton bPlay = new JButton("Play");
+        JCheckBox checkSubscribe = new JCheckBox("Subscribe");
+        JTextField roomField = new JTextField();
+        JButton bJoin = new JButton("Join Room");
 
         dataLog = new JTextPane();
         JScrollPane dataScroll = new JScrollPane(dataLog);
@@ -151,6 +166,8 @@ public class GameClient extends JFrame {
         serverField.setText("localhost");
         portField.setPreferredSize(new Dimension(60, 20));
         portField.setText("8080");
+        roomField.setPreferredSize(new Dimension(80, 20));
+        roomField.setToolTipText("Room to play in, or empty to go back to the lobby");
 
         int v_scrollPolicyEnum = ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS;
         int h_scrollPolicyEnum = ScrollPaneConstants.HORIZONTAL_SCROLLBAR_ALWAYS;
@@ -196,13 +213,12 @@ public class GameClient extends JFrame {
 
                 genDatagram(Protocols.END_GAME, "");
 
+                //The server answers and closes the connection, which ends the listening thread
                 try {
-                    String serverMsg;
-                    while((serverMsg  = dataInStream.readLine()) != null) {
-                        outputEvent(serverMsg);
-                    }
-                } catch (IOException ioe) {
-                    errorPopup("Connection Error", "Communications error with host");
+                    if (listenThread != null)
+                        listenThread.join(NEGOTIATE_TIMEOUT_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
                 }
 
                 try {
@@ -224,20 +240,28 @@ public class GameClient extends JFrame {
             if(gameView.getJFrame() == null) {
                 //Set game to have a random dimension
                 Random rand = new Random();
-                randDimension = rand.nextInt((8 + 1) - 3) + 3;
-                Game.setDimension(randDimension);
-                gameModel.genRandBitStream();
-                config = gameModel.toString();
-
-                //Add commas for aesthetics...
-                StringBuffer sBuff = new StringBuffer(config);
-                for(int i = randDimension-1, j = 1; i < (randDimension * randDimension)-randDimension; i+=randDimension) {
-                    sBuff.insert(i + j, ",");
-                    j++; //String size changes once comma is added
-                }
+                int dimension = rand.nextInt((8 + 1) - 3) + 3;
+
+                //Generated off the EDT in case the pool has run dry
+                PuzzlePool.getDefault().takeAsync(dimension).whenComplete((puzzle, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        outputEvent("Could not generate a new puzzle: " + error + "\n");
+                        return;
+                    }
+                    randDimension = dimension;
+                    game.loadPuzzle(puzzle);
+                    config = game.toString();
+
+                    //Add commas for aesthetics...
+                    StringBuffer sBuff = new StringBuffer(config);
+                    for(int i = randDimension-1, j = 1; i < (randDimension * randDimension)-randDimension; i+=randDimension) {
+                        sBuff.insert(i + j, ",");
+                        j++; //String size changes once comma is added
+                    }
 
-                config = sBuff.toString();
-                outputEvent("Current game configuration loaded: " + config + "\n");
+                    config = sBuff.toString();
+                    outputEvent("Current game configuration loaded: " + config + "\n");
+                }));
             }
             else {
                 warningPopup("Warning", "Instance of game is running. Cannot load a new configuration");
@@ -246,8 +270,11 @@ public class GameClient extends JFrame {
 
         bSendData.addActionListener(actionEvent -> {
             if(gameView.getJFrame() != null) {
-                userData = userName + "," + gameView.getTime()[0] + ":" + gameView.getTime()[1] + "," + gameView.getPoints();
-                genDatagram(Protocols.SEND_DATA, userData);
+                userData = userName + "," + game.getTime()[0] + ":" + game.getTime()[1] + "," + game.getPoints() + "," + game.getDimension();
+                if (version >= Frame.VERSION)
+                    sendFrame(Protocols.SEND_DATA, Frame.gameData(userName, game.getPoints(), game.getTime()[0] * 60 + game.getTime()[1], game.getDimension()));
+                else
+                    genDatagram(Protocols.SEND_DATA, userData);
             }
             else {
                 warningPopup("Warning", "Cannot send data because no active game is running");
@@ -255,8 +282,14 @@ public class GameClient extends JFrame {
         });
 
         bSendGame.addActionListener(actionEvent -> {
-            if(!config.isEmpty())
-                genDatagram(Protocols.SEND_GAME, config);
+            if(!config.isEmpty()) {
+                try {
+                    //Sent in the compact encoded form rather than one character per cell
+                    genDatagram(Protocols.SEND_GAME, PuzzleCodec.isEncoded(config) ? config : PuzzleCodec.encodeText(ConfigParser.parse(config)));
+                } catch (IllegalArgumentException iae) {
+                    errorPopup("Error", "Invalid configuration: " + iae.getMessage());
+                }
+            }
             else
                 warningPopup("Warning", "No configuration has been loaded. Nothing will be sent");
         });
@@ -264,24 +297,40 @@ public class GameClient extends JFrame {
         bPlay.addActionListener(actionEvent -> SwingUtilities.invokeLater(() -> {
             if(config.isEmpty()) {
                 warningPopup("Warning", "No configuration has been loaded. Starting game with default configuration");
-                config = gameModel.toString();
+                config = game.toString();
             }
 
             //If client received config string from server, dimensions and hints need to be updated
             else {
-                config = config.replace(",", ""); //Unsure why this occurs, but sometimes commas persist after removing them when receiving serverMsg
-                Game.setDimension((int) Math.round(Math.sqrt(config.length())));
-                gameModel.setBoard(gameModel.tokenizeBitStream(config));
-                gameModel.setTopHintRow(gameModel.genTopHints(gameModel.getBoard()));
-                gameModel.setLeftHintCol(gameModel.genLeftHints(gameModel.getBoard()));
+                try {
+                    //Accepts the encoded form from the server as well as the comma-decorated form from "New Game"
+                    game.loadPuzzle(PuzzleCodec.decodeText(config));
+                } catch (IllegalArgumentException iae) {
+                    errorPopup("Error", "Invalid configuration: " + iae.getMessage());
+                    return;
+                }
             }
 
-            gameController = new GameController(gameModel, gameView);
-            gameController.rescaleBoard(dimension, false);
+            gameController = new GameController(game, gameView);
+            gameController.rescaleBoard(game.getDimension(), false);
         }));
 
         bReceiveGame.addActionListener(actionEvent -> genDatagram(Protocols.RECEIVE_GAME, ""));
 
+        //Have the server push every new configuration instead of polling with "Receive Game"
+        checkSubscribe.addActionListener(actionEvent -> {
+            if (version >= Frame.VERSION)
+                sendFrame(Protocols.SUBSCRIBE, ByteBuffer.wrap(new byte[]{(byte) (checkSubscribe.isSelected() ? 1 : 0)}));
+            else
+                genDatagram(Protocols.SUBSCRIBE, checkSubscribe.isSelected() ? "1" : "0");
+        });
+
+        //Play in a room of its own; an empty name leaves the room for the lobby
+        bJoin.addActionListener(actionEvent -> {
+            String room = roomField.getText().trim();
+            genDatagram(room.isEmpty() ? Protocols.LEAVE : Protocols.JOIN, room);
+        });
+
         /* ---------------------- Add Components -------------------- */
 
         splashPanel.add(splashLabel);
@@ -298,6 +347,9 @@ public class GameClient extends JFrame {
         submitPanel.add(bReceiveGame);
         submitPanel.add(bSendData);
         submitPanel.add(bPlay);
+        submitPanel.add(checkSubscribe);
+        submitPanel.add(roomField);
+        submitPanel.add(bJoin);
         logPanel.add(dataScroll);
 
         mainPanel.add(splashPanel);
@@ -323,38 +375,26 @@ public class GameClient extends JFrame {
 
         try {
             clientSocket = new Socket(serverIP, portNum);
-            dataInStream = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-            dataOutStream = new PrintWriter(clientSocket.getOutputStream());
+            dataInStream = new DataInputStream(new BufferedInputStream(clientSocket.getInputStream()));
+            dataOutStream = new BufferedOutputStream(clientSocket.getOutputStream());
         } catch (IOException ioe) {
             System.err.println("Client: Error initializing socket/stream");
             ioe.printStackTrace();
         }
 
         //Perpetually listen for messages from server
-        Thread listenThread = new Thread(() -> {
+        listenThread = new Thread(() -> {
             try {
-                String serverMsg = dataInStream.readLine();
+                String serverMsg = Frame.readLine(dataInStream);
                 clientID = serverMsg;
                 outputEvent("Connection with " + serverIP + " on port " + portNum + "\n");
                 outputEvent("Server: Your client ID is " + serverMsg + "\n"); //First message that client will receive
-                while (serverMsg != null) {
-                    serverMsg = dataInStream.readLine();
-                    String[] datagram = serverMsg.split(String.valueOf(PROTOCOL_SEP));
-                    if (datagram.length > 0) {
-                        switch (GameServer.Protocols.values()[Character.getNumericValue(datagram[1].charAt(0))]) { //"Casting" protocol id to an enum
-                            case RECEIVE_GAME -> {
-                                outputEvent(serverMsg);
-                                if (datagram.length > 2) {
-                                    outputEvent("(Server: Sent configuration string - " + datagram[2] + ")\n");
-                                    config = datagram[2].replace(",", "");
-                                } else {
-                                    outputEvent("(Server: No configuration has been stored yet...)\n");
-                                }
-                            }
-                            default -> outputEvent("Server disconnected\n");
-                        }
-                    }
-                }
+
+                negotiate();
+                if (version >= Frame.VERSION)
+                    listenForFrames();
+                else
+                    listenForLines();
             } catch (IOException ioe) {
                 errorPopup("Connection Error", "Communications error with host");
             }
@@ -362,6 +402,108 @@ public class GameClient extends JFrame {
         listenThread.start();
     }
 
+    /**
+     * @since 2026-10-18
+     * @throws IOException if the connection fails
+     *
+     * Asks the server for protocol version 2 (See Frame). Servers that do
+     * not know the request ignore it, so the client stays on text if no
+     * answer arrives in time. Holds the write lock throughout, so that no
+     * datagram is sent while the version is undecided.
+     * */
+    private synchronized void negotiate() throws IOException {
+        write((clientID + PROTOCOL_SEP + Frame.NEGOTIATE + PROTOCOL_SEP + Frame.VERSION + "\n").getBytes(StandardCharsets.UTF_8));
+
+        clientSocket.setSoTimeout(NEGOTIATE_TIMEOUT_MILLIS);
+        try {
+            String reply = Frame.readLine(dataInStream);
+            if ((clientID + PROTOCOL_SEP + Frame.NEGOTIATE + PROTOCOL_SEP + Frame.VERSION).equals(reply))
+                version = Frame.VERSION;
+        } catch (SocketTimeoutException ste) {
+            //Older server, keep using text
+        } finally {
+            clientSocket.setSoTimeout(0);
+        }
+        outputEvent("Using protocol version " + version + "\n");
+    }
+
+    /**
+     * @since 2026-10-18
+     * @throws IOException if the connection fails
+     *
+     * Replies may arrive in any order; each is matched to its request
+     * through the request ID after the protocolID, ie. clientID#2@17#data
+     * */
+    private void listenForLines() throws IOException {
+        String serverMsg;
+        while ((serverMsg = Frame.readLine(dataInStream)) != null) {
+            String[] datagram = serverMsg.split(String.valueOf(PROTOCOL_SEP));
+            if (datagram.length < 2 || datagram[1].isEmpty()) {
+                outputEvent(serverMsg);
+                continue;
+            }
+
+            int sep = datagram[1].indexOf(REQUEST_SEP);
+            int requestId = 0;
+            try {
+                if (sep >= 0)
+                    requestId = Integer.parseInt(datagram[1].substring(sep + 1));
+            } catch (NumberFormatException nfe) {
+                //Not one of ours, handle it uncorrelated
+            }
+
+            outputEvent(serverMsg);
+            GameServer.Protocols protocol = GameServer.Protocols.values()[Character.getNumericValue(datagram[1].charAt(0))]; //"Casting" protocol id to an enum
+            receiveReply(protocol, requestId, (datagram.length > 2) ? datagram[2] : "");
+        }
+    }
+
+    private void listenForFrames() throws IOException {
+        ByteBuffer body;
+        while ((body = Frame.read(dataInStream)) != null) {
+            Frame frame = Frame.decode(body);
+            GameServer.Protocols protocol = GameServer.Protocols.values()[frame.getOpcode()];
+
+            //Configurations arrive as raw bytes, every other reply as text
+            boolean isConfig = (protocol == GameServer.Protocols.RECEIVE_GAME || protocol == GameServer.Protocols.SUBSCRIBE);
+            String payload = isConfig ? (frame.getPayload().hasRemaining() ? PuzzleCodec.toText(frame.getBytes()) : "") : frame.getText();
+            receiveReply(protocol, frame.getRequestId(), payload);
+        }
+    }
+
+    /**
+     * @since 2026-10-18
+     * @param protocol The request being answered
+     * @param requestId The request ID echoed by the server, or 0 if none
+     * @param payload The reply, as text
+     * */
+    private void receiveReply(GameServer.Protocols protocol, int requestId, String payload) {
+        Long sent = (requestId == 0) ? null : pendingRequests.remove(requestId);
+        if (sent != null)
+            outputEvent("(Reply to request " + requestId + " after " + (System.nanoTime() - sent) / 1000000 + " ms)\n");
+
+        switch (protocol) {
+            case RECEIVE_GAME -> {
+                if (payload.isEmpty()) {
+                    outputEvent("(Server: No configuration has been stored yet...)\n");
+                } else {
+                    outputEvent("(Server: Sent configuration string - " + payload + ")\n");
+                    config = payload;
+                }
+            }
+            case SEND_GAME, SEND_DATA, JOIN, LEAVE -> outputEvent("(Server: " + payload + ")\n");
+            //Either the answer to subscribing, or a push (request ID 0)
+            case SUBSCRIBE -> {
+                if (!payload.isEmpty()) {
+                    outputEvent("(Server: " + ((requestId == 0) ? "Pushed" : "Current") + " configuration string - " + payload + ")\n");
+                    config = payload;
+                }
+            }
+            //Either the answer to "End", or the server going away (request ID 0)
+            case END_GAME -> outputEvent(payload.endsWith("\n") ? payload : payload + "\n");
+        }
+    }
+
     /**
      * @since 2022-12-08
      *
@@ -372,42 +514,89 @@ public class GameClient extends JFrame {
      * as it contains to parts: <ConfigStr><Separator: %><ClientData> where configStr
      * is the configuration string and clientData is the username, time, and score of
      * the player/client.
+     * Every request but END_GAME carries a request ID after the protocolID,
+     * ie. <ProtocolID><Separator: @><RequestID>, which the server echoes so
+     * that replies can be matched even when they come back out of order.
+     * Once version 2 has been negotiated, the same request goes out as a
+     * binary frame instead (See Frame).
      * */
     public void genDatagram(Protocols protocol, String data) {
 
+        if (version >= Frame.VERSION) {
+            ByteBuffer payload = null;
+            if (protocol == Protocols.SEND_GAME)
+                payload = ByteBuffer.wrap(PuzzleCodec.encode(PuzzleCodec.decodeText(data)));
+            else if (protocol == Protocols.JOIN)
+                payload = Frame.text(data);
+            sendFrame(protocol, payload);
+            return;
+        }
+
         String datagram = "";
         StringBuilder sb = new StringBuilder(datagram);
 
         switch (protocol) {
             case END_GAME -> sb.append(clientID).append(PROTOCOL_SEP).append(Protocols.END_GAME.getValue());
-            case SEND_GAME -> sb.append(clientID).append(PROTOCOL_SEP).append(Protocols.SEND_GAME.getValue()).append(PROTOCOL_SEP).append(data);
-            case RECEIVE_GAME -> sb.append(clientID).append(PROTOCOL_SEP).append(Protocols.RECEIVE_GAME.getValue());
-            case SEND_DATA -> sb.append(clientID).append(PROTOCOL_SEP).append(Protocols.SEND_DATA.getValue()).append(PROTOCOL_SEP).append(data);
+            case SEND_GAME -> sb.append(clientID).append(PROTOCOL_SEP).append(Protocols.SEND_GAME.getValue()).append(REQUEST_SEP).append(newRequest()).append(PROTOCOL_SEP).append(data);
+            case RECEIVE_GAME -> sb.append(clientID).append(PROTOCOL_SEP).append(Protocols.RECEIVE_GAME.getValue()).append(REQUEST_SEP).append(newRequest());
+            case SEND_DATA -> sb.append(clientID).append(PROTOCOL_SEP).append(Protocols.SEND_DATA.getValue()).append(REQUEST_SEP).append(newRequest()).append(PROTOCOL_SEP).append(data);
+            case SUBSCRIBE -> sb.append(clientID).append(PROTOCOL_SEP).append(Protocols.SUBSCRIBE.getValue()).append(REQUEST_SEP).append(newRequest()).append(PROTOCOL_SEP).append(data);
+            case JOIN -> sb.append(clientID).append(PROTOCOL_SEP).append(Protocols.JOIN.getValue()).append(REQUEST_SEP).append(newRequest()).append(PROTOCOL_SEP).append(data);
+            case LEAVE -> sb.append(clientID).append(PROTOCOL_SEP).append(Protocols.LEAVE.getValue()).append(REQUEST_SEP).append(newRequest());
         }
 
-        try {
-            dataOutStream.println(sb);
-            dataOutStream.flush();
-        } catch (NullPointerException e) {
+        sb.append('\n');
+        send(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @since 2026-10-18
+     * @return Returns a fresh request ID, remembered until its reply arrives
+     * */
+    private synchronized int newRequest() {
+        int requestId = ++nextRequestId;
+        pendingRequests.put(requestId, System.nanoTime());
+        return requestId;
+    }
+
+    /**
+     * @since 2026-10-18
+     * @param protocol The request to send
+     * @param payload The frame payload, or null for none
+     * */
+    public synchronized void sendFrame(Protocols protocol, ByteBuffer payload) {
+        ByteBuffer frame = Frame.encode(protocol.getValue(), newRequest(), Frame.handleOf(clientID), payload);
+        send(frame.array());
+    }
+
+    private synchronized void send(byte[] bytes) {
+        if (dataOutStream == null) {
             errorPopup("Error", "Client is not connected to the server");
+            return;
+        }
+
+        try {
+            write(bytes);
+        } catch (IOException ioe) {
+            errorPopup("Connection Error", "Communications error with host");
         }
     }
 
+    private void write(byte[] bytes) throws IOException {
+        dataOutStream.write(bytes);
+        dataOutStream.flush();
+    }
+
     /**
      * @since 2022-12-08
      * @param text The text to output to the text pane/console
      *
      * OutputEvent simply automates message output to the "console" ie.
-     * JTextPane. It is capable of manually scrolling the JScrollPane
+     * JTextPane. It is safe to call from any thread; messages are appended
+     * to the pane in batches on the EDT (See EventConsole)
      * */
     public void outputEvent(String text) {
-        try {
-            dataLog.getDocument().insertString(dataLog.getDocument().getLength(), text + "\n", null);
-        } catch (BadLocationException e) {
-            e.printStackTrace();
-        }
-        // Update caret position to bottom of text pane
-        dataLog.setCaretPosition(dataLog.getDocument().getLength());
+        console.accept(text);
     }
 
     /**
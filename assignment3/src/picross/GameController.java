@@ -3,12 +3,8 @@ package picross;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.Style;
-import javax.swing.text.StyleConstants;
-import javax.swing.text.StyledDocument;
 
-import static picross.Game.*;
+import static picross.Game.Screen.*;
 import static picross.GameView.*;
 
 /**
@@ -35,28 +31,25 @@ public class GameController {
 
     /* ---------------------- Member Variables -------------------- */
 
-    private static GameModel gameModel;
-    private static GameView gameView;
-
-    private static boolean perfectScore = true;
-    private static int tilesSelected = 0;
+    private final PicrossGame game;
+    private final GameView gameView;
+    private final EventConsole console;
 
     /* ---------------------- Initialization Methods -------------------- */
 
-    public GameController() {
-    }
-
     /**
-     * @param gameModel Instance of GameModel class
-     * @param gameView  Instance of GameView class
+     * @param game     The puzzle session being played
+     * @param gameView Instance of GameView class
      * @since 2021-09-15
      *
-     * Parameterized constructor. Takes in a GameModel object and a
+     * Parameterized constructor. Takes in a PicrossGame session and a
      * GameView object in order to access public methods from each class.
      */
-    public GameController(GameModel gameModel, GameView gameView) {
-        this.gameModel = gameModel;
+    public GameController(PicrossGame game, GameView gameView) {
+        this.game = game;
         this.gameView = gameView;
+        this.console = new EventConsole(gameView::getRightTextPane);
+        this.gameView.setGameController(this);
         this.gameView.splash();
     }
 
@@ -82,13 +75,9 @@ public class GameController {
      */
     public void setTimer() {
         Timer timer = new Timer(1000, e -> {
-            short mins = gameView.getTime()[0];
-            short seconds = gameView.getTime()[1];
-
-            if (seconds == 59)
-                mins = (short) ((++mins) % 60);
-            seconds = (short) ((++seconds) % 60);
-            gameView.setTime(new short[]{mins, seconds});
+            game.tick();
+            short mins = game.getTime()[0];
+            short seconds = game.getTime()[1];
 
             String timeField = "";
             StringBuilder sb = new StringBuilder(timeField);
@@ -116,30 +105,44 @@ public class GameController {
      * The name of this function is slightly decieving. It is used
      * for rescaling the board to newDimension, however, it is also
      * used for resetting the game by passing in the same dimension
-     * and putting genNewConfig as false.
+     * and putting genNewConfig as false. A new layout is generated off
+     * the EDT and the board is rebuilt once it is ready.
      */
     public void rescaleBoard(int newDimension, boolean genNewConfig) {
 
-        tilesSelected = 0;
-        Game.setDimension(newDimension);
+        if (!genNewConfig) {
+            game.reset();
+            layoutBoard();
+            return;
+        }
+
+        PuzzlePool.getDefault().takeAsync(newDimension).whenComplete((puzzle, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                outputEvent("Could not generate a new puzzle: " + error + "\n", PICROSS_RED);
+                return;
+            }
+            game.loadPuzzle(puzzle);
+            layoutBoard();
+        }));
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Rebuilds the board, hints and icons for the current puzzle.
+     */
+    private void layoutBoard() {
+        int dimension = game.getDimension();
         gameView.setTileDimension(MIN_WIN_HEIGHT / dimension);
 
         //Reset text components
         gameView.getRightTextPane().setText("");
-        gameView.setPoints(0);
         gameView.getPointsField().setText("00000");
-        gameView.setTime(new short[]{0, 0});
         gameView.getTimeField().setText("00:00");
 
-        if (genNewConfig) {
-            gameView.getTopHintRow().clear();
-            gameView.getLeftHintCol().clear();
-            gameModel.genRandBitStream();
-        }
-
         //Resize Icons
-        gameView.xTileIcon = gameView.resizeImageIcon(new Dimension(gameView.getTileDimension(), gameView.getTileDimension()), bufXTile);
-        gameView.tileSelectedIcon = gameView.resizeImageIcon(new Dimension(gameView.getTileDimension(), gameView.getTileDimension()), bufSelected);
+        gameView.xTileIcon = gameView.resizeImageIcon(new Dimension(gameView.getTileDimension(), gameView.getTileDimension()), gameView.bufXTile);
+        gameView.tileSelectedIcon = gameView.resizeImageIcon(new Dimension(gameView.getTileDimension(), gameView.getTileDimension()), gameView.bufSelected);
 
         //Clear existing components
         gameView.getTopPanel().removeAll();
@@ -167,16 +170,17 @@ public class GameController {
     public void showSolution() {
 
         outputEvent("Showing solution...\n", PICROSS_YELLOW);
-        String bitMatrix = "";
-        StringBuilder sb = new StringBuilder(bitMatrix);
+        int dimension = game.getDimension();
+        PackedBoard board = game.getBoard();
+        StringBuilder sb = new StringBuilder(dimension * (dimension + 1));
 
         for (int y = 0; y < dimension; y++) {
             for (int x = 0; x < dimension; x++) {
                 JLabel tile = gameView.getBoardMatrix().get((y * dimension) + x);
-                int bit = (gameModel.getBoard()[y][x]) ? 1 : 0;
-                sb.append(bit);
+                boolean bit = board.get(x, y);
+                sb.append(bit ? '1' : '0');
 
-                if (gameModel.getBoard()[y][x])
+                if (bit)
                     tile.setBackground(PICROSS_GREEN);
                 else
                     tile.setBackground(PICROSS_YELLOW);
@@ -340,7 +344,7 @@ public class GameController {
 
         comp.addActionListener(al -> {
             outputEvent(BUTTON_RESET_MESSAGE, PICROSS_YELLOW);
-            rescaleBoard(dimension, false);
+            rescaleBoard(game.getDimension(), false);
         });
     }
 
@@ -427,48 +431,34 @@ public class GameController {
             @Override
             public void mouseClicked(MouseEvent e) {
 
-                int points = gameView.getPoints();
-                int x = gameView.getBoardMatrix().indexOf(comp) % dimension;
-                int y = gameView.getBoardMatrix().indexOf(comp) / dimension;
-                JLabel tile = gameView.getBoardMatrix().get(x + (y * dimension));
-
-                //If tile was correct
-                if (gameModel.getBoard()[y][x]) {
-                    //If markBox was unchecked then correct
-                    if (!gameView.getMarkBoxState()) {
-                        gameView.setPoints(points + 1);
-                        outputEvent(CORRECT_TILE, PICROSS_GREEN);
-                        tile.setIcon(null);
-                        tile.setBackground(PICROSS_GREEN);
-                    } else {
-                        //If markBox was checked then incorrect
-                        perfectScore = false;
-                        gameView.setPoints(points - 1);
-                        outputEvent(INCORRECT_TILE, PICROSS_RED);
-                        tile.setIcon(gameView.xTileIcon);
-                        tile.setBackground(PICROSS_RED);
-                    }
+                int dimension = game.getDimension();
+                int index = gameView.getBoardMatrix().indexOf(comp);
+                int x = index % dimension;
+                int y = index / dimension;
+                boolean marked = gameView.getMarkBoxState();
+                JLabel tile = comp;
+
+                //Scoring is done by the session; only the visuals are decided here
+                if (game.selectTile(x, y, marked)) {
+                    outputEvent(CORRECT_TILE, PICROSS_GREEN);
+                    tile.setIcon(null);
+                    //Correctly marked tiles are shown in yellow, correctly selected tiles in green
+                    tile.setBackground(marked ? PICROSS_YELLOW : PICROSS_GREEN);
                 } else {
-                    //If tile was incorrect but markBox was checked
-                    if (gameView.getMarkBoxState()) {
-                        gameView.setPoints(points + 1);
-                        outputEvent(CORRECT_TILE, PICROSS_GREEN);
-                        tile.setIcon(null);
-                        tile.setBackground(PICROSS_YELLOW);
-                    }
-                    //Otherwise, tile must have been incorrect
-                    else {
-                        perfectScore = false;
-                        gameView.setPoints(points - 1);
-                        outputEvent(INCORRECT_TILE, PICROSS_RED);
-                        tile.setIcon(gameView.xTileIcon);
-                        tile.setBackground(PICROSS_RED);
-                    }
+                    outputEvent(INCORRECT_TILE, PICROSS_RED);
+                    tile.setIcon(gameView.xTileIcon);
+                    tile.setBackground(PICROSS_RED);
                 }
                 tile.removeMouseListener(this);
 
+                //Flag lines whose filled cells have all been found
+                if (game.isRowComplete(y))
+                    gameView.getLeftTextPaneArr().get(y).setForeground(PICROSS_GREEN);
+                if (game.isColumnComplete(x))
+                    gameView.getTopTextPaneArr().get(x).setForeground(PICROSS_GREEN);
+
                 //Update pointsField
-                points = gameView.getPoints();
+                int points = game.getPoints();
                 String pointsField = String.valueOf(points);
                 int len = pointsField.length();
                 StringBuilder sb = new StringBuilder(pointsField);
@@ -478,10 +468,13 @@ public class GameController {
                 pointsField = sb.toString();
                 gameView.getPointsField().setText(pointsField);
 
-                //Check if game has ended
-                tilesSelected++;
-                if (tilesSelected == dimension * dimension)
-                    gameView.endSplash(perfectScore);
+                //Check if game has ended. It ends as soon as the solution is reached, so lock the remaining tiles
+                if (game.isFinished()) {
+                    for (JLabel remaining : gameView.getBoardMatrix())
+                        for (MouseListener listener : remaining.getMouseListeners())
+                            remaining.removeMouseListener(listener);
+                    gameView.endSplash(game.isPerfectScore());
+                }
             }
 
             @Override
@@ -494,7 +487,7 @@ public class GameController {
 
             @Override
             public void mouseEntered(MouseEvent e) {
-                comp.setIcon(tileSelectedIcon);
+                comp.setIcon(gameView.tileSelectedIcon);
                 gameView.refresh();
             }
 
@@ -512,21 +505,10 @@ public class GameController {
      * @since 2021-10-09
      *
      * This method is used for logging events that occur within the game.
-     * Most action listeners invoke this method with event messages.
+     * Most action listeners invoke this method with event messages. The
+     * text is appended with the rest of the frame's messages (See EventConsole).
      */
     public void outputEvent(String text, Color textColor) {
-
-        JTextPane rightTextArea = gameView.getRightTextPane();
-        StyledDocument document = (StyledDocument) rightTextArea.getDocument();
-        Style style = rightTextArea.addStyle("", null);
-
-        try {
-            StyleConstants.setForeground(style, textColor);
-            document.insertString(document.getLength(), text + "\n", style);
-        } catch (BadLocationException e) {
-            e.printStackTrace();
-        }
-        // Update caret position to bottom of textarea
-        rightTextArea.setCaretPosition(rightTextArea.getDocument().getLength());
+        console.log(text, textColor);
     }
 }
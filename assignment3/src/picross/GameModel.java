@@ -1,10 +1,7 @@
 package picross;
 
-import java.util.ArrayList;
 import java.util.Random;
 
-import static picross.Game.dimension;
-
 /**
  * @author Neil Kingdom
  * @version 1.1
@@ -21,10 +18,8 @@ public class GameModel {
 
     /* ---------------------- Member Variables -------------------- */
 
-    private String bitStream;
-    private boolean[][] board;
-    private static ArrayList<ArrayList<Integer>> leftHintCol;
-    private static ArrayList<ArrayList<Integer>> topHintRow;
+    private PackedBoard board;
+    private HintEngine hints = new HintEngine();
 
     /**
      * @since 2021-10-09
@@ -34,147 +29,104 @@ public class GameModel {
      * and left column of hints.
      */
     public GameModel() {
-        bitStream = INITIAL_CONFIG;
-        board = tokenizeBitStream(bitStream);
-        leftHintCol = genLeftHints(board);
-        topHintRow = genTopHints(board);
+        board = tokenizeBitStream(INITIAL_CONFIG);
+        hints.compute(board);
     }
 
     /**
+     * @param dimension Dimension of the new board
      * @since 2021-10-09
      *
-     * Generates a sequence of bits which are stored in a string.
+     * Generates a random board. Bits are drawn 64 at a time and
+     * written straight into the packed rows.
      */
-    public void genRandBitStream() {
+    public void genRandBitStream(int dimension) {
 
-        bitStream = "";
         Random rand = new Random();
-        StringBuilder sb = new StringBuilder(bitStream);
+        PackedBoard newBoard = new PackedBoard(dimension);
+        long[] row = new long[newBoard.getWordsPerRow()];
 
-        for (int i = 0; i < dimension * dimension; i++)
-            sb.append((rand.nextBoolean()) ? "1" : "0");
+        for (int y = 0; y < dimension; y++) {
+            for (int i = 0; i < row.length; i++)
+                row[i] = rand.nextLong();
+            newBoard.setRow(y, row);
+        }
 
-        bitStream = sb.toString();
-        board = tokenizeBitStream(bitStream);
-        leftHintCol = genLeftHints(board);
-        topHintRow = genTopHints(board);
+        board = newBoard;
+        hints.compute(board);
     }
 
     /**
-     * @param bitStream The 1D sequence of random bits to be tokenized
-     * @return Returns a 2D array of random booleans
-     * @since 2021-10-09
+     * @param dimension Dimension of the new board
+     * @since 2026-10-18
      *
-     * Splits the random bit stream into chunks. 1s are treated as
-     * true, and 0s as false.
+     * Generates a random board whose hints have exactly one solution,
+     * so that every valid deduction the player makes is also correct
+     * (See PuzzleGenerator). Boards and their hints are normally already
+     * waiting in the shared PuzzlePool.
      */
-    public boolean[][] tokenizeBitStream(String bitStream) {
-
-        String subst[];
-        boolean board[][] = new boolean[dimension][dimension];
-
-        for (int i = 0; i < dimension; i++) {
-            subst = bitStream.substring(i * dimension, i * dimension + dimension).split("");
-            for (int j = 0; j < dimension; j++)
-                board[i][j] = (Integer.valueOf(subst[j]) == 1) ? true : false;
-        }
-
-        return board;
+    public void genUniqueBitStream(int dimension) {
+        setPuzzle(PuzzlePool.getDefault().take(dimension));
     }
 
     /**
-     * @param board The 2D array of random boolean values
-     * @return Returns a 2D array list of hints for the left column
-     * @since 2021-10-09
+     * @param puzzle A puzzle taken from a PuzzlePool
+     * @since 2026-10-18
      *
-     * This method scans the 2D array of random boolean values and
-     * generates hints for the left column of the game.
+     * Uses the puzzle's board and hints as they are.
      */
-    public static ArrayList genLeftHints(boolean[][] board) {
-
-        int count = 0;
-        ArrayList<ArrayList<Integer>> leftHintCol = new ArrayList<>(dimension);
-
-        for (int y = 0; y < dimension; y++) {
-            ArrayList<Integer> hintCell = new ArrayList<>();
-            for (int x = 0; x < dimension; x++) {
-                if (board[y][x]) {
-                    count++;
-                } else if (count > 0) {
-                    hintCell.add(count);
-                    count = 0;
-                } else ;
-            }
-            //Need one last check if count > 0 since for loop exits too early
-            if (count > 0)
-                hintCell.add(count);
-
-            leftHintCol.add(hintCell);
-            count = 0;
-        }
-
-        return leftHintCol;
+    public void setPuzzle(PuzzlePool.Puzzle puzzle) {
+        board = puzzle.getBoard();
+        hints = puzzle.getHints();
     }
 
-
     /**
-     * @param board The 2D array of random boolean values
-     * @return Returns a 2D array list of hints for the top row
+     * @param bitStream The 1D sequence of random bits to be tokenized
+     * @return Returns a packed board of random bits
      * @since 2021-10-09
      *
-     * This method scans the 2D array of random boolean values and
-     * generates hints for the top row of the game.
+     * Splits the random bit stream into rows. 1s are treated as
+     * true, and 0s as false. Separators such as commas are skipped
+     * (See ConfigParser).
      */
-    public static ArrayList genTopHints(boolean[][] board) {
-
-        int count = 0;
-        ArrayList<ArrayList<Integer>> topHintRow = new ArrayList<>(dimension);
-
-        for (int x = 0; x < dimension; x++) {
-            ArrayList<Integer> hintCell = new ArrayList<>();
-            for (int y = 0; y < dimension; y++) {
-                if (board[y][x]) {
-                    count++;
-                } else if (count > 0) {
-                    hintCell.add(count);
-                    count = 0;
-                } else ;
-            }
-            //Need one last check if count > 0 since for loop exits too early
-            if (count > 0)
-                hintCell.add(count);
-
-            topHintRow.add(hintCell);
-            count = 0;
-        }
-
-        return topHintRow;
+    public PackedBoard tokenizeBitStream(CharSequence bitStream) {
+        return ConfigParser.parse(bitStream);
     }
 
     /* ---------------------- Getters -------------------- */
 
-    public boolean[][] getBoard() {
+    public PackedBoard getBoard() {
         return board;
     }
 
-    public static ArrayList getLeftHintCol() {
-        return leftHintCol;
+    public HintEngine getHints() {
+        return hints;
+    }
+
+    public HintEngine.Axis getLeftHintCol() {
+        return hints.getRowHints();
     }
 
-    public static ArrayList getTopHintRow() {
-        return topHintRow;
+    public HintEngine.Axis getTopHintRow() {
+        return hints.getColumnHints();
     }
 
     @Override
     public String toString() {
-        return bitStream;
+        return board.toString();
     }
 
     /* ---------------------- Setters -------------------- */
 
-    public void setBoard(boolean[][] board) { this.board = board; }
-
-    public void setLeftHintCol(ArrayList<ArrayList<Integer>> leftHintCol) { this.leftHintCol = leftHintCol; }
-
-    public void setTopHintRow(ArrayList<ArrayList<Integer>> topHintRow) { this.topHintRow = topHintRow; }
+    /**
+     * @param board The new solution
+     * @since 2026-10-18
+     *
+     * Replaces the solution and regenerates the top row and left
+     * column of hints to match it.
+     */
+    public void setBoard(PackedBoard board) {
+        this.board = board;
+        hints.compute(board);
+    }
 }
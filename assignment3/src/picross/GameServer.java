@@ -2,16 +2,16 @@ package picross;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
-import javax.swing.text.BadLocationException;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static picross.Game.X_START_POS;
-import static picross.Game.Y_START_POS;
+import static picross.Game.Screen.X_START_POS;
+import static picross.Game.Screen.Y_START_POS;
 
 /**
  * @author Neil Kingdom
@@ -20,9 +20,17 @@ import static picross.Game.Y_START_POS;
  *
  * GameServer provides a GUI which represents a
  * server within a C/S architecture. The server
- * may connect to multiple clients using multi/
- * hyper threading. It can recieve client
+ * may connect to multiple clients, either with a
+ * thread per client or with a few selector event
+ * loops (See ServerEngine). It can recieve client
  * requests and respond to them accordingly
+ * (See ServerProtocol)
+ *
+ * Scores are saved to scores.dat, or to the file
+ * named by the system property picross.server.store,
+ * and restored on the next start (See ScoreStore).
+ * An empty picross.server.store keeps them in
+ * memory only
  * */
 public class GameServer extends JFrame {
 
@@ -30,9 +38,11 @@ public class GameServer extends JFrame {
 
     final static char PROTOCOL_SEP = '#';
     final static char DATA_SEP = '%';
+    final static char REQUEST_SEP = '@'; //Separates the protocolID from an optional request ID
+    private final static int RESULTS_PER_BOARD = 10;
 
     enum Protocols {
-        END_GAME(0), SEND_GAME(1), RECEIVE_GAME(2), SEND_DATA(3);
+        END_GAME(0), SEND_GAME(1), RECEIVE_GAME(2), SEND_DATA(3), SUBSCRIBE(4), JOIN(5), LEAVE(6);
         private final int value;
         private Protocols(int value) {
             this.value = value;
@@ -46,181 +56,42 @@ public class GameServer extends JFrame {
     /* ---------------------- Member Variables -------------------- */
 
     private static int portNum;
-    private static int numOfClients;
-    private static boolean serverOn;
-    private static boolean finalizeBox;
-    private static String globalConfig;
     private static JTextPane dataLog;
+    private final EventConsole console = new EventConsole(() -> dataLog);
     private static JLabel splashLabel;
-    private static Hashtable<String, String> userHighScoreTable;
 
-    private ServerSocket serverSocket;
-    private Socket clientSocket;
+    private final ServerProtocol protocol;
+    private final String engineName;
+    private final ScoreStore scoreStore;
+    private ServerEngine engine;
+    private MetricsEndpoint metricsEndpoint;
+    private final AtomicBoolean stopped = new AtomicBoolean();
 
     protected static BufferedImage bufServerSplash;
     protected static ImageIcon serverSplashIcon;
 
     /**
      * @since 2021-11-28
+     * @param engineName Connection engine to serve clients with (See ServerEngine.create())
+     * @param storeFile File to keep scores in across restarts, or null (See ScoreStore)
      *
      * Default constructor for GameServer
      */
-    private GameServer() {
+    private GameServer(String engineName, String storeFile) {
         portNum = 0;
-        numOfClients = 0;
-        serverOn = true;
-        finalizeBox = false;
-        globalConfig = "";
-        userHighScoreTable = new Hashtable<>(10);
+        this.engineName = engineName;
+        protocol = new ServerProtocol(this::outputEvent);
+        scoreStore = openScoreStore(storeFile);
+        protocol.setOnLastClient(() -> {
+            shutdown();
+            dispose();
+            System.exit(0);
+        });
+        //Also drain on SIGTERM or any other exit; shutdown() only runs once
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "GameServer-shutdown"));
         serverSplash();
     }
 
-    /**
-     * @author Neil Kingdom
-     * @version 1.0
-     * @since 2021-11-28
-     *
-     * ClientThread extends Thread and overrides the run() method
-     * from the Runnable interface. This allows the code for each
-     * client to be run on a separate thread, allowing for
-     * parallel execution. Aside from that, each client thread
-     * listens for messages from their respective clients and
-     * handles actions according to the protocolID send in the
-     * datagram (See genDatagram() in GameClient)
-     * */
-    class ClientThread extends Thread {
-
-        Socket clientSocket;
-        BufferedReader dataInStream;
-        PrintWriter dataOutStream;
-        String[] datagram;
-
-        ClientThread(Socket socket) {
-            clientSocket = socket;
-        }
-
-        @Override
-        public void run() {
-
-            /* ---------------------- Initialize socket/streams -------------------- */
-            try {
-                dataInStream = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-                dataOutStream = new PrintWriter(clientSocket.getOutputStream());
-
-                //We want to generate a unique identifier (UUID) for each client
-                UUID clientUUID = UUID.randomUUID();
-                String clientID = String.valueOf(clientUUID);
-                addUserRecord(clientID, "");
-
-                //Send UUID to client
-                dataOutStream.println(clientID);
-                dataOutStream.flush();
-
-                String clientMsg;
-                while ((clientMsg = dataInStream.readLine()) != null) {
-                    datagram = clientMsg.split(String.valueOf(PROTOCOL_SEP));
-
-                    switch(Protocols.values()[Character.getNumericValue(datagram[1].charAt(0))]) { //"Casting" protocol id to an enum
-                        //End connection to this client
-                        case END_GAME -> {
-                            outputEvent(clientMsg);
-                            outputEvent("(Client: Initiated a disconnection request...)\n");
-                            dataOutStream.println("Disconnected from host: " + serverSocket.getLocalSocketAddress() + "\n");
-                            dataOutStream.flush();
-                            try {
-                                dataInStream.close();
-                                dataOutStream.close();
-                                clientSocket.close();
-                            } catch(IOException ioe) {
-                                System.err.println("Server: Something went wrong while disconnecting");
-                                ioe.printStackTrace();
-                            }
-
-                            userHighScoreTable.remove(datagram[0]); //Remove user
-                            Set<String> users = userHighScoreTable.keySet();
-                            numOfClients = users.size();
-                            outputEvent("Disconnected from client " + datagram[0] + "\n");
-
-                            //End server if no clients are left
-                            if(finalizeBox && numOfClients == 0) {
-                                outputEvent("There are no more clients left. Quiting server...\n");
-                                serverOn = false;
-
-                                //Close server socket
-                                try {
-                                    serverSocket.close();
-                                } catch (IOException e) {
-                                    System.err.println("Unable to close one or more streams/sockets");
-                                    e.printStackTrace();
-                                }
-
-                                System.out.println("Ended server");
-                                dispose();
-                                System.exit(0);
-                            }
-                        }
-                        //Receive client game configuration
-                        case SEND_GAME-> {
-                            String config = datagram[2];
-                            outputEvent(clientMsg);
-                            outputEvent("(Client: Sent configuration string - " + config + ")\n");
-                            outputEvent("Saving configuration...\n");
-
-                            /* TODO: Turns out that this was unecesarry for the assignment. Only one string needs to be stored globally for all users. No need to keep a record in hash map
-
-                            //Update stored configuration associated with user
-                            String[] oldClientData = userHighScoreTable.get(datagram[0]).split(String.valueOf(DATA_SEP));
-                            StringBuilder sb = new StringBuilder(config);
-                            sb.append(DATA_SEP);
-                            if(oldClientData.length > 1) //Client data may not exist
-                                sb.append(oldClientData[1]);
-                            userHighScoreTable.replace(datagram[0], userHighScoreTable.get(datagram[0]), sb.toString());
-                            */
-
-                            globalConfig = datagram[2];
-                            outputEvent("Configuration saved\n");
-                        }
-                        //Send client game configuration
-                        case RECEIVE_GAME -> {
-                            outputEvent(clientMsg);
-                            outputEvent("(Client: Requesting configuration string)\n");
-                            outputEvent("Sending sequence to client...\n");
-
-                            /* TODO: Once again, unecesarry
-                            String config = userHighScoreTable.get(datagram[0]).split(String.valueOf(DATA_SEP))[0];
-                            dataOutStream.println(config);
-                            */
-
-                            String returnDatagram = "";
-                            StringBuilder sb = new StringBuilder(returnDatagram);
-                            sb.append(datagram[0]).append(PROTOCOL_SEP).append(GameClient.Protocols.RECEIVE_GAME.getValue()).append(PROTOCOL_SEP).append(globalConfig);
-
-                            dataOutStream.println(sb);
-                            dataOutStream.flush();
-                            outputEvent("Sequence sent");
-                        }
-                        //Receive client data eg. name, score, and time
-                        case SEND_DATA -> {
-                            String gameData = datagram[2];
-                            outputEvent(clientMsg);
-                            outputEvent("(Client: Sent game data - " + gameData + ")\n");
-                            outputEvent("Saving data...\n");
-
-                            //Update stored data associated with user
-                            String[] oldClientData = userHighScoreTable.get(datagram[0]).split(String.valueOf(DATA_SEP));
-                            StringBuilder sb = new StringBuilder(oldClientData[0]);
-                            sb.append(DATA_SEP).append(gameData);
-                            userHighScoreTable.replace(datagram[0], userHighScoreTable.get(datagram[0]), sb.toString());
-                            outputEvent("Data saved\n");
-                        }
-                    }
-                }
-            } catch (IOException ioe) {
-                //Ignore when client disconnects
-            }
-        }
-    }
-
     /**
      * @since 2021-11-28
      *
@@ -302,45 +173,32 @@ public class GameServer extends JFrame {
 
         bResults.addActionListener(actionEvent -> {
             JDialog scoreBoard = new JDialog();
-            //Not a very elegant way of checking that no scores exist but it works
-            Enumeration clients = userHighScoreTable.elements();
-            boolean isEmpty = true;
-            while(clients.hasMoreElements()) {
-                if(!clients.nextElement().equals("")) {
-                    isEmpty = false;
-                    break;
-                }
-            }
+            PlayerStore players = protocol.getPlayers();
 
-            if(isEmpty) {
+            if(!players.hasScores()) {
                 JOptionPane.showMessageDialog(scoreBoard, "No scores to display :(");
             }
             else {
-                clients = userHighScoreTable.elements();
-                String entry = "";
-                StringBuilder sb = new StringBuilder(entry);
-
-                while(clients.hasMoreElements()) {
-
-                    String rawData = clients.nextElement().toString();
-                    String[] data = rawData.split(String.valueOf(DATA_SEP));
-
-                    if(data.length > 1) {
-                        String clientData = data[1];
-
-                        String[] dataFields = clientData.split(",");
-
-                        sb.append("Username: " + dataFields[0] + ", ");
-                        sb.append("Time: " + dataFields[1] + ", ");
-                        sb.append("Score: " + dataFields[2] + "\n");
-                    }
+                StringBuilder sb = new StringBuilder();
+                Leaderboard leaderboard = players.getLeaderboard();
+
+                //Best RESULTS_PER_BOARD scores of each puzzle size
+                for(int dimension : leaderboard.getDimensions()) {
+                    if(leaderboard.size(dimension) == 0)
+                        continue;
+
+                    sb.append((dimension == Leaderboard.UNKNOWN_DIMENSION) ? "Other puzzles" : dimension + "x" + dimension).append(":\n");
+                    int rank = 1;
+                    for(PlayerRecord record : leaderboard.top(dimension, RESULTS_PER_BOARD))
+                        sb.append(rank++).append(". ").append(record).append("\n");
                 }
+
                 JOptionPane.showMessageDialog(scoreBoard, sb.toString());
             }
         });
 
         checkFinal.addActionListener(actionEvent -> {
-            finalizeBox = (finalizeBox) ? false : true;
+            protocol.setFinalizeBox(!protocol.isFinalizeBox());
         });
 
         bEnd.addActionListener(actionEvent -> {
@@ -352,23 +210,14 @@ public class GameServer extends JFrame {
                     JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE, null, options, options[1]);
 
             if (n == 0) {
-                serverOn = false;
-
-                //Close all sockets and streams
-                try {
-                    if (clientSocket != null)
-                        clientSocket.close();
-                    if (serverSocket != null)
-                        serverSocket.close();
-                } catch (IOException e) {
-                    System.err.println("Unable to close one or more streams/sockets");
-                    e.printStackTrace();
-                }
-
-                System.out.println("Server ended");
                 endGame.dispose();
-                dispose();
-                System.exit(0);
+
+                //Drain off the EDT, so the log keeps showing the clients going
+                new Thread(() -> {
+                    shutdown();
+                    dispose();
+                    System.exit(0);
+                }, "GameServer-end").start();
             }
         });
 
@@ -399,65 +248,123 @@ public class GameServer extends JFrame {
      * @since 2022-12-08
      *
      * This method establishes the connection between the client and the host.
-     * A thread is created which calls .accept() in a for loop. The .accept()
-     * method is a blocking method, which means that the code is effectively
-     * halted until a client request is recieved. For each new client, a new
-     * thread is started so that the server can communicate with multiple
-     * clients simultaneously
+     * Clients are accepted and served in the background by the selected
+     * ServerEngine, either with a thread per client or with a few selector
+     * event loops, so that the server can still perform other operations.
      * */
     public boolean connectToClient() {
 
-        //Perpetually accept new client connections (must be on new thread so that server can still perform other operations)
-        Thread listenThread = new Thread(() -> {
-            try {
-                serverSocket = new ServerSocket(portNum);
-
-                while (serverOn) {
-                    try {
-                        clientSocket = serverSocket.accept(); //Blocking function
-                        outputEvent("Current number of clients: " + (++numOfClients) + "\n");
-                        ClientThread cliThread = new ClientThread(clientSocket);
-                        cliThread.start(); //Create new thread for client
-                    } catch (IOException ioe) {
-                        errorPopup("Connection Error", "Failed to connect to client");
-                    }
-                }
-
-            } catch (IOException e) {
-                errorPopup("Error", "Could not create server socket on port " + portNum);
-            }
-        });
-        listenThread.start();
+        try {
+            engine = ServerEngine.create(engineName, protocol);
+            engine.start(portNum);
+            outputEvent("Serving clients with the " + engine.getName() + " engine\n");
+        } catch (IOException | IllegalArgumentException e) {
+            errorPopup("Error", "Could not create server socket on port " + portNum + ": " + e.getMessage());
+            return false;
+        }
 
+        startMetrics();
         return true;
     }
 
     /**
-     * @since 2022-12-08
-     * @param text The text to output to the text pane/console
+     * @since 2026-10-18
      *
-     * OutputEvent simply automates message output to the "console" ie.
-     * JTextPane. It is capable of manually scrolling the JScrollPane
+     * Exports the protocol's metrics through JMX and, if the
+     * picross.metrics.port property is set, over HTTP on that loopback
+     * port (See MetricsEndpoint). Failing to export never stops the server.
      * */
-    public void outputEvent(String text) {
+    private void startMetrics() {
+        protocol.getMetrics().register();
+
+        Integer metricsPort = Integer.getInteger("picross.metrics.port");
+        if (metricsPort == null || metricsEndpoint != null)
+            return;
+
         try {
-            dataLog.getDocument().insertString(dataLog.getDocument().getLength(), text + "\n", null);
-        } catch (BadLocationException e) {
-            e.printStackTrace();
+            metricsEndpoint = new MetricsEndpoint(protocol.getMetrics());
+            metricsEndpoint.start(metricsPort);
+            outputEvent("Serving metrics on http://localhost:" + metricsEndpoint.getPort() + MetricsEndpoint.PATH + "\n");
+        } catch (IOException e) {
+            metricsEndpoint = null;
+            outputEvent("Could not serve metrics on port " + metricsPort + ": " + e.getMessage() + "\n");
+        }
+    }
+
+    /**
+     * @since 2026-10-18
+     * @param storeFile File to keep scores in, or null
+     * @return Returns the opened store, or null if scores are kept in memory only
+     *
+     * Opens the score store and restores the scores of the last run.
+     * */
+    private ScoreStore openScoreStore(String storeFile) {
+        if (storeFile == null || storeFile.isEmpty()) {
+            outputEvent("Scores are kept in memory only (picross.server.store is empty)\n");
+            return null;
+        }
+
+        try {
+            //The virtual engine saves scores from a virtual thread too
+            ExecutorService storeWriter = engineName.equals(BlockingServerEngine.VIRTUAL_NAME) ? VirtualThreads.newExecutor() : null;
+            ScoreStore store = new ScoreStore(Path.of(storeFile), this::outputEvent, storeWriter);
+            protocol.attachScoreStore(store);
+            outputEvent("Saving scores to " + store.getFile().toAbsolutePath() + "\n");
+            return store;
+        } catch (IOException e) {
+            errorPopup("Error", "Could not open score store " + storeFile + ": " + e.getMessage() + "\nScores will not be saved.");
+            return null;
         }
-        // Update caret position to bottom of text pane
-        dataLog.setCaretPosition(dataLog.getDocument().getLength());
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Stops accepting, says goodbye to every client and waits for their
+     * pending replies to be written, up to the drain timeout (See
+     * ServerProtocol.drain()), then closes whatever is left and saves
+     * every score. Only the first call does anything.
+     * */
+    private void shutdown() {
+        if (!stopped.compareAndSet(false, true))
+            return;
+
+        if (engine != null) {
+            engine.stopAccepting();
+            protocol.drain(ServerProtocol.DRAIN_TIMEOUT_MILLIS);
+            engine.stop();
+        }
+        protocol.shutdown();
+        if (metricsEndpoint != null)
+            metricsEndpoint.stop();
+        protocol.getMetrics().unregister();
+        closeScoreStore();
+        System.out.println("Server ended");
+    }
+
+    private void closeScoreStore() {
+        if (scoreStore == null)
+            return;
+
+        try {
+            if (!scoreStore.flush(ServerProtocol.DRAIN_TIMEOUT_MILLIS))
+                System.err.println("Timed out saving scores to " + scoreStore.getFile());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        scoreStore.close();
     }
 
     /**
      * @since 2022-12-08
-     * @param clientID UUID of the client
-     * @param clientData Data supplied by the client
+     * @param text The text to output to the text pane/console
      *
-     * Adds a new entry to the userHighScoreTable (HashMap)
+     * OutputEvent simply automates message output to the "console" ie.
+     * JTextPane. It is safe to call from any thread; messages are appended
+     * to the pane in batches on the EDT (See EventConsole)
      * */
-    public void addUserRecord(String clientID, String clientData) {
-        userHighScoreTable.put(clientID, clientData);
+    public void outputEvent(String text) {
+        console.accept(text);
     }
 
     /**
@@ -479,7 +386,13 @@ public class GameServer extends JFrame {
      * user supplies the command line argument 's'
      * */
     public static void main(String[] args) {
+        //Optional second argument selects the engine, eg. "s nio"
+        String engineName = (args.length >= 2) ? args[1] : System.getProperty("picross.server.engine", BlockingServerEngine.NAME);
+
+        //Empty to keep scores in memory only
+        String storeFile = System.getProperty("picross.server.store", HeadlessServer.DEFAULT_STORE);
+
         //Start GUI
-        SwingUtilities.invokeLater(() -> new GameServer());
+        SwingUtilities.invokeLater(() -> new GameServer(engineName, storeFile));
     }
 }
@@ -13,7 +13,7 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.ArrayList;
 
-import static picross.Game.*;
+import static picross.Game.Screen.*;
 
 /**
  * @author Neil Kingdom
@@ -30,7 +30,6 @@ public class GameView  {
     protected static final int PADDING = 3;
     private static final Insets INSETS = new Insets(1, 1, 1, 1);
     private static final boolean DEBUG = false;
-    private static final GameController gameController = new GameController();
 
     //Background colors
     private static final Color BKGRD = new Color(55, 61, 103);
@@ -43,62 +42,62 @@ public class GameView  {
     protected static Color PICROSS_YELLOW = new Color(250, 163, 49);
     protected static Color PICROSS_GREEN = new Color(26, 173, 117);
 
+    //Session
+    private final PicrossGame game;
+    private GameController gameController;
+
     //JComponents
-    private static JFrame jf;
-    private static JPanel markPanel, topPanel, leftPanel, centerPanel, rightPanel;
-    private static JTextPane rightTextPane;
-    private static JTextField pointsField;
-    private static JTextField timeField;
-    private static JCheckBox markBox;
-    private static JLabel bannerLogo;
-    private static JLabel gameTextLabel;
-    private static JLabel splashBackground;
-    private static ArrayList<JLabel> boardMatrix;
-    private static ArrayList<JTextPane> topTextPaneArr;
-    private static ArrayList<JTextPane> leftTextPaneArr;
-    private static ArrayList<ArrayList<Integer>> topHintRow;
-    private static ArrayList<ArrayList<Integer>> leftHintCol;
+    private JFrame jf;
+    private JPanel markPanel, topPanel, leftPanel, centerPanel, rightPanel;
+    private JTextPane rightTextPane;
+    private JTextField pointsField;
+    private JTextField timeField;
+    private JCheckBox markBox;
+    private JLabel bannerLogo;
+    private JLabel gameTextLabel;
+    private JLabel splashBackground;
+    private ArrayList<JLabel> boardMatrix;
+    private ArrayList<JTextPane> topTextPaneArr;
+    private ArrayList<JTextPane> leftTextPaneArr;
+    private HintEngine.Axis topHintRow;
+    private HintEngine.Axis leftHintCol;
 
     //Variables
-    private static int tileDimension;
-    private static int points;
-    private static short mins;
-    private static short seconds;
-    private static boolean markBoxState;
-    private static int endSplashWidth;
-    private static int endSplashHeight;
+    private int tileDimension;
+    private boolean markBoxState;
+    private int endSplashWidth;
+    private int endSplashHeight;
 
     //Resources
-    protected static BufferedImage bufGameOverSplash;
-    protected static BufferedImage bufWinnerSplash;
-    protected static BufferedImage bufSelected;
-    protected static BufferedImage bufBanner;
-    protected static BufferedImage bufXTile;
-    protected static BufferedImage bufSplash;
-    protected static BufferedImage bufStartGameText;
-
-    protected static ImageIcon gameOverIcon;
-    protected static ImageIcon winnerIcon;
-    protected static ImageIcon tileSelectedIcon;
-    protected static ImageIcon bannerIcon;
-    protected static ImageIcon xTileIcon;
-    protected static ImageIcon splashIcon;
-    protected static ImageIcon startGameTextIcon;
-
-    protected static Font mcRegular;
-    protected static Font openSans;
+    protected BufferedImage bufGameOverSplash;
+    protected BufferedImage bufWinnerSplash;
+    protected BufferedImage bufSelected;
+    protected BufferedImage bufBanner;
+    protected BufferedImage bufXTile;
+    protected BufferedImage bufSplash;
+    protected BufferedImage bufStartGameText;
+
+    protected ImageIcon gameOverIcon;
+    protected ImageIcon winnerIcon;
+    protected ImageIcon tileSelectedIcon;
+    protected ImageIcon bannerIcon;
+    protected ImageIcon xTileIcon;
+    protected ImageIcon splashIcon;
+    protected ImageIcon startGameTextIcon;
+
+    protected Font mcRegular;
+    protected Font openSans;
 
     /**
+     * @param game The puzzle session this view displays
      * @since 2021-10-09
      *
      * Parameterized constructor for GameView.
      */
-    public GameView() {
+    public GameView(PicrossGame game) {
         //super("Picross - Neil Kingdom");
-        tileDimension = MIN_WIN_HEIGHT / dimension;
-        points = 0;
-        mins = 0;
-        seconds = 0;
+        this.game = game;
+        tileDimension = MIN_WIN_HEIGHT / game.getDimension();
         markBoxState = false;
         endSplashWidth = 300;
         endSplashHeight = 125;
@@ -146,6 +145,7 @@ public class GameView  {
      */
     public void initGame() {
 
+        int dimension = game.getDimension();
         jf = new JFrame("Picross - Neil Kingdom");
         Container mainPanel = jf.getContentPane();
 
@@ -632,7 +632,7 @@ public class GameView  {
 
         /* ---------------------- Add Components to End Splash -------------------- */
 
-        JLabel pointsLabel = new JLabel("Points: " + points);
+        JLabel pointsLabel = new JLabel("Points: " + game.getPoints());
         pointsLabel.setPreferredSize(new Dimension(75, 20));
         JButton gameOverButton = new JButton("Continue");
         gameOverButton.setPreferredSize(new Dimension(75, 20));
@@ -656,7 +656,8 @@ public class GameView  {
      */
     public void addTopHintRow() {
 
-        topHintRow = GameModel.getTopHintRow();
+        int dimension = game.getDimension();
+        topHintRow = game.getTopHintRow();
         GridBagConstraints gbcTop = new GridBagConstraints();
         gbcTop.weightx = 0.2;
         gbcTop.weighty = 0.2;
@@ -672,7 +673,7 @@ public class GameView  {
             topTextPane.setBackground(BKGRD);
             if(DEBUG) topTextPane.setBorder(BorderFactory.createLineBorder(FRGRD, 3));
 
-            int variableHeight = topHintRow.get(x).size() * (tileDimension / 2);
+            int variableHeight = topHintRow.getRunCount(x) * (tileDimension / 2);
             topTextPane.setSize(new Dimension(tileDimension, variableHeight));
 
             StyledDocument doc = topTextPane.getStyledDocument();
@@ -680,8 +681,8 @@ public class GameView  {
                 String hintCellStr = "";
                 StringBuilder sb = new StringBuilder(hintCellStr);
 
-                for (Integer i : topHintRow.get(x))
-                    sb.append(i).append("\n");
+                for (int i = 0; i < topHintRow.getRunCount(x); i++)
+                    sb.append(topHintRow.getRun(x, i)).append("\n");
 
                 hintCellStr = sb.toString();
                 doc.insertString(0, hintCellStr, null);
@@ -708,7 +709,8 @@ public class GameView  {
      */
     public void addLeftHintCol() {
 
-        leftHintCol = GameModel.getLeftHintCol();
+        int dimension = game.getDimension();
+        leftHintCol = game.getLeftHintCol();
         GridBagConstraints gbcLeft = new GridBagConstraints();
         gbcLeft.weightx = 0.2;
         gbcLeft.weighty = 0.2;
@@ -734,8 +736,8 @@ public class GameView  {
                     sb.append("\n");
                 }
 
-                for (Integer i : leftHintCol.get(y))
-                    sb.append(i).append(" ");
+                for (int i = 0; i < leftHintCol.getRunCount(y); i++)
+                    sb.append(leftHintCol.getRun(y, i)).append(" ");
 
                 hintCellStr = sb.toString();
                 doc.insertString(0, hintCellStr, null);
@@ -763,6 +765,8 @@ public class GameView  {
      */
     public void addCenterTiles() {
 
+        int dimension = game.getDimension();
+
         for (int y = 0; y < dimension; y++) {
             for (int x = 0; x < dimension; x++) {
 
@@ -781,6 +785,10 @@ public class GameView  {
 
     public JFrame getJFrame() { return jf; }
 
+    public PicrossGame getGame() {
+        return game;
+    }
+
     public JPanel getTopPanel() {
         return topPanel;
     }
@@ -801,18 +809,10 @@ public class GameView  {
         return pointsField;
     }
 
-    public int getPoints() {
-        return points;
-    }
-
     public JTextField getTimeField() {
         return timeField;
     }
 
-    public short[] getTime() {
-        return new short[]{mins, seconds};
-    }
-
     public JLabel getGameTextLabel() {
         return gameTextLabel;
     }
@@ -833,11 +833,11 @@ public class GameView  {
         return leftTextPaneArr;
     }
 
-    public ArrayList<ArrayList<Integer>> getTopHintRow() {
+    public HintEngine.Axis getTopHintRow() {
         return topHintRow;
     }
 
-    public ArrayList<ArrayList<Integer>> getLeftHintCol() {
+    public HintEngine.Axis getLeftHintCol() {
         return leftHintCol;
     }
 
@@ -853,12 +853,8 @@ public class GameView  {
 
     public void setJFrame(JFrame frame) { jf = frame; }
 
-    public void setPoints(int points) {
-        this.points = (points < 0) ? 0 : points;
-    }
-
-    public void setTime(short[] time) {
-        mins = time[0]; seconds = time[1];
+    public void setGameController(GameController gameController) {
+        this.gameController = gameController;
     }
 
     public void setTileDimension(int tileDimension) {
@@ -0,0 +1,195 @@
+package picross;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * HeadlessServer runs the game server without any GUI, for machines
+ * with no display. It starts listening as soon as it is launched, and
+ * everything GameServer would print to its text pane goes to an
+ * AsyncLogger instead.
+ *
+ * Settings are read from a properties file, if one is given, and then
+ * from key=value arguments, which take precedence:
+ *   port     Port to listen on (default 8080)
+ *   engine   blocking, virtual or nio (default nio, See ServerEngine)
+ *   finalize true to quit once the last client leaves (default false)
+ *   log      File to append the log to (default standard output)
+ *   store    File to keep scores in across restarts (default scores.dat,
+ *            empty to keep scores in memory only, See ScoreStore)
+ *   metrics  Loopback port to serve metrics on at /metrics (default
+ *            none, See MetricsEndpoint). They are always available
+ *            through JMX (See ServerMetrics)
+ *   config   Properties file to read first
+ *
+ * The server stops gracefully when the JVM is asked to exit, eg. on
+ * SIGTERM during a rolling restart (See stop()).
+ *
+ * Usage: java picross.Game h [config=server.properties] [port=8080] [engine=nio] ...
+ */
+public class HeadlessServer {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final String DEFAULT_PORT = "8080";
+    protected static final String DEFAULT_ENGINE = NioServerEngine.NAME;
+    protected static final String DEFAULT_STORE = "scores.dat";
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final Properties settings;
+    private final AsyncLogger logger;
+    private final ServerProtocol protocol;
+    private final ServerEngine engine;
+    private final ScoreStore scoreStore;
+    private final MetricsEndpoint metricsEndpoint;
+    private final AtomicBoolean stopped;
+
+    /**
+     * @param settings Server settings (See class comment)
+     * @throws IOException if the log or score file cannot be opened
+     * @since 2026-10-18
+     */
+    public HeadlessServer(Properties settings) throws IOException {
+        String logFile = settings.getProperty("log");
+        String storeFile = settings.getProperty("store", DEFAULT_STORE).trim();
+
+        this.settings = settings;
+        this.stopped = new AtomicBoolean();
+        this.logger = (logFile == null) ? new AsyncLogger(System.out) : AsyncLogger.toFile(Path.of(logFile));
+        this.protocol = new ServerProtocol(logger);
+        String engineName = settings.getProperty("engine", DEFAULT_ENGINE);
+        this.engine = ServerEngine.create(engineName, protocol);
+        //The virtual engine saves scores from a virtual thread too
+        ExecutorService storeWriter = (!storeFile.isEmpty() && engineName.equals(BlockingServerEngine.VIRTUAL_NAME)) ? VirtualThreads.newExecutor() : null;
+        this.scoreStore = storeFile.isEmpty() ? null : new ScoreStore(Path.of(storeFile), logger, storeWriter);
+
+        if (scoreStore != null)
+            protocol.attachScoreStore(scoreStore);
+
+        String metricsPort = settings.getProperty("metrics", "").trim();
+        this.metricsEndpoint = metricsPort.isEmpty() ? null : new MetricsEndpoint(protocol.getMetrics());
+
+        protocol.setFinalizeBox(Boolean.parseBoolean(settings.getProperty("finalize", "false")));
+        protocol.setOnLastClient(() -> {
+            stop();
+            System.exit(0);
+        });
+    }
+
+    /**
+     * @throws IOException if the server socket or metrics port cannot be opened
+     * @since 2026-10-18
+     */
+    public void start() throws IOException {
+        int port = Integer.parseInt(settings.getProperty("port", DEFAULT_PORT).trim());
+
+        engine.start(port);
+        logger.accept("Listening on port " + engine.getLocalPort() + " with the " + engine.getName() + " engine\n");
+
+        if (!protocol.getMetrics().register())
+            logger.accept("Metrics are not exported through JMX, " + ServerMetrics.OBJECT_NAME + " is already registered\n");
+        if (metricsEndpoint != null) {
+            metricsEndpoint.start(Integer.parseInt(settings.getProperty("metrics").trim()));
+            logger.accept("Serving metrics on http://localhost:" + metricsEndpoint.getPort() + MetricsEndpoint.PATH + "\n");
+        }
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Stops accepting, drains the clients (See ServerProtocol.drain()),
+     * then closes whatever is left and saves every score before
+     * returning. Takes at most the drain timeout plus the time to flush
+     * the scores. Only the first call does anything, so it is safe from
+     * both the shutdown hook and onLastClient.
+     */
+    public void stop() {
+        if (!stopped.compareAndSet(false, true))
+            return;
+
+        engine.stopAccepting();
+        protocol.drain(ServerProtocol.DRAIN_TIMEOUT_MILLIS);
+        engine.stop();
+        protocol.shutdown();
+        if (metricsEndpoint != null)
+            metricsEndpoint.stop();
+        protocol.getMetrics().unregister();
+        if (scoreStore != null) {
+            try {
+                if (!scoreStore.flush(ServerProtocol.DRAIN_TIMEOUT_MILLIS))
+                    logger.accept("Timed out saving scores to " + scoreStore.getFile() + "\n");
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            scoreStore.close();
+        }
+        logger.accept("Ended server\n");
+        logger.close();
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    public ServerEngine getEngine() {
+        return engine;
+    }
+
+    public ServerProtocol getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * @param args key=value settings, optionally including config=file
+     * @return Returns the settings from the properties file, overridden by the arguments
+     * @throws IOException if the properties file cannot be read
+     * @since 2026-10-18
+     */
+    protected static Properties parseSettings(String[] args) throws IOException {
+
+        Properties overrides = new Properties();
+        for (String arg : args) {
+            String setting = arg.startsWith("--") ? arg.substring(2) : arg;
+            int sep = setting.indexOf('=');
+            if (sep <= 0)
+                throw new IllegalArgumentException("Expected key=value, found - " + arg);
+            overrides.setProperty(setting.substring(0, sep), setting.substring(sep + 1));
+        }
+
+        Properties settings = new Properties();
+        String configFile = overrides.getProperty("config");
+        if (configFile != null) {
+            try (Reader reader = Files.newBufferedReader(Path.of(configFile))) {
+                settings.load(reader);
+            }
+        }
+
+        settings.putAll(overrides);
+        return settings;
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Main function which gets called if the user supplies the command
+     * line argument 'h'. The engine's threads keep the JVM alive.
+     */
+    public static void main(String[] args) {
+        try {
+            HeadlessServer server = new HeadlessServer(parseSettings(args));
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "HeadlessServer-shutdown"));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Could not start server: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package picross;
+
+import java.util.Arrays;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * HintEngine computes the row (left column) and column (top row) hints
+ * of a PackedBoard in a single row-major pass. Hints are kept in flat
+ * primitive storage: one int[] of run lengths per axis plus an offsets
+ * array, so that the runs of line i are runs[offsets[i]] up to (but not
+ * including) runs[offsets[i + 1]]. Reusing an engine for a board of the
+ * same dimension allocates nothing.
+ */
+public class HintEngine {
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private int dimension;
+
+    private int[] rowRuns;
+    private int[] rowOffsets;
+    private int[] colRuns;
+    private int[] colOffsets;
+
+    //Scratch space used to gather column runs in the order they end
+    private int[] colRunLength;
+    private int[] colPendingRuns;
+    private int[] colPendingOwners;
+
+    private final Axis rows = new Axis(true);
+    private final Axis cols = new Axis(false);
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Axis is a read-only view of the hints along one axis of the board.
+     * A line is a row for the left hints, and a column for the top hints.
+     */
+    public final class Axis {
+
+        private final boolean isRows;
+
+        private Axis(boolean isRows) {
+            this.isRows = isRows;
+        }
+
+        public int getLineCount() {
+            return dimension;
+        }
+
+        public int getRunCount(int line) {
+            int[] offsets = isRows ? rowOffsets : colOffsets;
+            return offsets[line + 1] - offsets[line];
+        }
+
+        public int getRun(int line, int i) {
+            return isRows ? rowRuns[rowOffsets[line] + i] : colRuns[colOffsets[line] + i];
+        }
+
+        /**
+         * @param line The row or column index
+         * @return Returns the number of filled cells the line's hints call for
+         * @since 2026-10-18
+         */
+        public int getRunSum(int line) {
+            int[] runs = isRows ? rowRuns : colRuns;
+            int[] offsets = isRows ? rowOffsets : colOffsets;
+            int sum = 0;
+
+            for (int i = offsets[line]; i < offsets[line + 1]; i++)
+                sum += runs[i];
+            return sum;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+
+            for (int line = 0; line < dimension; line++) {
+                sb.append('[');
+                for (int i = 0; i < getRunCount(line); i++) {
+                    if (i > 0)
+                        sb.append(", ");
+                    sb.append(getRun(line, i));
+                }
+                sb.append(']');
+            }
+            return sb.toString();
+        }
+    }
+
+    public HintEngine() {
+        ensureCapacity(0);
+    }
+
+    /**
+     * @param dimension The dimension of the boards this engine will see
+     * @since 2026-10-18
+     *
+     * (Re)allocates the flat storage, but only if the dimension changed.
+     * A line of n cells holds at most (n + 1) / 2 runs.
+     */
+    private void ensureCapacity(int dimension) {
+
+        if (rowOffsets != null && this.dimension == dimension)
+            return;
+
+        int maxRuns = dimension * ((dimension + 1) / 2);
+
+        this.dimension = dimension;
+        rowRuns = new int[maxRuns];
+        colRuns = new int[maxRuns];
+        rowOffsets = new int[dimension + 1];
+        colOffsets = new int[dimension + 1];
+        colRunLength = new int[dimension];
+        colPendingRuns = new int[maxRuns];
+        colPendingOwners = new int[maxRuns];
+    }
+
+    /**
+     * @param board The board to generate hints for
+     * @since 2026-10-18
+     *
+     * Scans the board once, row by row. Row runs are appended as they
+     * end. Column runs end out of column order, so they are recorded
+     * together with their column and then scattered into place with a
+     * counting sort, which preserves their top-to-bottom order.
+     */
+    public void compute(PackedBoard board) {
+
+        ensureCapacity(board.getDimension());
+
+        int wordsPerRow = board.getWordsPerRow();
+        int rowCount = 0;
+        int pendingCount = 0;
+
+        Arrays.fill(colRunLength, 0);
+        Arrays.fill(colOffsets, 0);
+
+        for (int y = 0; y < dimension; y++) {
+            rowOffsets[y] = rowCount;
+            int run = 0;
+
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = board.getWord(y, w);
+                int end = Math.min(PackedBoard.WORD_BITS, dimension - (w * PackedBoard.WORD_BITS));
+
+                for (int b = 0; b < end; b++, word >>>= 1) {
+                    int x = (w * PackedBoard.WORD_BITS) + b;
+
+                    if ((word & 1L) != 0) {
+                        run++;
+                        colRunLength[x]++;
+                    } else {
+                        if (run > 0) {
+                            rowRuns[rowCount++] = run;
+                            run = 0;
+                        }
+                        if (colRunLength[x] > 0) {
+                            colPendingRuns[pendingCount] = colRunLength[x];
+                            colPendingOwners[pendingCount++] = x;
+                            colOffsets[x + 1]++;
+                            colRunLength[x] = 0;
+                        }
+                    }
+                }
+            }
+            //Need one last check if run > 0 since the row ends mid-run
+            if (run > 0)
+                rowRuns[rowCount++] = run;
+        }
+        rowOffsets[dimension] = rowCount;
+
+        //Same check for columns that end mid-run on the last row
+        for (int x = 0; x < dimension; x++) {
+            if (colRunLength[x] > 0) {
+                colPendingRuns[pendingCount] = colRunLength[x];
+                colPendingOwners[pendingCount++] = x;
+                colOffsets[x + 1]++;
+            }
+        }
+
+        //Prefix sum turns per-column counts into offsets; colRunLength is reused as a write cursor
+        for (int x = 0; x < dimension; x++) {
+            colOffsets[x + 1] += colOffsets[x];
+            colRunLength[x] = colOffsets[x];
+        }
+
+        for (int i = 0; i < pendingCount; i++)
+            colRuns[colRunLength[colPendingOwners[i]]++] = colPendingRuns[i];
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * @return Returns a read-only view of the row hints (left column)
+     * @since 2026-10-18
+     */
+    public Axis getRowHints() {
+        return rows;
+    }
+
+    /**
+     * @return Returns a read-only view of the column hints (top row)
+     * @since 2026-10-18
+     */
+    public Axis getColumnHints() {
+        return cols;
+    }
+}
@@ -0,0 +1,113 @@
+package picross;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * LatencyHistogram counts latencies in log-linear buckets: every power
+ * of two is split into SUB_BUCKETS equal buckets, so any recorded value
+ * is reported within about 3% while the whole range of a long fits in
+ * under two thousand counters. Recording is a single atomic increment,
+ * so any number of threads can record into one histogram, and reading
+ * percentiles never needs the samples to be kept or sorted.
+ */
+public class LatencyHistogram {
+
+    /* ---------------------- Constants -------------------- */
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final AtomicLongArray counts;
+    private final AtomicLong max;
+
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+        max = new AtomicLong();
+    }
+
+    /**
+     * @param nanos Latency to count. Negative values count as 0
+     * @since 2026-10-18
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return Returns the middle of the values that fall in the bucket
+     */
+    private static long valueOf(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + ((1L << shift) >>> 1);
+    }
+
+    /* ---------------------- Queries -------------------- */
+
+    /**
+     * @return Returns the number of latencies recorded
+     * @since 2026-10-18
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++)
+            total += counts.get(i);
+        return total;
+    }
+
+    /**
+     * @return Returns the largest latency recorded, exactly, in nanoseconds
+     * @since 2026-10-18
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param fraction Percentile as a fraction, eg. 0.99
+     * @return Returns the latency at the given percentile in nanoseconds,
+     * or 0 if nothing has been recorded
+     * @since 2026-10-18
+     *
+     * Counts recorded while this runs may or may not be included.
+     */
+    public long percentile(double fraction) {
+        if (fraction < 0.0 || fraction > 1.0)
+            throw new IllegalArgumentException("Percentile out of range: " + fraction);
+
+        long total = getCount();
+        if (total == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target)
+                return Math.min(valueOf(i), getMax());
+        }
+        return getMax();
+    }
+}
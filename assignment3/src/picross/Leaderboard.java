@@ -0,0 +1,223 @@
+package picross;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * Leaderboard keeps every scored record sorted by score (highest first),
+ * then time (fastest first), with one board per puzzle dimension. Each
+ * board is a ConcurrentSkipListSet, so an update costs O(log n) and
+ * top-K reads the first K entries without looking at the rest.
+ * Alongside the set, each board counts its records per score in a
+ * Fenwick tree, so the rank of a player costs O(log maxScore) plus the
+ * number of players tied on the same score.
+ * Boards are updated by PlayerStore, inside the per-client compute(), so
+ * two submissions from one client can never interleave here. A board is
+ * dropped once its last record leaves it, so dimensions nobody plays
+ * any more cost nothing.
+ */
+public class Leaderboard {
+
+    /* ---------------------- Constants -------------------- */
+
+    //Records sent without a dimension (older clients) share board 0
+    protected static final int UNKNOWN_DIMENSION = 0;
+    private static final int MAX_COUNTED_SCORE = 64 * 64;
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final ConcurrentHashMap<Integer, Board> boards;
+
+    public Leaderboard() {
+        boards = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Board is the leaderboard of a single dimension. Scores are clamped
+     * to [0, maxScore] for counting only; the set keeps the real score.
+     * maxScore is the number of tiles, capped so that a client claiming a
+     * huge dimension cannot make the server allocate a huge tree.
+     */
+    private static class Board {
+
+        private final ConcurrentSkipListSet<PlayerRecord> entries;
+        private final AtomicIntegerArray tree; //Fenwick tree, indexed by maxScore - score + 1
+        private final int maxScore;
+
+        Board(int dimension) {
+            this.entries = new ConcurrentSkipListSet<>(Leaderboard::compare);
+            this.maxScore = (dimension > UNKNOWN_DIMENSION) ? (int) Math.min((long) dimension * dimension, MAX_COUNTED_SCORE) : MAX_COUNTED_SCORE;
+            this.tree = new AtomicIntegerArray(maxScore + 2);
+        }
+
+        private int index(int score) {
+            return maxScore - Math.max(0, Math.min(maxScore, score)) + 1;
+        }
+
+        private void count(int score, int delta) {
+            for (int i = index(score); i < tree.length(); i += i & -i)
+                tree.addAndGet(i, delta);
+        }
+
+        /**
+         * @return Returns the number of records whose score is higher than the given one
+         */
+        private int countAbove(int score) {
+            int total = 0;
+            for (int i = index(score) - 1; i > 0; i -= i & -i)
+                total += tree.get(i);
+            return total;
+        }
+
+        void add(PlayerRecord record) {
+            if (entries.add(record))
+                count(record.getScore(), 1);
+        }
+
+        void remove(PlayerRecord record) {
+            if (entries.remove(record))
+                count(record.getScore(), -1);
+        }
+    }
+
+    /* ---------------------- Updates -------------------- */
+
+    /**
+     * @param old     The record being replaced, or null
+     * @param current The new record, or null if the player is gone
+     * @since 2026-10-18
+     *
+     * Moves a player from its old position to its new one. Records
+     * without game data are not ranked.
+     */
+    public void update(PlayerRecord old, PlayerRecord current) {
+        if (old != null && old.hasScore())
+            removeFromBoard(old);
+        if (current != null && current.hasScore())
+            addToBoard(current);
+    }
+
+    /**
+     * @param record The record to take off its board
+     * @since 2026-10-18
+     */
+    public void remove(PlayerRecord record) {
+        update(record, null);
+    }
+
+    /*
+     * Both run inside the map's compute() for the board's dimension, so a
+     * board cannot be dropped for being empty while a record is being
+     * added to it.
+     */
+    private void addToBoard(PlayerRecord record) {
+        boards.compute(Math.max(UNKNOWN_DIMENSION, record.getDimension()), (dimension, board) -> {
+            if (board == null)
+                board = new Board(dimension);
+            board.add(record);
+            return board;
+        });
+    }
+
+    private void removeFromBoard(PlayerRecord record) {
+        boards.computeIfPresent(Math.max(UNKNOWN_DIMENSION, record.getDimension()), (dimension, board) -> {
+            board.remove(record);
+            return board.entries.isEmpty() ? null : board;
+        });
+    }
+
+    /* ---------------------- Queries -------------------- */
+
+    /**
+     * @param dimension Dimension of the board
+     * @param k         Maximum number of records to return
+     * @return Returns the best k records of the board, best first
+     * @since 2026-10-18
+     */
+    public List<PlayerRecord> top(int dimension, int k) {
+        Board board = boards.get(dimension);
+        if (board == null || k <= 0)
+            return Collections.emptyList();
+
+        List<PlayerRecord> top = new ArrayList<>(Math.min(k, 64));
+        for (PlayerRecord record : board.entries) {
+            if (top.size() == k)
+                break;
+            top.add(record);
+        }
+        return top;
+    }
+
+    /**
+     * @param record A record currently on the leaderboard
+     * @return Returns the 1-based rank of the record on its board, or -1
+     * if it is not on the leaderboard
+     * @since 2026-10-18
+     *
+     * Counts the higher scores in the Fenwick tree, then walks only the
+     * records that share the same score and are ahead of this one.
+     */
+    public int rank(PlayerRecord record) {
+        Board board = (record == null) ? null : boards.get(Math.max(UNKNOWN_DIMENSION, record.getDimension()));
+        if (board == null || !board.entries.contains(record))
+            return -1;
+
+        //Sorts before every record with the same score
+        PlayerRecord firstTied = new PlayerRecord("", "", record.getScore(), Integer.MIN_VALUE, record.getDimension());
+        SortedSet<PlayerRecord> tiedAhead = board.entries.subSet(firstTied, record);
+
+        //The tree clamps out-of-range scores into the end buckets, so those are counted from the set
+        int score = record.getScore();
+        int above = (score < 0 || score >= board.maxScore) ? board.entries.headSet(firstTied).size() : board.countAbove(score);
+
+        return above + tiedAhead.size() + 1;
+    }
+
+    /**
+     * @return Returns the dimensions that have a board, smallest first
+     * @since 2026-10-18
+     */
+    public NavigableSet<Integer> getDimensions() {
+        return new TreeSet<>(boards.keySet());
+    }
+
+    /**
+     * @param dimension Dimension of the board
+     * @return Returns the number of records on the board
+     * @since 2026-10-18
+     */
+    public int size(int dimension) {
+        Board board = boards.get(dimension);
+        return (board == null) ? 0 : board.entries.size();
+    }
+
+    /* ---------------------- Ordering -------------------- */
+
+    /**
+     * @return Orders by score descending, then time ascending, then UUID
+     * so that distinct players never compare equal
+     */
+    static int compare(PlayerRecord a, PlayerRecord b) {
+        int order = Integer.compare(b.getScore(), a.getScore());
+        if (order == 0)
+            order = Integer.compare(a.getTimeSeconds(), b.getTimeSeconds());
+        if (order == 0)
+            order = a.getClientID().compareTo(b.getClientID());
+        return order;
+    }
+}
@@ -0,0 +1,661 @@
+package picross;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * LoadGenerator drives a game server from the command line, without the
+ * Swing client, to measure its capacity. It opens a number of
+ * connections over loopback (or to any host) and sends a weighted mix of
+ * SEND_GAME, RECEIVE_GAME, SEND_DATA and END_GAME requests at a fixed
+ * total rate, then reports throughput and latency percentiles per
+ * request type.
+ *
+ * The load is open-loop: request i is due at start + i / rate whether or
+ * not earlier requests have been answered, and its latency is measured
+ * from when it was due rather than from when it was written. A server
+ * that falls behind therefore shows up as latency instead of quietly
+ * lowering the request rate. Every request carries a request ID, so
+ * replies are matched even when they come back out of order.
+ * END_GAME is only sent once the connection has no request in flight,
+ * its latency is the time until the server closes the connection, and
+ * the connection is then reopened. With rooms set, connection i joins
+ * room i % rooms every time it opens, so that many rooms are played at
+ * once (See Rooms); otherwise every connection stays in the lobby.
+ *
+ * Settings are key=value arguments, or a properties file given with
+ * config=file (See HeadlessServer.parseSettings()):
+ *   host        Server to connect to (default loopback)
+ *   port        Port of the server (default 8080)
+ *   engine      If set, start a server with this engine inside the
+ *               generator and ignore host and port. Its log is
+ *               discarded, so it does less work than a real server
+ *   connections Number of connections (default 100)
+ *   rate        Total requests per second (default 1000)
+ *   duration    Seconds to measure for (default 10)
+ *   warmup      Seconds to run before measuring (default 2)
+ *   mix         Weights of each request (default send=1,receive=6,data=2,end=1)
+ *   protocol    text or frames (default frames, See Frame)
+ *   dimension   Dimension of the puzzles sent (default 5)
+ *   puzzles     Number of distinct puzzles to send (default 16)
+ *   seed        Seed of the request mix and puzzles (default 1)
+ *   rooms       Number of rooms to spread the connections over
+ *               (default 0, the lobby)
+ *
+ * Usage: java picross.Game l [port=8080] [connections=100] [rate=1000] [mix=send=1,receive=6,data=2,end=1] ...
+ */
+public class LoadGenerator {
+
+    /* ---------------------- Constants -------------------- */
+
+    private static final String DEFAULT_CONNECTIONS = "100";
+    private static final String DEFAULT_RATE = "1000";
+    private static final String DEFAULT_DURATION = "10";
+    private static final String DEFAULT_WARMUP = "2";
+    private static final String DEFAULT_MIX = "send=1,receive=6,data=2,end=1";
+    private static final String DEFAULT_DIMENSION = "5";
+    private static final String DEFAULT_PUZZLES = "16";
+    private static final String DEFAULT_ROOMS = "0";
+    private static final String ROOM_PREFIX = "load-";
+    private static final String TEXT_PROTOCOL = "text";
+    private static final String FRAME_PROTOCOL = "frames";
+    private static final int NEGOTIATE_TIMEOUT_MILLIS = 2000;
+    private static final long DRAIN_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final double[] PERCENTILES = {0.50, 0.90, 0.99, 0.999};
+
+    //Indexed by protocol value
+    private static final GameClient.Protocols[] OPS = {
+            GameClient.Protocols.END_GAME, GameClient.Protocols.SEND_GAME,
+            GameClient.Protocols.RECEIVE_GAME, GameClient.Protocols.SEND_DATA};
+    private static final String[] MIX_NAMES = {"end", "send", "receive", "data"};
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final String host;
+    private final int port;
+    private final boolean framed;
+    private final int[] cumulativeWeights;
+    private final List<PackedBoard> puzzles;
+    private final SplittableRandom random;
+    private final int roomCount;
+
+    private final List<Connection> connections;
+    private final LatencyHistogram[] latencies;
+    private final AtomicLong missed;
+    private final AtomicLong rejected;
+    private final AtomicLong errors;
+    private final AtomicLong reconnects;
+    private final AtomicLong unanswered;
+
+    //Requests due before this are warm-up and not counted
+    private volatile long measureFrom;
+    private volatile boolean running;
+
+    /**
+     * @param host        Server to connect to
+     * @param port        Port of the server
+     * @param framed      True to negotiate frames, false to stay on text
+     * @param weights     Weight of each request, indexed by protocol value
+     * @param dimension   Dimension of the puzzles sent
+     * @param puzzleCount Number of distinct puzzles to send
+     * @param seed        Seed of the request mix and puzzles
+     * @param roomCount   Number of rooms to spread the connections over, 0 for the lobby
+     * @since 2026-10-18
+     */
+    public LoadGenerator(String host, int port, boolean framed, int[] weights, int dimension, int puzzleCount, long seed, int roomCount) {
+        if (weights.length != OPS.length)
+            throw new IllegalArgumentException("Expected " + OPS.length + " weights, found " + weights.length);
+        if (dimension <= 0 || puzzleCount <= 0)
+            throw new IllegalArgumentException("Dimension and puzzle count must be positive");
+        if (roomCount < 0)
+            throw new IllegalArgumentException("Room count must not be negative");
+
+        this.host = host;
+        this.port = port;
+        this.framed = framed;
+        this.random = new SplittableRandom(seed);
+        this.roomCount = roomCount;
+
+        this.cumulativeWeights = new int[weights.length];
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0)
+                throw new IllegalArgumentException("Negative weight for " + MIX_NAMES[i]);
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0)
+            throw new IllegalArgumentException("The request mix is empty");
+
+        //Random fills rather than generated puzzles, the server solves whatever it is sent
+        this.puzzles = new ArrayList<>(puzzleCount);
+        for (int p = 0; p < puzzleCount; p++) {
+            PackedBoard board = new PackedBoard(dimension);
+            for (int y = 0; y < dimension; y++)
+                for (int x = 0; x < dimension; x++)
+                    board.set(x, y, random.nextBoolean());
+            puzzles.add(board);
+        }
+
+        this.connections = new ArrayList<>();
+        this.latencies = new LatencyHistogram[OPS.length];
+        for (int i = 0; i < latencies.length; i++)
+            latencies[i] = new LatencyHistogram();
+        this.missed = new AtomicLong();
+        this.rejected = new AtomicLong();
+        this.errors = new AtomicLong();
+        this.reconnects = new AtomicLong();
+        this.unanswered = new AtomicLong();
+    }
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Connection is one client connection. Requests are written by the
+     * pacing thread; replies are read by the connection's own thread,
+     * which also reopens the connection after END_GAME.
+     */
+    private final class Connection {
+
+        private final ConcurrentHashMap<Integer, Pending> pending = new ConcurrentHashMap<>();
+        private final String room; //Room joined on every open, or null for the lobby
+        private Socket socket;
+        private DataInputStream in;
+        private OutputStream out;
+        private String clientID;
+        private long handle;
+        private boolean negotiated;
+        private boolean ready;   //Accepts new requests, guarded by this
+        private long endDue;     //Due time of the END_GAME being sent, or 0
+        private boolean endSent;
+        private int nextRequestId;
+
+        Connection(String room) {
+            this.room = room;
+        }
+
+        /**
+         * Opens the connection, reads the UUID, negotiates frames if
+         * asked to and joins the connection's room.
+         */
+        synchronized void open() throws IOException {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new BufferedOutputStream(socket.getOutputStream());
+
+            clientID = Frame.readLine(in); //Server sends the UUID first
+            if (clientID == null)
+                throw new IOException("Server closed the connection during the handshake");
+            handle = Frame.handleOf(clientID);
+            negotiated = framed && negotiate();
+            if (room != null)
+                join();
+
+            endDue = 0;
+            endSent = false;
+            ready = true;
+        }
+
+        private boolean negotiate() throws IOException {
+            String request = clientID + GameServer.PROTOCOL_SEP + Frame.NEGOTIATE + GameServer.PROTOCOL_SEP + Frame.VERSION;
+            out.write((request + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            socket.setSoTimeout(NEGOTIATE_TIMEOUT_MILLIS);
+            try {
+                return request.equals(Frame.readLine(in));
+            } catch (SocketTimeoutException ste) {
+                return false; //Older server, stay on text
+            } finally {
+                socket.setSoTimeout(0);
+            }
+        }
+
+        /**
+         * Joins the room before any other request is sent, waiting for the
+         * answer so the reader never sees it.
+         */
+        private void join() throws IOException {
+            String status;
+            if (negotiated) {
+                ByteBuffer frame = Frame.encode(GameClient.Protocols.JOIN.getValue(), 0, handle, Frame.text(room));
+                out.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+                out.flush();
+
+                ByteBuffer body = Frame.read(in);
+                try {
+                    status = (body == null) ? null : Frame.decode(body).getText();
+                } catch (IllegalArgumentException iae) {
+                    throw new IOException(iae.getMessage());
+                }
+            } else {
+                out.write((clientID + GameServer.PROTOCOL_SEP + GameClient.Protocols.JOIN.getValue() + GameServer.PROTOCOL_SEP + room + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+
+                String line = Frame.readLine(in);
+                status = (line == null) ? null : line.substring(line.lastIndexOf(GameServer.PROTOCOL_SEP) + 1);
+            }
+
+            if (status == null || !status.startsWith("Joined"))
+                throw new IOException("Could not join room " + room + ": " + status);
+        }
+
+        /**
+         * @param op  Request to send
+         * @param due Time the request was due, from System.nanoTime()
+         * @return Returns false if the connection is busy closing or reopening
+         */
+        synchronized boolean send(GameClient.Protocols op, long due) throws IOException {
+            if (!ready)
+                return false;
+
+            if (op == GameClient.Protocols.END_GAME) {
+                ready = false;
+                endDue = due;
+                if (pending.isEmpty())
+                    sendEnd();
+                return true;
+            }
+
+            int requestId = ++nextRequestId;
+            if (requestId == 0)
+                requestId = ++nextRequestId;
+            pending.put(requestId, new Pending(op, due));
+
+            PackedBoard puzzle = puzzles.get(random.nextInt(puzzles.size()));
+            int score = random.nextInt(puzzle.getDimension() * puzzle.getDimension() + 1);
+            int seconds = random.nextInt(600);
+            String name = "load" + (requestId % 1000);
+
+            if (negotiated) {
+                ByteBuffer payload = switch (op) {
+                    case SEND_GAME -> ByteBuffer.wrap(PuzzleCodec.encode(puzzle));
+                    case SEND_DATA -> Frame.gameData(name, score, seconds, puzzle.getDimension());
+                    default -> null;
+                };
+                ByteBuffer frame = Frame.encode(op.getValue(), requestId, handle, payload);
+                out.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+            } else {
+                String payload = switch (op) {
+                    case SEND_GAME -> PuzzleCodec.encodeText(puzzle);
+                    case SEND_DATA -> name + "," + (seconds / 60) + ":" + (seconds % 60) + "," + score + "," + puzzle.getDimension();
+                    default -> "";
+                };
+                String line = clientID + GameServer.PROTOCOL_SEP + op.getValue() + GameServer.REQUEST_SEP + requestId + GameServer.PROTOCOL_SEP + payload + "\n";
+                out.write(line.getBytes(StandardCharsets.UTF_8));
+            }
+            out.flush();
+            return true;
+        }
+
+        private void sendEnd() throws IOException {
+            endSent = true;
+            if (negotiated) {
+                ByteBuffer frame = Frame.encode(GameClient.Protocols.END_GAME.getValue(), 0, handle, null);
+                out.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+            } else {
+                out.write((clientID + GameServer.PROTOCOL_SEP + GameClient.Protocols.END_GAME.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            out.flush();
+        }
+
+        /**
+         * Reads replies until the generator stops, reopening the
+         * connection whenever the server closes it.
+         */
+        void listen() {
+            while (running) {
+                try {
+                    if (negotiated)
+                        readFrames();
+                    else
+                        readLines();
+                } catch (IOException ioe) {
+                    if (running)
+                        errors.incrementAndGet();
+                }
+
+                synchronized (this) {
+                    if (endSent)
+                        record(GameClient.Protocols.END_GAME, endDue);
+                    else if (running)
+                        errors.incrementAndGet();
+                    unanswered.addAndGet(pending.size());
+                    pending.clear();
+                    close();
+                }
+
+                try {
+                    if (running) {
+                        open();
+                        reconnects.incrementAndGet();
+                    }
+                } catch (IOException ioe) {
+                    errors.incrementAndGet();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                }
+            }
+        }
+
+        private void readFrames() throws IOException {
+            ByteBuffer body;
+            while ((body = Frame.read(in)) != null) {
+                Frame frame;
+                try {
+                    frame = Frame.decode(body);
+                } catch (IllegalArgumentException iae) {
+                    throw new IOException(iae.getMessage());
+                }
+                answered(frame.getRequestId(), frame.getText());
+            }
+        }
+
+        private void readLines() throws IOException {
+            String line;
+            while ((line = Frame.readLine(in)) != null) {
+                //clientID#opcode@requestId#payload; pushes and the goodbye message have no request ID
+                int opEnd = line.indexOf(GameServer.PROTOCOL_SEP);
+                int payloadStart = (opEnd < 0) ? -1 : line.indexOf(GameServer.PROTOCOL_SEP, opEnd + 1);
+                int idStart = (payloadStart < 0) ? -1 : line.lastIndexOf(GameServer.REQUEST_SEP, payloadStart);
+                if (idStart <= opEnd)
+                    continue;
+
+                try {
+                    answered(Integer.parseInt(line.substring(idStart + 1, payloadStart)), line.substring(payloadStart + 1));
+                } catch (NumberFormatException nfe) {
+                    errors.incrementAndGet();
+                }
+            }
+        }
+
+        private void answered(int requestId, String status) throws IOException {
+            if (requestId == 0)
+                return;
+
+            Pending request = pending.remove(requestId);
+            if (request == null) {
+                errors.incrementAndGet();
+                return;
+            }
+
+            record(request.op, request.due);
+            if (status.contains("not saved"))
+                rejected.incrementAndGet();
+
+            //A deferred END_GAME goes out with the last reply (See send())
+            if (pending.isEmpty()) {
+                synchronized (this) {
+                    if (endDue != 0 && !endSent && pending.isEmpty())
+                        sendEnd();
+                }
+            }
+        }
+
+        synchronized void close() {
+            ready = false;
+            try {
+                if (socket != null)
+                    socket.close();
+            } catch (IOException ioe) {
+                //Closing anyway
+            }
+        }
+    }
+
+    /**
+     * A request waiting for its reply.
+     */
+    private static final class Pending {
+
+        private final GameClient.Protocols op;
+        private final long due;
+
+        Pending(GameClient.Protocols op, long due) {
+            this.op = op;
+            this.due = due;
+        }
+    }
+
+    private void record(GameClient.Protocols op, long due) {
+        if (due >= measureFrom)
+            latencies[op.getValue()].record(System.nanoTime() - due);
+    }
+
+    /* ---------------------- Running -------------------- */
+
+    /**
+     * @param connectionCount Number of connections to open
+     * @param rate            Total requests per second
+     * @param warmupSeconds   Seconds to run before measuring
+     * @param durationSeconds Seconds to measure for
+     * @throws IOException if the connections cannot be opened
+     * @since 2026-10-18
+     *
+     * Runs the load on the calling thread, then prints the report.
+     */
+    public void run(int connectionCount, double rate, double warmupSeconds, double durationSeconds) throws IOException {
+        if (connectionCount <= 0 || rate <= 0 || warmupSeconds < 0 || durationSeconds <= 0)
+            throw new IllegalArgumentException("Connections, rate and duration must be positive");
+
+        running = true;
+        long connectStart = System.nanoTime();
+        for (int c = 0; c < connectionCount; c++) {
+            Connection connection = new Connection((roomCount == 0) ? null : ROOM_PREFIX + (c % roomCount));
+            try {
+                connection.open();
+            } catch (IOException ioe) {
+                stop();
+                throw new IOException("Opened " + c + " of " + connectionCount + " connections: " + ioe.getMessage(), ioe);
+            }
+            connections.add(connection);
+
+            Thread reader = new Thread(connection::listen, "load-reader-" + c);
+            reader.setDaemon(true);
+            reader.start();
+        }
+        System.out.printf("Opened %d connections in %d ms, using %s, in %s%n", connectionCount,
+                (System.nanoTime() - connectStart) / 1_000_000, (connections.get(0).negotiated ? FRAME_PROTOCOL : TEXT_PROTOCOL),
+                (roomCount == 0) ? "the lobby" : Math.min(roomCount, connectionCount) + " rooms");
+
+        long interval = Math.max(1, (long) (1e9 / rate));
+        long start = System.nanoTime();
+        measureFrom = start + (long) (warmupSeconds * 1e9);
+        long end = measureFrom + (long) (durationSeconds * 1e9);
+        long sent = 0;
+
+        /* ---------------------- Pacing -------------------- */
+
+        int next = 0;
+        long due = start;
+        while (due < end) {
+            long now = System.nanoTime();
+            if (due > now) {
+                LockSupport.parkNanos(due - now);
+                continue;
+            }
+
+            //Catch up on every request that is due, each on the next free connection
+            while (due <= now && due < end) {
+                GameClient.Protocols op = pickOp();
+                boolean written = false;
+                for (int tries = 0; tries < connections.size() && !written; tries++) {
+                    Connection connection = connections.get(next);
+                    next = (next + 1 == connections.size()) ? 0 : next + 1;
+                    try {
+                        written = connection.send(op, due);
+                    } catch (IOException ioe) {
+                        connection.close(); //Its reader counts the error and reopens it
+                    }
+                }
+
+                if (due >= measureFrom) {
+                    if (written)
+                        sent++;
+                    else
+                        missed.incrementAndGet();
+                }
+                due += interval;
+            }
+        }
+
+        //Give the last replies a chance to arrive
+        long drainUntil = System.nanoTime() + DRAIN_NANOS;
+        while (inFlight() > 0 && System.nanoTime() < drainUntil)
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+
+        stop();
+        report(rate, durationSeconds, sent);
+    }
+
+    private GameClient.Protocols pickOp() {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int op = 0;
+        while (pick >= cumulativeWeights[op])
+            op++;
+        return OPS[op];
+    }
+
+    private long inFlight() {
+        long total = 0;
+        for (Connection connection : connections) {
+            synchronized (connection) {
+                total += connection.pending.size() + ((connection.endDue != 0) ? 1 : 0);
+            }
+        }
+        return total;
+    }
+
+    private void stop() {
+        running = false;
+        for (Connection connection : connections) {
+            synchronized (connection) {
+                unanswered.addAndGet(connection.pending.size());
+                connection.pending.clear();
+            }
+            connection.close();
+        }
+    }
+
+    /* ---------------------- Report -------------------- */
+
+    private void report(double rate, double durationSeconds, long sent) {
+        System.out.printf("Target %.0f req/s for %.1f s: sent %d, missed %d (no free connection)%n", rate, durationSeconds, sent, missed.get());
+        System.out.printf("%-13s %9s %10s %9s %9s %9s %9s %9s%n",
+                "request", "count", "req/s", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us");
+
+        long total = 0;
+        for (int op = 1; op <= OPS.length; op++) {
+            LatencyHistogram histogram = latencies[op % OPS.length]; //END_GAME last
+            long count = histogram.getCount();
+            total += count;
+            if (count == 0)
+                continue;
+
+            System.out.printf("%-13s %9d %10.0f", OPS[op % OPS.length], count, count / durationSeconds);
+            for (double fraction : PERCENTILES)
+                System.out.printf(" %9.1f", histogram.percentile(fraction) / 1000.0);
+            System.out.printf(" %9.1f%n", histogram.getMax() / 1000.0);
+        }
+
+        System.out.printf("%-13s %9d %10.0f%n", "total", total, total / durationSeconds);
+        System.out.printf("Rejected %d, errors %d, reconnects %d, unanswered %d%n",
+                rejected.get(), errors.get(), reconnects.get(), unanswered.get());
+    }
+
+    /**
+     * @param mix Weights as name=weight pairs, eg. send=1,receive=6
+     * @return Returns the weights indexed by protocol value
+     * @since 2026-10-18
+     */
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[OPS.length];
+        for (String entry : mix.split(",")) {
+            int sep = entry.indexOf('=');
+            if (sep <= 0)
+                throw new IllegalArgumentException("Expected name=weight in the mix, found - " + entry);
+
+            String name = entry.substring(0, sep).trim().toLowerCase();
+            int op = List.of(MIX_NAMES).indexOf(name);
+            if (op < 0)
+                throw new IllegalArgumentException("Unknown request in the mix - " + name);
+            weights[op] = Integer.parseInt(entry.substring(sep + 1).trim());
+        }
+        return weights;
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Main function which gets called if the user supplies the command
+     * line argument 'l'.
+     */
+    public static void main(String[] args) {
+        ServerEngine engine = null;
+        ServerProtocol protocol = null;
+
+        try {
+            Properties settings = HeadlessServer.parseSettings(args);
+            String protocolName = settings.getProperty("protocol", FRAME_PROTOCOL).trim().toLowerCase();
+            if (!protocolName.equals(FRAME_PROTOCOL) && !protocolName.equals(TEXT_PROTOCOL))
+                throw new IllegalArgumentException("Unknown protocol - " + protocolName);
+
+            String host = settings.getProperty("host", InetAddress.getLoopbackAddress().getHostAddress()).trim();
+            int port = Integer.parseInt(settings.getProperty("port", HeadlessServer.DEFAULT_PORT).trim());
+            String engineName = settings.getProperty("engine");
+            if (engineName != null) {
+                protocol = new ServerProtocol(message -> {
+                });
+                engine = ServerEngine.create(engineName.trim(), protocol);
+                engine.start(0);
+                host = InetAddress.getLoopbackAddress().getHostAddress();
+                port = engine.getLocalPort();
+                System.out.println("Started the " + engine.getName() + " engine on port " + port);
+            }
+
+            LoadGenerator generator = new LoadGenerator(host, port, protocolName.equals(FRAME_PROTOCOL),
+                    parseMix(settings.getProperty("mix", DEFAULT_MIX)),
+                    Integer.parseInt(settings.getProperty("dimension", DEFAULT_DIMENSION).trim()),
+                    Integer.parseInt(settings.getProperty("puzzles", DEFAULT_PUZZLES).trim()),
+                    Long.parseLong(settings.getProperty("seed", "1").trim()),
+                    Integer.parseInt(settings.getProperty("rooms", DEFAULT_ROOMS).trim()));
+
+            generator.run(Integer.parseInt(settings.getProperty("connections", DEFAULT_CONNECTIONS).trim()),
+                    Double.parseDouble(settings.getProperty("rate", DEFAULT_RATE).trim()),
+                    Double.parseDouble(settings.getProperty("warmup", DEFAULT_WARMUP).trim()),
+                    Double.parseDouble(settings.getProperty("duration", DEFAULT_DURATION).trim()));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Load generation failed: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            if (engine != null) {
+                engine.stop();
+                protocol.shutdown();
+            }
+        }
+
+        System.exit(0);
+    }
+}
@@ -0,0 +1,81 @@
+package picross;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * MetricsEndpoint serves ServerMetrics.toText() over HTTP at /metrics,
+ * eg. for curl or a Prometheus scraper during a load test. It only
+ * listens on the loopback address, and answers on the HTTP server's own
+ * single thread, so it never takes a thread from the game server.
+ */
+public class MetricsEndpoint {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final String PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final ServerMetrics metrics;
+    private HttpServer server;
+
+    public MetricsEndpoint(ServerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param port Port to listen on, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     * @since 2026-10-18
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(PATH, this::serve);
+        server.start();
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = metrics.toText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    public void stop() {
+        if (server != null)
+            server.stop(0);
+    }
+
+    /**
+     * @return Returns the port the endpoint listens on, or -1 if not started
+     * @since 2026-10-18
+     */
+    public int getPort() {
+        return (server == null) ? -1 : server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,138 @@
+package picross;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * MpscRingBuffer is a bounded, lock-free queue for many producer threads
+ * and a single consumer thread. Every slot carries a sequence number
+ * that tells a producer whether the slot is free for its position and
+ * tells the consumer whether the slot has been published yet, so
+ * producers only ever contend on one compare-and-set of the tail and
+ * never block. A full buffer rejects the element instead of waiting.
+ */
+public class MpscRingBuffer<E> {
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail;
+    private volatile long head; //Only written by the consumer
+
+    /**
+     * @param capacity Maximum number of elements, rounded up to a power of two
+     * @since 2026-10-18
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30))
+            throw new IllegalArgumentException("Invalid ring buffer capacity: " + capacity);
+
+        this.capacity = (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        this.tail = new AtomicLong();
+
+        //Slot i is free for the producer at position i
+        for (int i = 0; i < this.capacity; i++)
+            sequences.set(i, i);
+    }
+
+    /* ---------------------- Producers -------------------- */
+
+    /**
+     * @param element The element to add
+     * @return Returns false, without blocking, if the buffer is full
+     * @since 2026-10-18
+     */
+    public boolean offer(E element) {
+
+        long pos = tail.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.set(index, pos + 1); //Publishes the element
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; //The consumer has not freed this slot yet
+            } else {
+                pos = tail.get(); //Another producer took this position
+            }
+        }
+    }
+
+    /* ---------------------- Consumer -------------------- */
+
+    /**
+     * @return Returns the oldest element, or null if there is none
+     * @since 2026-10-18
+     *
+     * Must only be called by the consumer thread.
+     */
+    public E poll() {
+
+        long pos = head;
+        int index = (int) pos & mask;
+
+        if (sequences.get(index) != pos + 1)
+            return null;
+
+        E element = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, pos + capacity); //Frees the slot for the next lap
+        head = pos + 1;
+        return element;
+    }
+
+    /**
+     * @param sink     Receives each element, oldest first
+     * @param maxCount Maximum number of elements to drain
+     * @return Returns the number of elements drained
+     * @since 2026-10-18
+     *
+     * Must only be called by the consumer thread.
+     */
+    public int drain(Consumer<? super E> sink, int maxCount) {
+        int count = 0;
+        E element;
+
+        while (count < maxCount && (element = poll()) != null) {
+            sink.accept(element);
+            count++;
+        }
+        return count;
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    /**
+     * @return Returns the approximate number of elements in the buffer
+     * @since 2026-10-18
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,569 @@
+package picross;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * NioServerEngine serves every client from a small, fixed number of
+ * Selector event loops instead of a thread per client. The first loop
+ * also owns the non-blocking ServerSocketChannel and deals accepted
+ * channels out to the loops round-robin. A connection belongs to one
+ * loop for its whole life, so its buffers are only ever touched by
+ * that loop's thread; other threads hand it work through the loop's
+ * task queue.
+ *
+ * Each connection keeps its own read buffer, which is scanned for
+ * newlines incrementally as bytes arrive (or, once upgraded, split into
+ * length-prefixed frames, See Frame), and its own bounded queue of
+ * pending writes (See OutboundQueue). Other threads queue replies
+ * directly and only wake the loop to write them, so a client that stops
+ * reading costs its own queue and nothing else. Each loop also closes
+ * its connections whose output has stalled. An idle connection costs a
+ * few KB and no thread.
+ */
+public class NioServerEngine implements ServerEngine {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final String NAME = "nio";
+
+    protected static final int DEFAULT_LOOPS = Integer.getInteger("picross.nio.loops", Runtime.getRuntime().availableProcessors());
+    protected static final int READ_BUFFER_SIZE = 1024;
+    protected static final int MAX_LINE_LENGTH = Integer.getInteger("picross.nio.maxLineLength", 1 << 20);
+    private static final int BACKLOG = 1024;
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final ServerProtocol protocol;
+    private final ServerMetrics metrics;
+    private final int loopCount;
+    private final AtomicInteger connectionCount;
+    private ServerSocketChannel serverChannel;
+    private EventLoop[] loops;
+    private int nextLoop;
+    private volatile boolean serverOn;
+    private volatile boolean accepting;
+
+    /**
+     * @param protocol The protocol to hand lines to
+     * @since 2026-10-18
+     */
+    public NioServerEngine(ServerProtocol protocol) {
+        this(protocol, DEFAULT_LOOPS);
+    }
+
+    /**
+     * @param protocol  The protocol to hand lines to
+     * @param loopCount Number of event loop threads
+     * @since 2026-10-18
+     */
+    public NioServerEngine(ServerProtocol protocol, int loopCount) {
+        if (loopCount < 1)
+            throw new IllegalArgumentException("Need at least one event loop: " + loopCount);
+
+        this.protocol = protocol;
+        this.metrics = protocol.getMetrics();
+        this.loopCount = loopCount;
+        this.connectionCount = new AtomicInteger();
+    }
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * EventLoop is one selector thread and the connections registered
+     * with it.
+     */
+    private class EventLoop implements Runnable {
+
+        private final Selector selector;
+        private final Queue<Runnable> tasks;
+        private Thread thread;
+        private long lastStallCheck;
+
+        EventLoop() throws IOException {
+            selector = Selector.open();
+            tasks = new ConcurrentLinkedQueue<>();
+        }
+
+        void start(String name) {
+            thread = new Thread(this, name);
+            thread.start();
+        }
+
+        boolean inLoop() {
+            return Thread.currentThread() == thread;
+        }
+
+        /**
+         * @since 2026-10-18
+         *
+         * Runs the task on this loop's thread, right away if already on it.
+         */
+        void execute(Runnable task) {
+            if (inLoop()) {
+                task.run();
+            } else {
+                tasks.add(task);
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (serverOn) {
+                    selector.select(OutboundQueue.STALL_CHECK_MILLIS);
+
+                    Runnable task;
+                    while ((task = tasks.poll()) != null)
+                        task.run();
+
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+
+                        if (!key.isValid())
+                            continue;
+                        if (key.isAcceptable()) {
+                            accept();
+                            continue;
+                        }
+
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable())
+                            connection.read();
+                        if (key.isValid() && key.isWritable())
+                            connection.flush();
+                    }
+
+                    long now = System.nanoTime();
+                    if (now - lastStallCheck >= TimeUnit.MILLISECONDS.toNanos(OutboundQueue.STALL_CHECK_MILLIS)) {
+                        lastStallCheck = now;
+                        closeStalled(now);
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                if (serverOn)
+                    System.err.println("Server: Event loop failed: " + e.getMessage());
+            } finally {
+                shutdown();
+            }
+        }
+
+        /**
+         * @since 2026-10-18
+         *
+         * Closes every connection that has not taken a byte of its
+         * pending output for the write timeout.
+         */
+        private void closeStalled(long now) {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    Connection connection = (Connection) key.attachment();
+                    if (connection.outbound.isStalled(now)) {
+                        System.err.println("Server: Closing client " + connection.clientID + ", " + connection.outbound.getCloseReason());
+                        connection.closeNow();
+                    }
+                }
+            }
+        }
+
+        private void shutdown() {
+            try {
+                for (SelectionKey key : selector.keys())
+                    if (key.attachment() instanceof Connection)
+                        ((Connection) key.attachment()).closeNow();
+                selector.close();
+            } catch (IOException | ClosedSelectorException e) {
+                //Already closing, nothing else to do
+            }
+        }
+    }
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Connection is one client channel. Apart from the ClientConnection
+     * methods, every method must only be called on the owning loop's
+     * thread.
+     */
+    private class Connection implements ClientConnection {
+
+        private final SocketChannel channel;
+        private final EventLoop loop;
+        private final OutboundQueue outbound;
+        private final AtomicBoolean flushScheduled;
+        private ByteBuffer writing; //Taken from outbound and not fully written yet
+        private SelectionKey key;
+        private ByteBuffer readBuffer;
+        private int scanned;
+        private volatile boolean closeRequested;
+        private volatile boolean closed;
+        private volatile String clientID;
+        private volatile int version = Frame.TEXT_VERSION;
+
+        Connection(SocketChannel channel, EventLoop loop) {
+            this.channel = channel;
+            this.loop = loop;
+            this.outbound = new OutboundQueue();
+            this.flushScheduled = new AtomicBoolean();
+            this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        }
+
+        void register() throws IOException {
+            key = channel.register(loop.selector, SelectionKey.OP_READ, this);
+            clientID = protocol.connect(this);
+        }
+
+        /**
+         * @since 2026-10-18
+         *
+         * Reads whatever has arrived and hands every complete line or
+         * frame to the protocol. A partial line or frame is kept at the
+         * start of the buffer, which grows if it does not fit.
+         */
+        void read() {
+            int n;
+            try {
+                n = channel.read(readBuffer);
+            } catch (IOException ioe) {
+                closeNow(); //Ignore when client disconnects
+                return;
+            }
+            if (n < 0) {
+                closeNow();
+                return;
+            }
+            metrics.bytesIn(n);
+
+            int end = readBuffer.position();
+            int start = 0;
+
+            if (version == Frame.TEXT_VERSION)
+                start = readLines(end);
+
+            //A line may have just upgraded the connection, so the rest can already be frames
+            if (version >= Frame.VERSION && !closed)
+                start = readFrames(start, end);
+            if (closed)
+                return;
+
+            //Keep the partial line or frame, and remember that none of a partial line holds a newline
+            readBuffer.position(start).limit(end);
+            readBuffer.compact();
+            scanned = readBuffer.position();
+
+            //A partial line grows the buffer once it fills it, a partial frame as soon as its length is known
+            int needed = readBuffer.position() + 1;
+            if (version >= Frame.VERSION && readBuffer.position() >= Frame.LENGTH_SIZE)
+                needed = Frame.LENGTH_SIZE + readBuffer.getInt(0);
+
+            if (needed > readBuffer.capacity()) {
+                //Frame lengths were already checked, so only a line can outgrow its limit
+                int limit = (version == Frame.TEXT_VERSION) ? MAX_LINE_LENGTH : Frame.LENGTH_SIZE + Frame.MAX_FRAME_LENGTH;
+                if (needed > limit) {
+                    System.err.println("Server: Closing client " + clientID + ", line longer than " + MAX_LINE_LENGTH + " bytes");
+                    closeNow();
+                    return;
+                }
+                ByteBuffer larger = ByteBuffer.allocate(Math.min(limit, Math.max(needed, readBuffer.capacity() * 2)));
+                readBuffer.flip();
+                larger.put(readBuffer);
+                readBuffer = larger;
+            }
+        }
+
+        /**
+         * @return Returns the offset of the first byte that is not part of
+         * a handled line. Only bytes that have not been scanned before are
+         * searched for a newline, and scanning stops if a line upgrades
+         * the connection.
+         */
+        private int readLines(int end) {
+            byte[] bytes = readBuffer.array();
+            int lineStart = 0;
+
+            for (int i = scanned; i < end && !closed && version == Frame.TEXT_VERSION; i++) {
+                if (bytes[i] == '\n') {
+                    int lineEnd = (i > lineStart && bytes[i - 1] == '\r') ? i - 1 : i;
+                    String line = new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+                    lineStart = i + 1;
+                    protocol.handle(this, line);
+                }
+            }
+            return lineStart;
+        }
+
+        /**
+         * @return Returns the offset of the first byte that is not part of
+         * a handled frame. Closes the connection on a bad frame length
+         */
+        private int readFrames(int start, int end) {
+            while (end - start >= Frame.LENGTH_SIZE && !closed) {
+                int length = readBuffer.getInt(start);
+                try {
+                    Frame.checkLength(length);
+                } catch (IllegalArgumentException iae) {
+                    System.err.println("Server: Closing client " + clientID + ", " + iae.getMessage());
+                    closeNow();
+                    return start;
+                }
+                if (end - start - Frame.LENGTH_SIZE < length)
+                    break;
+
+                ByteBuffer body = ByteBuffer.wrap(readBuffer.array(), start + Frame.LENGTH_SIZE, length).slice();
+                start += Frame.LENGTH_SIZE + length;
+                protocol.handleFrame(this, body);
+            }
+            return start;
+        }
+
+        /**
+         * @since 2026-10-18
+         *
+         * Writes as much of the pending output as the socket accepts, and
+         * only asks the selector for OP_WRITE while something is left over.
+         */
+        void flush() {
+            if (closed)
+                return;
+
+            try {
+                while (writing != null || (writing = outbound.poll()) != null) {
+                    int n = channel.write(writing);
+                    outbound.wrote(n, !writing.hasRemaining());
+                    metrics.bytesOut(n);
+                    if (writing.hasRemaining()) {
+                        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    writing = null;
+                }
+            } catch (IOException ioe) {
+                closeNow();
+                return;
+            }
+
+            if (key.isValid())
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            if (closeRequested)
+                closeNow();
+        }
+
+        void closeNow() {
+            if (closed)
+                return;
+            closed = true;
+
+            if (key != null)
+                key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ioe) {
+                //Already gone
+            }
+
+            connectionCount.decrementAndGet();
+            if (clientID != null)
+                protocol.disconnected(this);
+        }
+
+        @Override
+        public String getClientID() {
+            return clientID;
+        }
+
+        @Override
+        public SocketAddress getLocalAddress() {
+            try {
+                return channel.getLocalAddress();
+            } catch (IOException ioe) {
+                return null;
+            }
+        }
+
+        @Override
+        public void send(String line) {
+            enqueue(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)), false);
+        }
+
+        @Override
+        public void sendFrame(ByteBuffer frame) {
+            enqueue(frame.duplicate(), false);
+        }
+
+        @Override
+        public void sendLatest(ByteBuffer encoded) {
+            enqueue(encoded.duplicate(), true);
+        }
+
+        /**
+         * @since 2026-10-18
+         *
+         * Queues on the caller's thread, so the loop's task queue never
+         * holds more than one flush per connection however fast replies
+         * come. A flush that is already scheduled picks the message up.
+         */
+        private void enqueue(ByteBuffer bytes, boolean replaceable) {
+            if (closed || closeRequested)
+                return;
+
+            if (!(replaceable ? outbound.offerLatest(bytes) : outbound.offer(bytes))) {
+                loop.execute(() -> {
+                    if (!closed)
+                        System.err.println("Server: Closing client " + clientID + ", " + outbound.getCloseReason());
+                    closeNow();
+                });
+            } else if (flushScheduled.compareAndSet(false, true)) {
+                loop.execute(() -> {
+                    flushScheduled.set(false);
+                    flush();
+                });
+            }
+        }
+
+        @Override
+        public void upgrade(int version) {
+            this.version = version;
+        }
+
+        @Override
+        public int getVersion() {
+            return version;
+        }
+
+        @Override
+        public OutboundQueue getOutbound() {
+            return outbound;
+        }
+
+        @Override
+        public void close() {
+            loop.execute(() -> {
+                closeRequested = true;
+                if (!outbound.hasPending())
+                    closeNow();
+            });
+        }
+    }
+
+    /* ---------------------- Accepting -------------------- */
+
+    /**
+     * @since 2026-10-18
+     *
+     * Accepts every pending channel and hands each to the next loop.
+     * Only runs on the first loop, which owns the server channel.
+     */
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+                if (channel == null)
+                    return;
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+            } catch (IOException ioe) {
+                if (accepting)
+                    System.err.println("Failed to connect to client: " + ioe.getMessage());
+                return;
+            }
+
+            EventLoop loop = loops[nextLoop];
+            nextLoop = (nextLoop + 1) % loops.length;
+            connectionCount.incrementAndGet();
+
+            Connection connection = new Connection(channel, loop);
+            loop.execute(() -> {
+                try {
+                    connection.register();
+                } catch (IOException ioe) {
+                    connection.closeNow();
+                }
+            });
+        }
+    }
+
+    /* ---------------------- ServerEngine -------------------- */
+
+    @Override
+    public void start(int port) throws IOException {
+
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(new InetSocketAddress(port), BACKLOG);
+
+        loops = new EventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++)
+            loops[i] = new EventLoop();
+        serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+
+        serverOn = true;
+        accepting = true;
+        for (int i = 0; i < loopCount; i++)
+            loops[i].start("NioServerEngine-loop-" + i);
+    }
+
+    @Override
+    public void stopAccepting() {
+        accepting = false;
+
+        try {
+            if (serverChannel != null)
+                serverChannel.close();
+        } catch (IOException e) {
+            System.err.println("Unable to close one or more streams/sockets");
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void stop() {
+        serverOn = false;
+        stopAccepting();
+
+        //Each loop closes its own connections on the way out
+        if (loops != null)
+            for (EventLoop loop : loops)
+                loop.selector.wakeup();
+    }
+
+    @Override
+    public int getLocalPort() {
+        return (serverChannel == null) ? -1 : serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,286 @@
+package picross;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * OutboundQueue holds the messages waiting to be written to one client,
+ * so that the threads replying to it never wait on its socket. The
+ * queue is bounded in bytes; what happens when a client reads too
+ * slowly for it depends on the policy:
+ *   DROP_OLDEST  Drops the oldest waiting messages to make room. The
+ *                connection survives, but requests may go unanswered
+ *   COALESCE     Keeps only the newest pushed message (See
+ *                ClientConnection.sendLatest()) and closes the
+ *                connection if replies alone overflow the queue
+ *   DISCONNECT   Queues every message, pushes included, and closes the
+ *                connection as soon as the queue overflows
+ * The message being written is not counted against the bound and is
+ * never dropped, so a frame or line is never cut short. Engines also
+ * close a connection whose queued output has made no progress for the
+ * write timeout (See isStalled()).
+ *
+ * Defaults come from the system properties picross.outbound.maxBytes,
+ * picross.outbound.policy and picross.outbound.writeTimeoutMillis.
+ * Every method is synchronized, so any thread may queue while the
+ * engine writes, and the counters may be read at any time.
+ */
+public class OutboundQueue {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final int DEFAULT_MAX_BYTES = Integer.getInteger("picross.outbound.maxBytes", 256 * 1024);
+    protected static final Policy DEFAULT_POLICY = Policy.parse(System.getProperty("picross.outbound.policy", "coalesce"));
+    protected static final long WRITE_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("picross.outbound.writeTimeoutMillis", 10_000));
+    //How often engines look for stalled queues, so a stall is caught within a quarter of the timeout
+    protected static final long STALL_CHECK_MILLIS = Math.max(10, Math.min(1000, TimeUnit.NANOSECONDS.toMillis(WRITE_TIMEOUT_NANOS) / 4));
+
+    public enum Policy {
+        DROP_OLDEST, COALESCE, DISCONNECT;
+
+        /**
+         * @param name Policy name, eg. drop-oldest or DROP_OLDEST
+         * @return Returns the policy with that name
+         * @throws IllegalArgumentException if the name is not recognized
+         * @since 2026-10-18
+         */
+        public static Policy parse(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException iae) {
+                throw new IllegalArgumentException("Unrecognized outbound policy - " + name);
+            }
+        }
+    }
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final int maxBytes;
+    private final Policy policy;
+    private final ArrayDeque<ByteBuffer> messages;
+    private ByteBuffer latest;    //Newest push under COALESCE, written after messages
+    private long queuedBytes;     //Waiting bytes, not counting the message being written
+    private boolean writing;      //A message has been taken by poll() and not finished
+    private long lastProgress;    //System.nanoTime() of the last byte written, or of going busy
+    private String closeReason;
+
+    private long messagesQueued;
+    private long messagesWritten;
+    private long bytesWritten;
+    private long dropped;
+    private long coalesced;
+    private long peakBytes;
+
+    public OutboundQueue() {
+        this(DEFAULT_MAX_BYTES, DEFAULT_POLICY);
+    }
+
+    /**
+     * @param maxBytes Bytes that may wait behind the message being written
+     * @param policy   What to do when a message does not fit (See class comment)
+     * @since 2026-10-18
+     */
+    public OutboundQueue(int maxBytes, Policy policy) {
+        if (maxBytes <= 0)
+            throw new IllegalArgumentException("Outbound queue needs room for at least one byte: " + maxBytes);
+
+        this.maxBytes = maxBytes;
+        this.policy = policy;
+        this.messages = new ArrayDeque<>();
+    }
+
+    /* ---------------------- Queueing -------------------- */
+
+    /**
+     * @param message Bytes to write, from position to limit. Not copied
+     * @return Returns false if the queue overflowed and the connection
+     * must be closed. The queue is emptied and takes no more messages
+     * @since 2026-10-18
+     */
+    public synchronized boolean offer(ByteBuffer message) {
+        if (closeReason != null)
+            return false;
+
+        int size = message.remaining();
+        messagesQueued++;
+
+        if (!fits(size)) {
+            if (policy != Policy.DROP_OLDEST)
+                return overflow();
+
+            //Make room, but a message larger than the whole queue still goes out on its own
+            while (!fits(size)) {
+                queuedBytes -= messages.poll().remaining();
+                dropped++;
+            }
+        }
+
+        busy();
+        messages.add(message);
+        queued(size);
+        return true;
+    }
+
+    /**
+     * @param message A message that only matters until a newer one replaces it
+     * @return Returns false if the connection must be closed (See offer())
+     * @since 2026-10-18
+     *
+     * Under COALESCE the message replaces the push still waiting, if any,
+     * and is written once every other waiting message has been. It does
+     * not count against the bound, since there is only ever one. Under
+     * the other policies it is queued like any other message.
+     */
+    public synchronized boolean offerLatest(ByteBuffer message) {
+        if (policy != Policy.COALESCE)
+            return offer(message);
+        if (closeReason != null)
+            return false;
+
+        messagesQueued++;
+        if (latest != null) {
+            queuedBytes -= latest.remaining();
+            coalesced++;
+        }
+
+        busy();
+        latest = message;
+        queued(message.remaining());
+        return true;
+    }
+
+    private boolean fits(int size) {
+        long bounded = queuedBytes - ((latest == null) ? 0 : latest.remaining());
+        return bounded + size <= maxBytes || messages.isEmpty();
+    }
+
+    private boolean overflow() {
+        closeReason = "outbound queue over " + maxBytes + " bytes";
+        dropped += messages.size() + ((latest != null) ? 1 : 0);
+        messages.clear();
+        latest = null;
+        queuedBytes = 0;
+        return false;
+    }
+
+    private void busy() {
+        if (!hasPending())
+            lastProgress = System.nanoTime();
+    }
+
+    private void queued(int size) {
+        queuedBytes += size;
+        peakBytes = Math.max(peakBytes, queuedBytes);
+    }
+
+    /* ---------------------- Writing -------------------- */
+
+    /**
+     * @return Returns the next message to write, or null if there is none.
+     * The caller owns it until it reports it finished through wrote()
+     * @since 2026-10-18
+     */
+    public synchronized ByteBuffer poll() {
+        ByteBuffer next = messages.poll();
+        if (next == null) {
+            next = latest;
+            latest = null;
+        }
+
+        writing = (next != null);
+        if (writing)
+            queuedBytes -= next.remaining();
+        return next;
+    }
+
+    /**
+     * @param bytes    Bytes of the current message just written
+     * @param finished True once the whole message has been written
+     * @since 2026-10-18
+     */
+    public synchronized void wrote(int bytes, boolean finished) {
+        if (bytes > 0) {
+            bytesWritten += bytes;
+            lastProgress = System.nanoTime();
+        }
+        if (finished) {
+            messagesWritten++;
+            writing = false;
+        }
+    }
+
+    /**
+     * @return Returns true while a message is being written or waiting
+     * @since 2026-10-18
+     */
+    public synchronized boolean hasPending() {
+        return writing || !messages.isEmpty() || latest != null;
+    }
+
+    /**
+     * @param now System.nanoTime() of the check
+     * @return Returns true, and marks the queue closed, if output has
+     * been pending for the write timeout without a single byte written
+     * @since 2026-10-18
+     */
+    public synchronized boolean isStalled(long now) {
+        if (closeReason != null || !hasPending() || now - lastProgress < WRITE_TIMEOUT_NANOS)
+            return false;
+
+        closeReason = "no bytes written for " + TimeUnit.NANOSECONDS.toMillis(WRITE_TIMEOUT_NANOS) + " ms";
+        return true;
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public synchronized long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    public synchronized long getPeakBytes() {
+        return peakBytes;
+    }
+
+    public synchronized long getMessagesQueued() {
+        return messagesQueued;
+    }
+
+    public synchronized long getMessagesWritten() {
+        return messagesWritten;
+    }
+
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * @return Returns why the queue closed the connection, or null if it has not
+     * @since 2026-10-18
+     */
+    public synchronized String getCloseReason() {
+        return closeReason;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "wrote " + messagesWritten + " of " + messagesQueued + " messages (" + bytesWritten + " bytes), dropped " + dropped
+                + ", coalesced " + coalesced + ", peak queue " + peakBytes + " bytes" + ((closeReason == null) ? "" : ", closed: " + closeReason);
+    }
+}
@@ -0,0 +1,276 @@
+package picross;
+
+import java.util.Arrays;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * PackedBoard stores a square picross solution as one bit per cell.
+ * Each row is padded to a whole number of 64-bit words so that a row
+ * can be read or compared word by word, and so that row y always
+ * starts at words[y * wordsPerRow].
+ *
+ * The Zobrist fingerprint (See Fingerprint) is computed on the first
+ * call to fingerprint() and cached until a cell next changes, so boards
+ * that are never used as keys (solver lines, parsing, sampling) pay no
+ * more than a flag check per write.
+ */
+public class PackedBoard {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final int WORD_BITS = 64;
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = WORD_BITS - 1;
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final int dimension;
+    private final int wordsPerRow;
+    private final long[] words;
+    private long fingerprint;
+    private volatile boolean fingerprinted; //True while fingerprint is current. Written after it, so readers see both
+
+    /**
+     * @param dimension Width and height of the board
+     * @since 2026-10-18
+     *
+     * Creates an empty (all false) board of dimension x dimension cells.
+     */
+    public PackedBoard(int dimension) {
+        if (dimension < 0)
+            throw new IllegalArgumentException("Negative board dimension: " + dimension);
+
+        this.dimension = dimension;
+        this.wordsPerRow = wordsFor(dimension);
+        this.words = new long[wordsPerRow * dimension];
+    }
+
+    /**
+     * @param other The board to copy
+     * @since 2026-10-18
+     *
+     * Copy constructor.
+     */
+    public PackedBoard(PackedBoard other) {
+        this.dimension = other.dimension;
+        this.wordsPerRow = other.wordsPerRow;
+        this.words = other.words.clone();
+        this.fingerprint = other.fingerprint;
+        this.fingerprinted = other.fingerprinted;
+    }
+
+    /**
+     * @param bits Number of bits to be stored
+     * @return Returns the number of 64-bit words needed to hold them
+     * @since 2026-10-18
+     */
+    public static int wordsFor(int bits) {
+        return (bits + WORD_MASK) >>> WORD_SHIFT;
+    }
+
+    /* ---------------------- Cell Access -------------------- */
+
+    public boolean get(int x, int y) {
+        return (words[y * wordsPerRow + (x >>> WORD_SHIFT)] & (1L << x)) != 0;
+    }
+
+    public void set(int x, int y, boolean value) {
+        int i = y * wordsPerRow + (x >>> WORD_SHIFT);
+        long old = words[i];
+
+        if (value)
+            words[i] |= (1L << x);
+        else
+            words[i] &= ~(1L << x);
+
+        if (words[i] != old)
+            changed();
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Clears every cell on the board without reallocating.
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+        changed();
+    }
+
+    /* ---------------------- Row/Column Access -------------------- */
+
+    /**
+     * @param y    The row to read
+     * @param dest Destination of at least wordsFor(dimension) words
+     * @since 2026-10-18
+     *
+     * Copies row y into dest. Bit x of the row is bit (x % 64) of dest[x / 64].
+     */
+    public void getRow(int y, long[] dest) {
+        System.arraycopy(words, y * wordsPerRow, dest, 0, wordsPerRow);
+    }
+
+    /**
+     * @param y The row to read
+     * @param w The word within the row
+     * @return Returns bits [w * 64, w * 64 + 63] of row y
+     * @since 2026-10-18
+     */
+    public long getWord(int y, int w) {
+        return words[y * wordsPerRow + w];
+    }
+
+    /**
+     * @param y    The row to write
+     * @param w    The word within the row
+     * @param bits Bits [w * 64, w * 64 + 63] of row y. Bits past the dimension are dropped
+     * @since 2026-10-18
+     */
+    public void setWord(int y, int w, long bits) {
+        if (w == wordsPerRow - 1)
+            bits &= tailMask(dimension);
+
+        int i = y * wordsPerRow + w;
+        if (words[i] != bits)
+            changed();
+        words[i] = bits;
+    }
+
+    /**
+     * @param y   The row to overwrite
+     * @param src Source of at least wordsFor(dimension) words
+     * @since 2026-10-18
+     *
+     * Overwrites row y with src. Any bits past the dimension are dropped.
+     */
+    public void setRow(int y, long[] src) {
+        for (int w = 0; w < wordsPerRow; w++)
+            setWord(y, w, src[w]);
+    }
+
+    /**
+     * @param x    The column to read
+     * @param dest Destination of at least wordsFor(dimension) words
+     * @since 2026-10-18
+     *
+     * Gathers column x into dest using the same layout as getRow(), so
+     * bit y of the column is bit (y % 64) of dest[y / 64].
+     */
+    public void getColumn(int x, long[] dest) {
+        int wordOffset = x >>> WORD_SHIFT;
+        int shift = x & WORD_MASK;
+
+        Arrays.fill(dest, 0, wordsPerRow, 0L);
+        for (int y = 0, i = wordOffset; y < dimension; y++, i += wordsPerRow)
+            dest[y >>> WORD_SHIFT] |= ((words[i] >>> shift) & 1L) << y;
+    }
+
+    /* ---------------------- Population Counts -------------------- */
+
+    public int rowPopCount(int y) {
+        int count = 0;
+        for (int i = y * wordsPerRow, end = i + wordsPerRow; i < end; i++)
+            count += Long.bitCount(words[i]);
+        return count;
+    }
+
+    public int colPopCount(int x) {
+        int count = 0;
+        long mask = 1L << x;
+        for (int i = x >>> WORD_SHIFT; i < words.length; i += wordsPerRow)
+            if ((words[i] & mask) != 0)
+                count++;
+        return count;
+    }
+
+    public int popCount() {
+        int count = 0;
+        for (long word : words)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /* ---------------------- Helpers -------------------- */
+
+    /**
+     * @since 2026-10-18
+     *
+     * Drops the cached fingerprint. Only writes the flag when it is set,
+     * so a run of writes costs one volatile write at most.
+     */
+    private void changed() {
+        if (fingerprinted)
+            fingerprinted = false;
+    }
+
+    /**
+     * @param bits Number of meaningful bits in a row
+     * @return Returns a mask of the meaningful bits in the last word of a row
+     * @since 2026-10-18
+     */
+    protected static long tailMask(int bits) {
+        int rem = bits & WORD_MASK;
+        return (rem == 0) ? -1L : (1L << rem) - 1;
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * @return Returns the 64-bit fingerprint of the board. Equal boards
+     * always have equal fingerprints
+     * @since 2026-10-18
+     *
+     * Computes it from the filled cells if the board has changed since
+     * the last call. A board must not be written while it is being
+     * fingerprinted.
+     */
+    public long fingerprint() {
+        if (!fingerprinted) {
+            fingerprint = Fingerprint.of(this);
+            fingerprinted = true;
+        }
+        return fingerprint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof PackedBoard))
+            return false;
+
+        PackedBoard other = (PackedBoard) o;
+        return dimension == other.dimension && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fingerprint());
+    }
+
+    /**
+     * @return Returns the board as a row-major string of '0'/'1' characters
+     * @since 2026-10-18
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(dimension * dimension);
+
+        for (int y = 0; y < dimension; y++)
+            for (int x = 0; x < dimension; x++)
+                sb.append(get(x, y) ? '1' : '0');
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,261 @@
+package picross;
+
+import java.util.Arrays;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * PicrossGame is a single puzzle session. It owns its own dimension,
+ * board, hints, score and clock, and has no Swing dependency, so any
+ * number of sessions can be played side by side in one JVM (eg. by a
+ * server or a headless test harness). A session is not thread-safe;
+ * each one is expected to be driven by a single thread at a time.
+ */
+public class PicrossGame {
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final GameModel gameModel;
+
+    private int points;
+    private int elapsedSeconds;
+    private int tilesSelected;
+    private boolean perfectScore;
+
+    //Per-line progress: filled cells, and filled cells selected correctly (ie. not marked empty)
+    private PackedBoard selected;
+    private int[] rowTarget, colTarget;
+    private int[] rowCorrect, colCorrect;
+    private int incompleteRows;
+
+    /**
+     * @since 2026-10-18
+     *
+     * Creates a session holding the default configuration.
+     */
+    public PicrossGame() {
+        gameModel = new GameModel();
+        reset();
+    }
+
+    /**
+     * @param dimension Dimension of the random board to generate
+     * @since 2026-10-18
+     *
+     * Creates a session holding a random board of the given dimension.
+     */
+    public PicrossGame(int dimension) {
+        this();
+        newPuzzle(dimension);
+    }
+
+    /* ---------------------- Puzzle Methods -------------------- */
+
+    /**
+     * @param dimension Dimension of the random board to generate
+     * @since 2026-10-18
+     *
+     * Replaces the puzzle with a random one that has a unique solution,
+     * and resets the score and clock.
+     */
+    public void newPuzzle(int dimension) {
+        gameModel.genUniqueBitStream(dimension);
+        reset();
+    }
+
+    /**
+     * @param puzzle A puzzle taken from a PuzzlePool (See PuzzlePool.takeAsync())
+     * @since 2026-10-18
+     *
+     * Replaces the puzzle with the given one and resets the score and clock.
+     */
+    public void loadPuzzle(PuzzlePool.Puzzle puzzle) {
+        gameModel.setPuzzle(puzzle);
+        reset();
+    }
+
+    /**
+     * @param board The solution of the puzzle to play
+     * @since 2026-10-18
+     *
+     * Replaces the puzzle with the given solution and resets the score and clock.
+     */
+    public void loadPuzzle(PackedBoard board) {
+        gameModel.setBoard(board);
+        reset();
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Restarts the current puzzle, ie. clears the score, clock and
+     * selected tiles but keeps the same layout. Line targets are taken
+     * from the solution's row and column population counts.
+     */
+    public void reset() {
+        points = 0;
+        elapsedSeconds = 0;
+        tilesSelected = 0;
+        perfectScore = true;
+
+        PackedBoard board = gameModel.getBoard();
+        int dimension = board.getDimension();
+
+        if (selected == null || selected.getDimension() != dimension) {
+            selected = new PackedBoard(dimension);
+            rowTarget = new int[dimension];
+            colTarget = new int[dimension];
+            rowCorrect = new int[dimension];
+            colCorrect = new int[dimension];
+        } else {
+            selected.clear();
+            Arrays.fill(rowCorrect, 0);
+            Arrays.fill(colCorrect, 0);
+        }
+
+        incompleteRows = 0;
+        for (int i = 0; i < dimension; i++) {
+            rowTarget[i] = board.rowPopCount(i);
+            colTarget[i] = board.colPopCount(i);
+            if (rowTarget[i] > 0)
+                incompleteRows++;
+        }
+    }
+
+    /**
+     * @param x      Column of the selected tile
+     * @param y      Row of the selected tile
+     * @param marked True if the tile was selected in mark mode
+     * @return Returns true if the selection was correct
+     * @since 2026-10-18
+     *
+     * Scores a tile selection. Selecting a filled tile normally, or
+     * marking an empty one, is worth a point. Anything else costs a
+     * point and spoils the perfect score. Points never drop below 0.
+     * Line progress is updated in constant time.
+     */
+    public boolean selectTile(int x, int y, boolean marked) {
+
+        if (selected.get(x, y))
+            throw new IllegalArgumentException("Tile (" + x + ", " + y + ") has already been selected");
+
+        boolean isFilled = gameModel.getBoard().get(x, y);
+        boolean correct = isFilled != marked;
+
+        if (correct) {
+            points++;
+        } else {
+            perfectScore = false;
+            points = Math.max(0, points - 1);
+        }
+
+        if (isFilled && correct) {
+            colCorrect[x]++;
+            if (++rowCorrect[y] == rowTarget[y])
+                incompleteRows--;
+        }
+
+        selected.set(x, y, true);
+        tilesSelected++;
+
+        return correct;
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Advances the session clock by one second.
+     */
+    public void tick() {
+        elapsedSeconds++;
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    public int getDimension() {
+        return gameModel.getBoard().getDimension();
+    }
+
+    public GameModel getGameModel() {
+        return gameModel;
+    }
+
+    public PackedBoard getBoard() {
+        return gameModel.getBoard();
+    }
+
+    public HintEngine.Axis getLeftHintCol() {
+        return gameModel.getLeftHintCol();
+    }
+
+    public HintEngine.Axis getTopHintRow() {
+        return gameModel.getTopHintRow();
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    /**
+     * @return Returns {minutes, seconds}. Minutes wrap around after an hour
+     * @since 2026-10-18
+     */
+    public short[] getTime() {
+        return new short[]{(short) ((elapsedSeconds / 60) % 60), (short) (elapsedSeconds % 60)};
+    }
+
+    public int getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    public boolean isPerfectScore() {
+        return perfectScore;
+    }
+
+    /**
+     * @param y The row to check
+     * @return Returns true once every filled cell in the row has been
+     * selected correctly
+     * @since 2026-10-18
+     */
+    public boolean isRowComplete(int y) {
+        return rowCorrect[y] == rowTarget[y];
+    }
+
+    /**
+     * @param x The column to check
+     * @return Returns true once every filled cell in the column has been
+     * selected correctly
+     * @since 2026-10-18
+     */
+    public boolean isColumnComplete(int x) {
+        return colCorrect[x] == colTarget[x];
+    }
+
+    /**
+     * @return Returns true once every filled cell on the board has been
+     * selected correctly, ie. the solution has been reached. A filled
+     * cell marked as empty means the puzzle can no longer be solved
+     * @since 2026-10-18
+     */
+    public boolean isSolved() {
+        return incompleteRows == 0;
+    }
+
+    /**
+     * @return Returns true once the solution has been reached or every
+     * tile on the board has been selected
+     * @since 2026-10-18
+     */
+    public boolean isFinished() {
+        int dimension = getDimension();
+        return isSolved() || tilesSelected == dimension * dimension;
+    }
+
+    @Override
+    public String toString() {
+        return gameModel.toString();
+    }
+}
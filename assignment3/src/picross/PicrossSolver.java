@@ -0,0 +1,391 @@
+package picross;
+
+import java.util.Arrays;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * PicrossSolver solves a puzzle from its hints alone, using line by line
+ * constraint propagation. For every row and column it finds the leftmost
+ * and rightmost placement of each run that is consistent with the cells
+ * already known. Cells covered by a run in both placements must be
+ * filled, and cells no run can reach must be empty. Newly known cells
+ * make the crossing lines dirty, and lines are re-solved until nothing
+ * changes (a fixpoint).
+ *
+ * Knowledge is kept in packed boards of known-filled and known-empty
+ * cells. Each is also kept transposed, so that a column can be read and
+ * updated as a row of words. A solver can be reused for any number of
+ * puzzles of the same dimension without allocating.
+ *
+ * Line solving only ever deduces cells that are forced, so a SOLVED
+ * result also proves that the solution is unique.
+ */
+public class PicrossSolver {
+
+    /* ---------------------- Constants -------------------- */
+
+    public enum Result {
+        SOLVED, STALLED, CONTRADICTION
+    }
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final int dimension;
+    private final int wordsPerLine;
+
+    //Known cells, row-major and transposed (column-major)
+    private final PackedBoard filled;
+    private final PackedBoard empty;
+    private final PackedBoard filledT;
+    private final PackedBoard emptyT;
+
+    //Work queue of dirty lines. Rows are 0..n-1, columns are n..2n-1
+    private final int[] queue;
+    private final boolean[] queued;
+    private int queueHead;
+    private int queueSize;
+
+    //Per-line scratch space
+    private final int[] runs;
+    private final int[] left;
+    private final int[] right;
+    private final int[] nextFilled;
+    private final int[] nextEmpty;
+    private final boolean[] feasible;
+    private final long[] lineFilled;
+    private final long[] lineEmpty;
+    private final long[] newFilled;
+    private final long[] newEmpty;
+
+    /**
+     * @param dimension Dimension of the puzzles this solver will see
+     * @since 2026-10-18
+     */
+    public PicrossSolver(int dimension) {
+
+        int maxRuns = (dimension + 1) / 2;
+
+        this.dimension = dimension;
+        this.wordsPerLine = PackedBoard.wordsFor(dimension);
+
+        filled = new PackedBoard(dimension);
+        empty = new PackedBoard(dimension);
+        filledT = new PackedBoard(dimension);
+        emptyT = new PackedBoard(dimension);
+
+        queue = new int[2 * dimension];
+        queued = new boolean[2 * dimension];
+
+        runs = new int[maxRuns];
+        left = new int[maxRuns];
+        right = new int[maxRuns];
+        nextFilled = new int[dimension + 1];
+        nextEmpty = new int[dimension + 1];
+        feasible = new boolean[(maxRuns + 1) * (dimension + 1)];
+        lineFilled = new long[wordsPerLine];
+        lineEmpty = new long[wordsPerLine];
+        newFilled = new long[wordsPerLine];
+        newEmpty = new long[wordsPerLine];
+    }
+
+    /* ---------------------- Solving -------------------- */
+
+    /**
+     * @param hints Hints of the puzzle to solve
+     * @return Returns SOLVED if every cell was deduced, STALLED if line
+     * solving ran out of deductions, or CONTRADICTION if the hints
+     * cannot be satisfied
+     * @since 2026-10-18
+     */
+    public Result solve(HintEngine hints) {
+        return solve(hints.getRowHints(), hints.getColumnHints());
+    }
+
+    /**
+     * @param rowHints    Hints of each row (left column)
+     * @param columnHints Hints of each column (top row)
+     * @return Returns the outcome of the solve (See solve(HintEngine))
+     * @since 2026-10-18
+     */
+    public Result solve(HintEngine.Axis rowHints, HintEngine.Axis columnHints) {
+
+        if (rowHints.getLineCount() != dimension || columnHints.getLineCount() != dimension)
+            throw new IllegalArgumentException("Hints do not match solver dimension " + dimension);
+
+        filled.clear();
+        empty.clear();
+        filledT.clear();
+        emptyT.clear();
+
+        //A contradiction returns with lines still queued, so their flags are cleared here
+        queueHead = 0;
+        queueSize = 0;
+        Arrays.fill(queued, false);
+        for (int line = 0; line < 2 * dimension; line++)
+            enqueue(line);
+
+        while (queueSize > 0) {
+            int line = queue[queueHead];
+            queueHead = (queueHead + 1) % queue.length;
+            queueSize--;
+            queued[line] = false;
+
+            boolean isRow = line < dimension;
+            int index = isRow ? line : line - dimension;
+
+            if (!solveLine(isRow ? rowHints : columnHints, index, isRow))
+                return Result.CONTRADICTION;
+        }
+
+        return (filled.popCount() + empty.popCount() == dimension * dimension) ? Result.SOLVED : Result.STALLED;
+    }
+
+    /**
+     * @param hints The hints for this axis
+     * @param index The row or column being solved
+     * @param isRow True for a row, false for a column
+     * @return Returns false if the line has no consistent placement
+     * @since 2026-10-18
+     */
+    private boolean solveLine(HintEngine.Axis hints, int index, boolean isRow) {
+
+        int k = hints.getRunCount(index);
+        for (int i = 0; i < k; i++)
+            runs[i] = hints.getRun(index, i);
+
+        (isRow ? filled : filledT).getRow(index, lineFilled);
+        (isRow ? empty : emptyT).getRow(index, lineEmpty);
+
+        Arrays.fill(newFilled, 0L);
+        Arrays.fill(newEmpty, 0L);
+
+        if (k == 0) {
+            setRange(newEmpty, 0, dimension);
+        } else {
+            if (!placeLeftmost(k, false, left) || !placeLeftmost(k, true, right))
+                return false;
+
+            //placeLeftmost() on the reversed line gives mirrored starts of the runs in reverse order
+            for (int i = 0, j = k - 1; i < j; i++, j--) {
+                int tmp = right[i];
+                right[i] = right[j];
+                right[j] = tmp;
+            }
+            for (int i = 0; i < k; i++)
+                right[i] = dimension - right[i] - runs[i];
+
+            //Overlap of the extreme placements is filled; anything no run can reach is empty
+            setRange(newEmpty, 0, dimension);
+            for (int i = 0; i < k; i++) {
+                if (right[i] < left[i] + runs[i])
+                    setRange(newFilled, right[i], left[i] + runs[i]);
+                clearRange(newEmpty, left[i], right[i] + runs[i]);
+            }
+        }
+
+        //Only apply cells that were not already known
+        for (int w = 0; w < wordsPerLine; w++) {
+            if (((newFilled[w] & lineEmpty[w]) | (newEmpty[w] & lineFilled[w])) != 0)
+                return false;
+
+            long addFilled = newFilled[w] & ~lineFilled[w];
+            long addEmpty = newEmpty[w] & ~lineEmpty[w];
+
+            while (addFilled != 0) {
+                int cross = (w * PackedBoard.WORD_BITS) + Long.numberOfTrailingZeros(addFilled);
+                markCell(isRow, index, cross, true);
+                addFilled &= addFilled - 1;
+            }
+            while (addEmpty != 0) {
+                int cross = (w * PackedBoard.WORD_BITS) + Long.numberOfTrailingZeros(addEmpty);
+                markCell(isRow, index, cross, false);
+                addEmpty &= addEmpty - 1;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param k        Number of runs in the line
+     * @param reversed True to work on the mirrored line (runs in reverse order)
+     * @param starts   Receives the start of each run in the leftmost placement
+     * @return Returns false if no placement is consistent with the known cells
+     * @since 2026-10-18
+     *
+     * First fills the feasibility table, where feasible[i][p] is true if
+     * runs i..k-1 can be placed in cells p..n-1 without covering a known
+     * empty cell or leaving a known filled cell uncovered. Then walks the
+     * line placing each run at the first position that keeps the rest of
+     * the line feasible.
+     */
+    private boolean placeLeftmost(int k, boolean reversed, int[] starts) {
+
+        int n = dimension;
+        int stride = n + 1;
+
+        //nextFilled[p]/nextEmpty[p] are the first known cell at or after p (n if none)
+        nextFilled[n] = n;
+        nextEmpty[n] = n;
+        for (int p = n - 1; p >= 0; p--) {
+            int cell = reversed ? n - 1 - p : p;
+            nextFilled[p] = testBit(lineFilled, cell) ? p : nextFilled[p + 1];
+            nextEmpty[p] = testBit(lineEmpty, cell) ? p : nextEmpty[p + 1];
+        }
+
+        for (int p = 0; p <= n; p++)
+            feasible[(k * stride) + p] = nextFilled[p] == n;
+
+        for (int i = k - 1; i >= 0; i--) {
+            int len = runs[reversed ? k - 1 - i : i];
+            int row = i * stride;
+            int nextRow = (i + 1) * stride;
+
+            feasible[row + n] = false;
+            for (int p = n - 1; p >= 0; p--) {
+                boolean skip = nextFilled[p] != p && feasible[row + p + 1];
+                feasible[row + p] = skip || canPlace(len, p, nextRow);
+            }
+        }
+
+        if (!feasible[0])
+            return false;
+
+        for (int i = 0, p = 0; i < k; i++) {
+            int len = runs[reversed ? k - 1 - i : i];
+            int nextRow = (i + 1) * stride;
+
+            //feasible[i][p] holds, so either the run fits here or the cell can be skipped
+            while (!canPlace(len, p, nextRow))
+                p++;
+
+            starts[i] = p;
+            p = Math.min(n, p + len + 1);
+        }
+
+        return true;
+    }
+
+    /**
+     * @param len     Length of the run
+     * @param p       Candidate start of the run
+     * @param nextRow Offset of the feasibility row of the following run
+     * @return Returns true if the run fits at p and the rest of the line stays feasible
+     * @since 2026-10-18
+     */
+    private boolean canPlace(int len, int p, int nextRow) {
+        int end = p + len;
+
+        if (end > dimension || nextEmpty[p] < end)
+            return false;
+        if (end == dimension)
+            return feasible[nextRow + dimension];
+        return nextFilled[end] != end && feasible[nextRow + end + 1];
+    }
+
+    /**
+     * @param isRow    True if the line being solved is a row
+     * @param index    The line being solved
+     * @param cross    Position within the line, ie. the crossing line
+     * @param isFilled True if the cell is filled, false if empty
+     * @since 2026-10-18
+     *
+     * Records a newly deduced cell in both orientations and queues the
+     * crossing line.
+     */
+    private void markCell(boolean isRow, int index, int cross, boolean isFilled) {
+
+        int x = isRow ? cross : index;
+        int y = isRow ? index : cross;
+
+        (isFilled ? filled : empty).set(x, y, true);
+        (isFilled ? filledT : emptyT).set(y, x, true);
+        enqueue(isRow ? dimension + x : y);
+    }
+
+    private void enqueue(int line) {
+        if (!queued[line]) {
+            queued[line] = true;
+            queue[(queueHead + queueSize) % queue.length] = line;
+            queueSize++;
+        }
+    }
+
+    /* ---------------------- Bit Helpers -------------------- */
+
+    private static boolean testBit(long[] words, int bit) {
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Sets bits [from, to) of words, a whole word at a time.
+     */
+    private static void setRange(long[] words, int from, int to) {
+        if (from >= to)
+            return;
+
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+
+        if (first == last) {
+            words[first] |= firstMask & lastMask;
+        } else {
+            words[first] |= firstMask;
+            for (int w = first + 1; w < last; w++)
+                words[w] = -1L;
+            words[last] |= lastMask;
+        }
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Clears bits [from, to) of words, a whole word at a time.
+     */
+    private static void clearRange(long[] words, int from, int to) {
+        if (from >= to)
+            return;
+
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+
+        if (first == last) {
+            words[first] &= ~(firstMask & lastMask);
+        } else {
+            words[first] &= ~firstMask;
+            for (int w = first + 1; w < last; w++)
+                words[w] = 0L;
+            words[last] &= ~lastMask;
+        }
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * @return Returns the cells known to be filled after the last solve().
+     * After a SOLVED result this is the solution
+     * @since 2026-10-18
+     */
+    public PackedBoard getFilled() {
+        return filled;
+    }
+
+    /**
+     * @return Returns the cells known to be empty after the last solve()
+     * @since 2026-10-18
+     */
+    public PackedBoard getEmpty() {
+        return empty;
+    }
+}
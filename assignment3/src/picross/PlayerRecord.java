@@ -0,0 +1,104 @@
+package picross;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * PlayerRecord is the server's record of one client: its UUID and, once
+ * it has sent game data, the name, score, time and puzzle dimension of
+ * its latest game.
+ * Records are immutable; an update replaces the whole record (See
+ * PlayerStore), so readers never see a half-written one.
+ */
+public final class PlayerRecord {
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final String clientID;
+    private final String name;
+    private final int score;
+    private final int timeSeconds;
+    private final int dimension;
+
+    /**
+     * @param clientID UUID of the client
+     * @since 2026-10-18
+     *
+     * Creates the record of a client that has not sent any game data yet.
+     */
+    public PlayerRecord(String clientID) {
+        this(clientID, null, 0, 0, 0);
+    }
+
+    /**
+     * @param clientID    UUID of the client
+     * @param name        Username sent by the client
+     * @param score       Points scored
+     * @param timeSeconds Time taken, in seconds
+     * @param dimension   Dimension of the puzzle played, or 0 if unknown
+     * @since 2026-10-18
+     */
+    public PlayerRecord(String clientID, String name, int score, int timeSeconds, int dimension) {
+        this.clientID = clientID;
+        this.name = name;
+        this.score = score;
+        this.timeSeconds = timeSeconds;
+        this.dimension = dimension;
+    }
+
+    /**
+     * @param name        Username sent by the client
+     * @param score       Points scored
+     * @param timeSeconds Time taken, in seconds
+     * @param dimension   Dimension of the puzzle played, or 0 if unknown
+     * @return Returns a copy of this record holding the given game data
+     * @since 2026-10-18
+     */
+    public PlayerRecord withGame(String name, int score, int timeSeconds, int dimension) {
+        return new PlayerRecord(clientID, name, score, timeSeconds, dimension);
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    public String getClientID() {
+        return clientID;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getTimeSeconds() {
+        return timeSeconds;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * @return Returns true once the client has sent game data
+     * @since 2026-10-18
+     */
+    public boolean hasScore() {
+        return name != null;
+    }
+
+    /**
+     * @return Returns the time as minutes:seconds, the way clients send it
+     * @since 2026-10-18
+     */
+    public String getTime() {
+        return (timeSeconds / 60) + ":" + (timeSeconds % 60);
+    }
+
+    @Override
+    public String toString() {
+        return "Username: " + name + ", Time: " + getTime() + ", Score: " + score;
+    }
+}
@@ -0,0 +1,249 @@
+package picross;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * PlayerStore holds the record of every connected client, keyed by UUID.
+ * Once a player that scored disconnects, its record is kept only while
+ * it is among the best RETAINED_PER_BOARD retained records of its board,
+ * so the store (and the ScoreStore behind it) stays bounded no matter
+ * how many games are played. UUIDs are issued per connection, so no
+ * later connection can claim a retained record.
+ * It is backed by a ConcurrentHashMap and every update is a single
+ * atomic compute() on one key, so score submissions from different
+ * clients never wait on each other. Each update also moves the player on
+ * the Leaderboard, and queues the new record for the ScoreStore (if any),
+ * inside the same compute(), so all three see a client's updates in order.
+ */
+public class PlayerStore {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final int RETAINED_PER_BOARD = Integer.getInteger("picross.server.retainedScores", 100);
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final ConcurrentHashMap<String, PlayerRecord> players;
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<PlayerRecord>> retained; //Disconnected, by dimension, best first
+    private final Leaderboard leaderboard;
+    private volatile ScoreStore scoreStore;
+
+    public PlayerStore() {
+        this(new Leaderboard());
+    }
+
+    /**
+     * @param leaderboard Leaderboard to keep up to date with every score
+     * @since 2026-10-18
+     */
+    public PlayerStore(Leaderboard leaderboard) {
+        this.players = new ConcurrentHashMap<>();
+        this.retained = new ConcurrentHashMap<>();
+        this.leaderboard = leaderboard;
+    }
+
+    /* ---------------------- Updates -------------------- */
+
+    /**
+     * @param clientID UUID of the newly connected client
+     * @since 2026-10-18
+     */
+    public void register(String clientID) {
+        players.putIfAbsent(clientID, new PlayerRecord(clientID));
+    }
+
+    /**
+     * @param clientID UUID of a client whose connection has ended
+     * @since 2026-10-18
+     *
+     * Drops the record of a client that never scored. A scored record
+     * stays, on the leaderboard and in the ScoreStore, as long as it is
+     * among the best retained records of its board (See retain()).
+     */
+    public void disconnect(String clientID) {
+        PlayerRecord kept = players.computeIfPresent(clientID, (id, old) -> old.hasScore() ? old : null);
+        if (kept != null)
+            retain(kept);
+    }
+
+    /**
+     * @param record Scored record of a player that has gone
+     * @since 2026-10-18
+     *
+     * Adds the record to the retained records of its board, then drops
+     * the worst of them, from the leaderboard and the ScoreStore too,
+     * until at most RETAINED_PER_BOARD are left. Retained records never
+     * change, so their order is fixed once added.
+     */
+    private void retain(PlayerRecord record) {
+        ConcurrentSkipListSet<PlayerRecord> board = retained.computeIfAbsent(record.getDimension(), dimension -> new ConcurrentSkipListSet<>(Leaderboard::compare));
+        board.add(record);
+
+        while (board.size() > RETAINED_PER_BOARD) {
+            PlayerRecord worst = board.pollLast();
+            if (worst == null)
+                break;
+
+            players.computeIfPresent(worst.getClientID(), (id, old) -> {
+                if (old != worst)
+                    return old;
+                leaderboard.remove(old);
+                ScoreStore store = scoreStore;
+                if (store != null)
+                    store.appendRemoval(id);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * @param clientID    UUID of the client
+     * @param name        Username sent by the client
+     * @param score       Points scored
+     * @param timeSeconds Time taken, in seconds
+     * @param dimension   Dimension of the puzzle played, or 0 if unknown
+     * @return Returns the updated record, or null if the client is unknown
+     * @throws IllegalArgumentException if the time is negative, or the
+     * dimension is larger than any puzzle the server accepts (See
+     * PuzzleCodec.MAX_DIMENSION)
+     * @since 2026-10-18
+     */
+    public PlayerRecord submitScore(String clientID, String name, int score, int timeSeconds, int dimension) {
+        if (timeSeconds < 0)
+            throw new IllegalArgumentException("Negative time - " + timeSeconds);
+        PuzzleCodec.checkDimension(dimension);
+        return players.computeIfPresent(clientID, (id, old) -> {
+            PlayerRecord current = old.withGame(name, score, timeSeconds, dimension);
+            leaderboard.update(old, current);
+            ScoreStore store = scoreStore;
+            if (store != null)
+                store.append(current);
+            return current;
+        });
+    }
+
+    /**
+     * @param clientID UUID of the client
+     * @param gameData Game data as sent by the client, ie.
+     *                 name,minutes:seconds,score[,dimension]
+     * @return Returns the updated record, or null if the client is unknown
+     * @throws IllegalArgumentException if the game data is malformed
+     * @since 2026-10-18
+     *
+     * Parses the fields in place, without splitting the string. Older
+     * clients do not send the dimension; their scores go on board 0.
+     */
+    public PlayerRecord submitScore(String clientID, String gameData) {
+
+        int nameEnd = gameData.indexOf(',');
+        int timeSep = gameData.indexOf(':', nameEnd + 1);
+        int timeEnd = gameData.indexOf(',', nameEnd + 1);
+
+        if (nameEnd < 0 || timeSep < 0 || timeEnd < timeSep)
+            throw new IllegalArgumentException("Expected name,minutes:seconds,score[,dimension] - " + gameData);
+
+        int scoreEnd = gameData.indexOf(',', timeEnd + 1);
+        if (scoreEnd < 0)
+            scoreEnd = gameData.length();
+
+        try {
+            int minutes = Integer.parseInt(gameData, nameEnd + 1, timeSep, 10);
+            int seconds = Integer.parseInt(gameData, timeSep + 1, timeEnd, 10);
+            int score = Integer.parseInt(gameData, timeEnd + 1, scoreEnd, 10);
+            int dimension = (scoreEnd < gameData.length()) ? Integer.parseInt(gameData, scoreEnd + 1, gameData.length(), 10) : Leaderboard.UNKNOWN_DIMENSION;
+
+            //Same ranges as the frame path, and minutes * 60 must not overflow
+            if (minutes < 0 || seconds < 0 || seconds >= 60 || minutes > (Integer.MAX_VALUE - seconds) / 60)
+                throw new IllegalArgumentException("Time out of range - " + gameData);
+            if (dimension < 0)
+                throw new IllegalArgumentException("Negative dimension - " + gameData);
+
+            return submitScore(clientID, gameData.substring(0, nameEnd), score, (minutes * 60) + seconds, dimension);
+        } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException("Expected name,minutes:seconds,score[,dimension] - " + gameData, nfe);
+        }
+    }
+
+    /**
+     * @param record Record of a player from an earlier run (See ScoreStore)
+     * @since 2026-10-18
+     *
+     * Puts the record back, and on its leaderboard, without saving it
+     * again. Its player is gone, so it is retained like the record of a
+     * player that disconnected; set the ScoreStore first, so that records
+     * it pushes out are dropped from the store too.
+     */
+    public void restore(PlayerRecord record) {
+        players.compute(record.getClientID(), (id, old) -> {
+            leaderboard.update(old, record);
+            return record;
+        });
+        retain(record);
+    }
+
+    /**
+     * @param scoreStore Store to save every score and removal to, or null
+     * @since 2026-10-18
+     */
+    public void setScoreStore(ScoreStore scoreStore) {
+        this.scoreStore = scoreStore;
+    }
+
+    /**
+     * @param clientID UUID of the client
+     * @param gameData SEND_DATA frame payload (See Frame)
+     * @return Returns the updated record, or null if the client is unknown
+     * @throws IllegalArgumentException if the game data is malformed
+     * @since 2026-10-18
+     */
+    public PlayerRecord submitScore(String clientID, ByteBuffer gameData) {
+        ByteBuffer in = gameData.duplicate();
+        if (in.remaining() < 12)
+            throw new IllegalArgumentException("Expected score, time and dimension, found " + in.remaining() + " bytes");
+
+        int score = in.getInt();
+        int timeSeconds = in.getInt();
+        int dimension = in.getInt();
+        if (timeSeconds < 0 || dimension < 0)
+            throw new IllegalArgumentException("Negative time or dimension - " + timeSeconds + ", " + dimension);
+
+        return submitScore(clientID, StandardCharsets.UTF_8.decode(in).toString(), score, timeSeconds, dimension);
+    }
+
+    /* ---------------------- Queries -------------------- */
+
+    public PlayerRecord get(String clientID) {
+        return players.get(clientID);
+    }
+
+    public Collection<PlayerRecord> getRecords() {
+        return players.values();
+    }
+
+    public int size() {
+        return players.size();
+    }
+
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * @return Returns true if any client has sent game data
+     * @since 2026-10-18
+     */
+    public boolean hasScores() {
+        for (PlayerRecord record : players.values())
+            if (record.hasScore())
+                return true;
+        return false;
+    }
+}
@@ -0,0 +1,323 @@
+package picross;
+
+import java.util.Base64;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * PuzzleCodec converts boards to and from a compact binary form, for
+ * sending puzzles over the wire and keeping them in server memory.
+ *
+ * An encoding is a format byte, the dimension as a varint, and then the
+ * cells in row-major order as either
+ *   - FORMAT_PACKED: one bit per cell, ie. ceil(n * n / 8) bytes, or
+ *   - FORMAT_RLE: the lengths of alternating empty/filled runs as varints,
+ *     starting with an (possibly zero length) empty run. The final run is
+ *     implied by the dimension and is left out.
+ * The encoder always picks whichever is smaller, so a board never costs
+ * more than 1/8 of a byte per cell plus a few bytes of header.
+ *
+ * The text form is TEXT_PREFIX followed by the encoding in unpadded
+ * URL-safe base64, which contains neither of the line protocol's
+ * separators. decodeText() also accepts plain '0'/'1' configuration
+ * strings, so older clients keep working.
+ *
+ * Puzzles come from clients, so decoding checks the dimension against
+ * MAX_DIMENSION and the payload's length against the dimension before
+ * allocating anything for the cells. MAX_DIMENSION comes from the system
+ * property picross.maxDimension, by default 2048, whose packed form still
+ * fits in one frame or line (See Frame); it can never be raised past the
+ * largest dimension whose cell count fits in an int.
+ */
+public class PuzzleCodec {
+
+    /* ---------------------- Constants -------------------- */
+
+    public static final char TEXT_PREFIX = '~';
+    protected static final int MAX_INT_DIMENSION = 46340; //Largest dimension whose cell count fits in an int
+    public static final int MAX_DIMENSION = Math.min(Integer.getInteger("picross.maxDimension", 2048), MAX_INT_DIMENSION);
+
+    protected static final int FORMAT_PACKED = 0;
+    protected static final int FORMAT_RLE = 1;
+
+    private static final Base64.Encoder TEXT_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder TEXT_DECODER = Base64.getUrlDecoder();
+
+    private PuzzleCodec() {
+    }
+
+    /* ---------------------- Encoding -------------------- */
+
+    /**
+     * @param board The board to encode
+     * @return Returns the smaller of the packed and run-length encodings
+     * @since 2026-10-18
+     */
+    public static byte[] encode(PackedBoard board) {
+
+        int dimension = board.getDimension();
+        int cells = dimension * dimension;
+        long[] stream = toStream(board);
+
+        int headerSize = 1 + varintSize(dimension);
+        int packedSize = (cells + 7) >>> 3;
+        int rleSize = 0;
+
+        //First pass only measures the runs, the second (if needed) writes them
+        for (int start = 0, value = 0, end; (end = nextChange(stream, start, cells, value)) < cells; start = end, value ^= 1) {
+            rleSize += varintSize(end - start);
+            if (rleSize >= packedSize)
+                break;
+        }
+
+        boolean useRle = rleSize < packedSize;
+        byte[] out = new byte[headerSize + (useRle ? rleSize : packedSize)];
+        int pos = 0;
+
+        out[pos++] = (byte) (useRle ? FORMAT_RLE : FORMAT_PACKED);
+        pos = writeVarint(out, pos, dimension);
+
+        if (useRle) {
+            for (int start = 0, value = 0, end; (end = nextChange(stream, start, cells, value)) < cells; start = end, value ^= 1)
+                pos = writeVarint(out, pos, end - start);
+        } else {
+            for (int i = 0; i < packedSize; i++)
+                out[pos++] = (byte) (stream[i >>> 3] >>> ((i & 7) << 3));
+        }
+
+        return out;
+    }
+
+    /**
+     * @param board The board to encode
+     * @return Returns TEXT_PREFIX followed by the base64 encoding of the board
+     * @since 2026-10-18
+     */
+    public static String encodeText(PackedBoard board) {
+        return toText(encode(board));
+    }
+
+    /**
+     * @param encoded A binary encoding from encode()
+     * @return Returns the text form of the encoding
+     * @since 2026-10-18
+     */
+    public static String toText(byte[] encoded) {
+        return TEXT_PREFIX + TEXT_ENCODER.encodeToString(encoded);
+    }
+
+    /* ---------------------- Decoding -------------------- */
+
+    /**
+     * @param encoded A binary encoding from encode()
+     * @return Returns the decoded board
+     * @throws IllegalArgumentException if the encoding is malformed, or
+     * the dimension is larger than MAX_DIMENSION
+     * @since 2026-10-18
+     */
+    public static PackedBoard decode(byte[] encoded) {
+
+        if (encoded.length < 2)
+            throw new IllegalArgumentException("Encoded puzzle is too short");
+
+        int format = encoded[0];
+        long header = readVarint(encoded, 1);
+        int dimension = (int) header;
+        int pos = (int) (header >>> 32);
+
+        checkDimension(dimension);
+
+        int cells = dimension * dimension;
+        int payloadSize = encoded.length - pos;
+        if (format == FORMAT_PACKED && payloadSize != (cells + 7) >>> 3)
+            throw new IllegalArgumentException("Expected " + ((cells + 7) >>> 3) + " bytes of cells, found " + payloadSize);
+        //Every run but the first covers at least one cell, and takes at least one byte
+        if (format == FORMAT_RLE && payloadSize > cells + 1)
+            throw new IllegalArgumentException("More runs than the " + cells + " cells of the puzzle");
+
+        long[] stream = new long[PackedBoard.wordsFor(cells)];
+
+        if (format == FORMAT_PACKED) {
+            int packedSize = payloadSize;
+            for (int i = 0; i < packedSize; i++)
+                stream[i >>> 3] |= (encoded[pos + i] & 0xFFL) << ((i & 7) << 3);
+            if (stream.length > 0)
+                stream[stream.length - 1] &= PackedBoard.tailMask(cells);
+
+        } else if (format == FORMAT_RLE) {
+            int start = 0;
+            boolean filled = false;
+
+            while (pos < encoded.length) {
+                long run = readVarint(encoded, pos);
+                long end = start + (run & 0xFFFFFFFFL);
+                pos = (int) (run >>> 32);
+
+                if (end > cells)
+                    throw new IllegalArgumentException("Runs cover more than " + cells + " cells");
+                if (filled)
+                    setRange(stream, start, (int) end);
+
+                start = (int) end;
+                filled = !filled;
+            }
+            if (filled)
+                setRange(stream, start, cells);
+
+        } else {
+            throw new IllegalArgumentException("Unknown puzzle format " + format);
+        }
+
+        return fromStream(stream, dimension);
+    }
+
+    /**
+     * @param text Either the text form from encodeText() or a plain configuration string
+     * @return Returns the decoded board
+     * @throws IllegalArgumentException if the text is malformed
+     * @since 2026-10-18
+     */
+    public static PackedBoard decodeText(CharSequence text) {
+        if (isEncoded(text))
+            return decode(TEXT_DECODER.decode(text.subSequence(1, text.length()).toString()));
+
+        PackedBoard board = ConfigParser.parse(text);
+        checkDimension(board.getDimension());
+        return board;
+    }
+
+    /**
+     * @param dimension Dimension of a puzzle sent by a client
+     * @throws IllegalArgumentException if it is negative or larger than MAX_DIMENSION
+     * @since 2026-10-18
+     */
+    public static void checkDimension(int dimension) {
+        if (dimension < 0 || dimension > MAX_DIMENSION)
+            throw new IllegalArgumentException("Puzzle dimension " + dimension + " is not between 0 and " + MAX_DIMENSION);
+    }
+
+    /**
+     * @param text Text to check
+     * @return Returns true if the text is in the encoded form, rather than a plain configuration string
+     * @since 2026-10-18
+     */
+    public static boolean isEncoded(CharSequence text) {
+        return text.length() > 0 && text.charAt(0) == TEXT_PREFIX;
+    }
+
+    /* ---------------------- Cell Stream -------------------- */
+
+    /**
+     * @since 2026-10-18
+     *
+     * Concatenates the rows of the board into one bit stream, so that
+     * cell (x, y) is bit y * n + x, without the padding of each row.
+     */
+    private static long[] toStream(PackedBoard board) {
+
+        int dimension = board.getDimension();
+        long[] stream = new long[PackedBoard.wordsFor(dimension * dimension)];
+
+        for (int y = 0; y < dimension; y++) {
+            for (int w = 0; w < board.getWordsPerRow(); w++) {
+                long word = board.getWord(y, w);
+                int offset = (y * dimension) + (w * PackedBoard.WORD_BITS);
+                int shift = offset & 63;
+
+                stream[offset >>> 6] |= word << shift;
+                if (shift != 0 && (word >>> (64 - shift)) != 0)
+                    stream[(offset >>> 6) + 1] |= word >>> (64 - shift);
+            }
+        }
+        return stream;
+    }
+
+    private static PackedBoard fromStream(long[] stream, int dimension) {
+
+        PackedBoard board = new PackedBoard(dimension);
+
+        for (int y = 0; y < dimension; y++) {
+            for (int w = 0; w < board.getWordsPerRow(); w++) {
+                int offset = (y * dimension) + (w * PackedBoard.WORD_BITS);
+                int index = offset >>> 6, shift = offset & 63;
+                long word = stream[index] >>> shift;
+
+                if (shift != 0 && index + 1 < stream.length)
+                    word |= stream[index + 1] << (64 - shift);
+                board.setWord(y, w, word); //Drops the bits of the next row
+            }
+        }
+        return board;
+    }
+
+    /**
+     * @param stream Cell stream
+     * @param from   First cell to look at
+     * @param cells  Number of cells in the stream
+     * @param value  Value of the current run, 0 or 1
+     * @return Returns the first cell at or after from whose value differs, or cells if there is none
+     * @since 2026-10-18
+     */
+    private static int nextChange(long[] stream, int from, int cells, int value) {
+
+        long invert = (value == 0) ? 0L : -1L;
+
+        for (int i = from >>> 6; i < stream.length; i++) {
+            long word = (stream[i] ^ invert);
+            if (i == from >>> 6)
+                word &= -1L << from;
+            if (word != 0)
+                return Math.min(cells, (i << 6) + Long.numberOfTrailingZeros(word));
+        }
+        return cells;
+    }
+
+    private static void setRange(long[] stream, int from, int to) {
+        for (int i = from; i < to; ) {
+            int bits = Math.min(to - i, 64 - (i & 63));
+            stream[i >>> 6] |= ((bits == 64) ? -1L : (1L << bits) - 1) << i;
+            i += bits;
+        }
+    }
+
+    /* ---------------------- Varints -------------------- */
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0)
+            size++;
+        return size;
+    }
+
+    private static int writeVarint(byte[] out, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    /**
+     * @return Returns the value in the low 32 bits and the position after
+     * it in the high 32 bits, so that no holder object is needed
+     * @throws IllegalArgumentException if the varint is truncated or too long
+     * @since 2026-10-18
+     */
+    private static long readVarint(byte[] in, int pos) {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (pos >= in.length)
+                throw new IllegalArgumentException("Truncated varint");
+
+            int b = in[pos++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return ((long) pos << 32) | (value & 0xFFFFFFFFL);
+        }
+        throw new IllegalArgumentException("Varint is too long");
+    }
+}
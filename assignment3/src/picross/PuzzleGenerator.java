@@ -0,0 +1,158 @@
+package picross;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * PuzzleGenerator produces boards whose hints have exactly one solution.
+ * A candidate is accepted once PicrossSolver can deduce every cell from
+ * its hints alone. Candidates that stall are mutated by flipping one of
+ * the cells the solver could not decide, and are thrown away after too
+ * many mutations. The search runs on every worker of a fork/join pool
+ * at once and stops as soon as any worker finds a board.
+ */
+public class PuzzleGenerator {
+
+    /* ---------------------- Constants -------------------- */
+
+    //Denser boards have longer runs, which line solving pins down far more often
+    private static final double MIN_DENSITY = 0.55;
+    private static final double MAX_DENSITY = 0.75;
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @since 2026-10-18
+     *
+     * Creates a generator that searches on the common fork/join pool.
+     */
+    public PuzzleGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool The pool to search on
+     * @since 2026-10-18
+     */
+    public PuzzleGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * SearchTask is one worker's share of the search. Each task has its
+     * own board, hint engine and solver, so workers never share state
+     * except for the slot the winning board is published to.
+     */
+    private static class SearchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int dimension;
+        private final AtomicReference<PackedBoard> found;
+
+        SearchTask(int dimension, AtomicReference<PackedBoard> found) {
+            this.dimension = dimension;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+
+            Random rand = ThreadLocalRandom.current();
+            PackedBoard candidate = new PackedBoard(dimension);
+            HintEngine hints = new HintEngine();
+            PicrossSolver solver = new PicrossSolver(dimension);
+            int maxMutations = Math.max(1, dimension);
+
+            while (found.get() == null) {
+                sample(candidate, rand);
+
+                for (int mutation = 0; mutation <= maxMutations && found.get() == null; mutation++) {
+                    hints.compute(candidate);
+                    PicrossSolver.Result result = solver.solve(hints);
+
+                    if (result == PicrossSolver.Result.SOLVED) {
+                        found.compareAndSet(null, new PackedBoard(candidate));
+                        return;
+                    }
+                    if (result != PicrossSolver.Result.STALLED || !flipUndecided(candidate, solver, rand))
+                        break;
+                }
+            }
+        }
+
+        private void sample(PackedBoard candidate, Random rand) {
+            double density = MIN_DENSITY + (rand.nextDouble() * (MAX_DENSITY - MIN_DENSITY));
+
+            for (int y = 0; y < dimension; y++)
+                for (int x = 0; x < dimension; x++)
+                    candidate.set(x, y, rand.nextDouble() < density);
+        }
+
+        /**
+         * @return Returns false if the solver left no cell undecided
+         * @since 2026-10-18
+         *
+         * Flips a random cell that the solver could not decide. Picks a
+         * random starting cell and scans forward for an undecided one.
+         */
+        private boolean flipUndecided(PackedBoard candidate, PicrossSolver solver, Random rand) {
+
+            int cells = dimension * dimension;
+            int start = rand.nextInt(cells);
+
+            for (int i = 0; i < cells; i++) {
+                int cell = (start + i) % cells;
+                int x = cell % dimension, y = cell / dimension;
+
+                if (!solver.getFilled().get(x, y) && !solver.getEmpty().get(x, y)) {
+                    candidate.set(x, y, !candidate.get(x, y));
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @param dimension Dimension of the board to generate
+     * @return Returns a board whose hints have a unique solution
+     * @since 2026-10-18
+     *
+     * Forks one search task per worker of the pool and blocks until one
+     * of them finds a board. The remaining tasks notice and stop.
+     */
+    public PackedBoard generateUnique(int dimension) {
+
+        AtomicReference<PackedBoard> found = new AtomicReference<>();
+        int workers = Math.max(1, pool.getParallelism());
+        List<SearchTask> tasks = new ArrayList<>(workers);
+
+        for (int i = 0; i < workers; i++)
+            tasks.add(new SearchTask(dimension, found));
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        return found.get();
+    }
+}
@@ -0,0 +1,274 @@
+package picross;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * PuzzlePool keeps a bounded queue of ready-made unique puzzles (board
+ * plus hints) for each dimension, so that starting a game is a constant
+ * time dequeue instead of a search on the Event Dispatch Thread. A single
+ * low-priority daemon thread tops a queue back up to its depth whenever
+ * it drains to the low watermark. If a queue is ever empty, takeAsync()
+ * generates the puzzle on the background workers instead, so the GUI
+ * never generates on the EDT; take() generates on the calling thread.
+ *
+ * Only dimensions up to MAX_POOLED_DIMENSION (the system property
+ * picross.pool.maxDimension) get a queue, so the number of queues is
+ * bounded whatever dimensions are asked for. Larger puzzles are always
+ * generated on demand.
+ */
+public class PuzzlePool {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final int DEFAULT_DEPTH = Integer.getInteger("picross.pool.depth", 4);
+    protected static final int DEFAULT_LOW_WATERMARK = Integer.getInteger("picross.pool.lowWatermark", 1);
+    protected static final int MAX_POOLED_DIMENSION = Integer.getInteger("picross.pool.maxDimension", 16);
+
+    //Sizes offered by the "New Game" menu and GameClient's "New Game" button
+    private static final int MIN_MENU_DIMENSION = 3;
+    private static final int MAX_MENU_DIMENSION = 8;
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final int depth;
+    private final int lowWatermark;
+    private final ForkJoinPool background;
+    private final PuzzleGenerator generator;
+    private final Map<Integer, BlockingQueue<Puzzle>> pools;
+    private final BlockingQueue<Integer> refillRequests;
+    private final Set<Integer> pendingRefills;
+    private final Thread refillThread;
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Puzzle is a generated board together with its hints. Once taken
+     * from the pool it belongs to the caller.
+     */
+    public static class Puzzle {
+
+        private final PackedBoard board;
+        private final HintEngine hints;
+
+        Puzzle(PackedBoard board) {
+            this.board = board;
+            this.hints = new HintEngine();
+            this.hints.compute(board);
+        }
+
+        public PackedBoard getBoard() {
+            return board;
+        }
+
+        public HintEngine getHints() {
+            return hints;
+        }
+    }
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Holder for the shared pool, so that it (and its threads) are only
+     * created the first time a puzzle is requested.
+     */
+    private static class DefaultPool {
+        private static final PuzzlePool INSTANCE = new PuzzlePool(DEFAULT_DEPTH, DEFAULT_LOW_WATERMARK);
+
+        static {
+            for (int dimension = MIN_MENU_DIMENSION; dimension <= MAX_MENU_DIMENSION; dimension++)
+                INSTANCE.prefetch(dimension);
+        }
+    }
+
+    /**
+     * @param depth        Number of puzzles to keep ready per dimension
+     * @param lowWatermark A refill starts once a queue holds this many puzzles or fewer
+     * @since 2026-10-18
+     */
+    public PuzzlePool(int depth, int lowWatermark) {
+
+        if (depth < 1 || lowWatermark < 0 || lowWatermark >= depth)
+            throw new IllegalArgumentException("Invalid pool depth/watermark: " + depth + "/" + lowWatermark);
+
+        this.depth = depth;
+        this.lowWatermark = lowWatermark;
+        this.background = newBackgroundPool();
+        this.generator = new PuzzleGenerator(background);
+        this.pools = new ConcurrentHashMap<>();
+        this.refillRequests = new LinkedBlockingQueue<>();
+        this.pendingRefills = ConcurrentHashMap.newKeySet();
+
+        refillThread = new Thread(this::refillLoop, "PuzzlePool-refill");
+        refillThread.setDaemon(true);
+        refillThread.setPriority(Thread.MIN_PRIORITY);
+        refillThread.start();
+    }
+
+    /**
+     * @return Returns the pool shared by the game, client and menu
+     * @since 2026-10-18
+     */
+    public static PuzzlePool getDefault() {
+        return DefaultPool.INSTANCE;
+    }
+
+    /**
+     * @return Returns a fork/join pool of low-priority daemon threads, one
+     * fewer than the number of cores, so that generation never competes
+     * with the EDT for the last core
+     * @since 2026-10-18
+     */
+    private static ForkJoinPool newBackgroundPool() {
+
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+        return new ForkJoinPool(parallelism, fjPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(fjPool);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setName("PuzzlePool-worker-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /* ---------------------- Pool Methods -------------------- */
+
+    /**
+     * @param dimension Dimension of the puzzle
+     * @return Returns a unique puzzle of the given dimension
+     * @since 2026-10-18
+     *
+     * Dequeues a ready puzzle and, if that leaves the queue at or below
+     * the low watermark, asks the background thread to refill it. Only
+     * generates on the calling thread if the queue was empty, so the GUI
+     * uses takeAsync() instead.
+     */
+    public Puzzle take(int dimension) {
+        Puzzle puzzle = poll(dimension);
+        return (puzzle != null) ? puzzle : new Puzzle(generator.generateUnique(dimension));
+    }
+
+    /**
+     * @param dimension Dimension of the puzzle
+     * @return Returns a unique puzzle of the given dimension, already
+     * complete if one was ready, otherwise completed by a background
+     * worker once generated
+     * @throws IllegalArgumentException if the dimension is less than 1
+     * @since 2026-10-18
+     */
+    public CompletableFuture<Puzzle> takeAsync(int dimension) {
+        Puzzle puzzle = poll(dimension);
+        if (puzzle != null)
+            return CompletableFuture.completedFuture(puzzle);
+        return CompletableFuture.supplyAsync(() -> new Puzzle(generator.generateUnique(dimension)), background);
+    }
+
+    /**
+     * @param dimension Dimension to start keeping puzzles ready for
+     * @throws IllegalArgumentException if the dimension is less than 1
+     * @since 2026-10-18
+     */
+    public void prefetch(int dimension) {
+        checkDimension(dimension);
+        if (dimension <= MAX_POOLED_DIMENSION) {
+            poolFor(dimension);
+            requestRefill(dimension);
+        }
+    }
+
+    /**
+     * @param dimension Dimension of the queue
+     * @return Returns the number of puzzles ready for that dimension
+     * @since 2026-10-18
+     */
+    public int available(int dimension) {
+        BlockingQueue<Puzzle> pool = pools.get(dimension);
+        return (pool == null) ? 0 : pool.size();
+    }
+
+    /**
+     * @return Returns a ready puzzle, or null if there is none (or the
+     * dimension is too large to be pooled)
+     */
+    private Puzzle poll(int dimension) {
+        checkDimension(dimension);
+        if (dimension > MAX_POOLED_DIMENSION)
+            return null;
+
+        BlockingQueue<Puzzle> pool = poolFor(dimension);
+        Puzzle puzzle = pool.poll();
+
+        if (pool.size() <= lowWatermark)
+            requestRefill(dimension);
+        return puzzle;
+    }
+
+    private static void checkDimension(int dimension) {
+        if (dimension < 1)
+            throw new IllegalArgumentException("Puzzle dimension must be at least 1: " + dimension);
+    }
+
+    private BlockingQueue<Puzzle> poolFor(int dimension) {
+        return pools.computeIfAbsent(dimension, d -> new ArrayBlockingQueue<>(depth));
+    }
+
+    private void requestRefill(int dimension) {
+        if (pendingRefills.add(dimension))
+            refillRequests.add(dimension);
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Body of the refill thread. Tops up one dimension at a time, one
+     * puzzle at a time, until the queue is full again. A failed refill is
+     * reported and skipped, so it never stops the thread.
+     */
+    private void refillLoop() {
+        try {
+            while (true) {
+                int dimension = refillRequests.take();
+                BlockingQueue<Puzzle> pool = poolFor(dimension);
+
+                //Cleared first so a take() during the refill can queue another pass
+                pendingRefills.remove(dimension);
+                try {
+                    while (pool.remainingCapacity() > 0) {
+                        if (!pool.offer(new Puzzle(generator.generateUnique(dimension))))
+                            break;
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to refill the " + dimension + "x" + dimension + " puzzle pool: " + e);
+                }
+            }
+        } catch (InterruptedException ie) {
+            //Interrupted, stop refilling
+        }
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getLowWatermark() {
+        return lowWatermark;
+    }
+}
@@ -0,0 +1,159 @@
+package picross;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * Room is one named game: its current puzzle, its members and the
+ * leaderboard of their scores. A room is only ever touched by the shard
+ * thread it hashes to (See Rooms), so none of it is synchronized.
+ *
+ * The lobby (the room with the empty name) is where every client starts.
+ * It has no leaderboard of its own and ranks against the server-wide one
+ * (See PlayerStore), as the server did before it had rooms.
+ */
+public class Room {
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final String name;
+    private final Map<String, ClientConnection> members;
+    private final Set<ClientConnection> subscribers;
+    private final Leaderboard leaderboard;
+    private final Map<String, PlayerRecord> scores; //Latest scored record of each member
+
+    private byte[] config; //Binary encoding (See PuzzleCodec), or null
+    private long fingerprint;
+
+    /**
+     * @param name Name of the room, Rooms.LOBBY for the lobby
+     * @since 2026-10-18
+     */
+    public Room(String name) {
+        this.name = name;
+        this.members = new LinkedHashMap<>();
+        this.subscribers = new LinkedHashSet<>();
+        this.leaderboard = isLobby() ? null : new Leaderboard();
+        this.scores = new HashMap<>();
+    }
+
+    /* ---------------------- Members -------------------- */
+
+    /**
+     * @param clientID   UUID of the client joining, which its connection
+     *                   may not know yet (See ServerProtocol.connect())
+     * @param client     The client joining
+     * @param subscribed True to push every new puzzle of the room to it
+     * @since 2026-10-18
+     */
+    public void add(String clientID, ClientConnection client, boolean subscribed) {
+        members.put(clientID, client);
+        if (subscribed)
+            subscribers.add(client);
+    }
+
+    /**
+     * @param clientID UUID of the client leaving
+     * @since 2026-10-18
+     *
+     * Removes the client along with its score.
+     */
+    public void remove(String clientID) {
+        ClientConnection client = members.remove(clientID);
+        if (client != null)
+            subscribers.remove(client);
+
+        PlayerRecord record = scores.remove(clientID);
+        if (leaderboard != null && record != null)
+            leaderboard.remove(record);
+    }
+
+    /**
+     * @param client     A member of the room
+     * @param subscribed True to push every new puzzle to it, false to stop
+     * @since 2026-10-18
+     */
+    public void setSubscribed(ClientConnection client, boolean subscribed) {
+        if (!subscribed)
+            subscribers.remove(client);
+        else if (members.containsKey(client.getClientID()))
+            subscribers.add(client);
+    }
+
+    /**
+     * @param record Latest record of a member (See PlayerStore.submitScore())
+     * @since 2026-10-18
+     */
+    public void scored(PlayerRecord record) {
+        if (leaderboard == null || !members.containsKey(record.getClientID()))
+            return;
+
+        leaderboard.update(scores.put(record.getClientID(), record), record);
+    }
+
+    /* ---------------------- Puzzle -------------------- */
+
+    /**
+     * @param encoded     The room's new puzzle (See PuzzleCodec)
+     * @param fingerprint Fingerprint of the puzzle (See PackedBoard.fingerprint())
+     * @return Returns true if it is the same puzzle as the one it replaces
+     * @since 2026-10-18
+     */
+    public boolean setConfig(byte[] encoded, long fingerprint) {
+        boolean same = (config != null && this.fingerprint == fingerprint);
+        this.config = encoded;
+        this.fingerprint = fingerprint;
+        return same;
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isLobby() {
+        return name.equals(Rooms.LOBBY);
+    }
+
+    public boolean contains(String clientID) {
+        return members.containsKey(clientID);
+    }
+
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    public int size() {
+        return members.size();
+    }
+
+    public byte[] getConfig() {
+        return config;
+    }
+
+    public Collection<ClientConnection> getSubscribers() {
+        return subscribers;
+    }
+
+    /**
+     * @return Returns the room's leaderboard, or null for the lobby
+     * @since 2026-10-18
+     */
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    @Override
+    public String toString() {
+        return isLobby() ? "the lobby" : "room " + name;
+    }
+}
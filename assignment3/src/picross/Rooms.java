@@ -0,0 +1,184 @@
+package picross;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * Rooms keeps every game room and which room each client is in. Rooms
+ * are hashed by name onto a fixed number of shards, each a single
+ * thread, and everything that reads or changes a room runs on its
+ * shard. Requests for one room are therefore handled one at a time, in
+ * the order they arrived, without a lock, while rooms on other shards
+ * progress in parallel. A room costs a few objects and no thread, so
+ * thousands of rooms share the same handful of shards.
+ *
+ * A room is created by the first task that needs it and dropped once
+ * its last member leaves, on its own shard, so creation and removal can
+ * never race. The lobby is never dropped. The number of shards comes
+ * from the system property picross.server.shards, by default one per
+ * processor.
+ */
+public class Rooms {
+
+    /* ---------------------- Constants -------------------- */
+
+    public static final String LOBBY = "";
+    protected static final int MAX_NAME_LENGTH = 64;
+    protected static final int DEFAULT_SHARDS = Integer.getInteger("picross.server.shards", Runtime.getRuntime().availableProcessors());
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final ConcurrentHashMap<String, Room> rooms;         //Changed only on each room's shard
+    private final ConcurrentHashMap<String, String> memberships; //clientID to room name, absent for the lobby
+    private final ExecutorService[] shards;
+
+    public Rooms() {
+        this(DEFAULT_SHARDS);
+    }
+
+    /**
+     * @param shardCount Number of shard threads
+     * @since 2026-10-18
+     */
+    public Rooms(int shardCount) {
+        if (shardCount < 1)
+            throw new IllegalArgumentException("Need at least one shard: " + shardCount);
+
+        this.rooms = new ConcurrentHashMap<>();
+        this.memberships = new ConcurrentHashMap<>();
+        this.shards = new ExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String threadName = "Rooms-shard-" + i;
+            shards[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread shard = new Thread(runnable, threadName);
+                shard.setDaemon(true);
+                return shard;
+            });
+        }
+    }
+
+    /* ---------------------- Membership -------------------- */
+
+    /**
+     * @param clientID UUID of a client
+     * @return Returns the name of the room the client is in
+     * @since 2026-10-18
+     */
+    public String roomOf(String clientID) {
+        return memberships.getOrDefault(clientID, LOBBY);
+    }
+
+    /**
+     * @param clientID UUID of the client moving
+     * @param name     Room to move to, LOBBY to leave a room
+     * @return Returns the name of the room the client was in
+     * @since 2026-10-18
+     *
+     * Only records the move, so that requests dispatched after it go to
+     * the new room. The caller moves the client between the rooms
+     * themselves on their shards.
+     */
+    public String move(String clientID, String name) {
+        String old = name.equals(LOBBY) ? memberships.remove(clientID) : memberships.put(clientID, name);
+        return (old == null) ? LOBBY : old;
+    }
+
+    /**
+     * @param clientID UUID of a client that has gone
+     * @return Returns the name of the room it was in
+     * @since 2026-10-18
+     */
+    public String forget(String clientID) {
+        return move(clientID, LOBBY);
+    }
+
+    /**
+     * @param name Room name sent by a client
+     * @return Returns the name, trimmed
+     * @throws IllegalArgumentException if the name is empty, too long, or
+     * contains a protocol separator or control character
+     * @since 2026-10-18
+     */
+    public static String checkName(String name) {
+        String trimmed = name.trim();
+        if (trimmed.isEmpty())
+            throw new IllegalArgumentException("Room name is empty");
+        if (trimmed.length() > MAX_NAME_LENGTH)
+            throw new IllegalArgumentException("Room name longer than " + MAX_NAME_LENGTH + " characters");
+
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (Character.isISOControl(c) || c == GameServer.PROTOCOL_SEP || c == GameServer.REQUEST_SEP)
+                throw new IllegalArgumentException("Room name contains '" + c + "'");
+        }
+        return trimmed;
+    }
+
+    /* ---------------------- Shards -------------------- */
+
+    /**
+     * @param name Room to run the task on
+     * @param task Task given the room, created if it does not exist yet
+     * @return Returns false if the task was dropped
+     * @since 2026-10-18
+     *
+     * Runs the task on the room's shard. Once the shards are shut down,
+     * drops it: running it anywhere else could touch the room alongside
+     * the tasks the shard is still finishing, and by then the server is
+     * closing every connection anyway.
+     */
+    public boolean execute(String name, Consumer<Room> task) {
+        Runnable run = () -> {
+            Room room = rooms.computeIfAbsent(name, Room::new);
+            try {
+                task.accept(room);
+            } finally {
+                if (room.isEmpty() && !room.isLobby())
+                    rooms.remove(name);
+            }
+        };
+
+        try {
+            shards[shardOf(name)].execute(run);
+            return true;
+        } catch (RejectedExecutionException ree) {
+            return false;
+        }
+    }
+
+    private int shardOf(String name) {
+        return (int) Math.floorMod(Fingerprint.mix64(name.hashCode()), (long) shards.length);
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Stops the shards once the tasks already queued have run. Tasks
+     * given after this are dropped (See execute()).
+     */
+    public void shutdown() {
+        for (ExecutorService shard : shards)
+            shard.shutdown();
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    /**
+     * @return Returns the number of rooms, the lobby included
+     * @since 2026-10-18
+     */
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+}
@@ -0,0 +1,481 @@
+package picross;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * ScoreStore keeps every score on disk, so that players and leaderboards
+ * survive a restart. The file is an append-only log of records, written
+ * through a memory-mapped buffer:
+ *   header  int magic, int version
+ *   record  int length, int CRC32 of the body, body
+ *   body    byte kind, int id length, id, and for a SCORE record also
+ *           int name length, name, int score, int time, int dimension
+ * The latest record of a client wins. A REMOVED record drops a player
+ * that PlayerStore no longer keeps (See PlayerStore.disconnect()).
+ *
+ * Callers only queue records, so connection threads never wait on the
+ * disk; a single writer thread appends them in batches and forces the
+ * file at most every FLUSH_MILLIS. Once everything is forced it sleeps
+ * until the next record arrives. It rewrites the file with only the
+ * live records once most of it is stale. On open, the file is scanned once to rebuild
+ * the index of live records; a torn record at the end (eg. after a crash)
+ * fails its CRC, and it and everything after it is cut off.
+ */
+public class ScoreStore implements AutoCloseable {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final int MAGIC = 0x50585331; //"PXS1"
+    protected static final int VERSION = 1;
+    protected static final byte SCORE = 1;
+    protected static final byte REMOVED = 2;
+
+    protected static final long FLUSH_MILLIS = 1000;
+    protected static final int COMPACT_MIN_RECORDS = 65536;
+    protected static final int COMPACT_RATIO = 4;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int INITIAL_MAP_SIZE = 1 << 20;
+    private static final long BATCH_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final Path file;
+    private final Consumer<String> log;
+    private final ConcurrentLinkedQueue<Object> queue; //PlayerRecord, Removal or CountDownLatch (flush)
+    private final ExecutorService writer;
+    private volatile Thread writerThread; //Set once the writer starts
+    private final List<PlayerRecord> recovered;
+    private volatile boolean open;
+    private volatile boolean idle; //True while the writer waits for an append
+
+    //Only touched by the writer thread once it has started
+    private final Map<String, PlayerRecord> live;
+    private final CRC32 crc;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int position;
+    private long recordCount;
+    private long nextCompaction;
+    private boolean dirty;
+    private long lastForce;
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Removal is a queued REMOVED record.
+     */
+    private static class Removal {
+
+        private final String clientID;
+
+        Removal(String clientID) {
+            this.clientID = clientID;
+        }
+    }
+
+    /**
+     * @param file File to keep scores in, created if it does not exist
+     * @param log  Receives recovery reports and write errors
+     * @throws IOException if the file cannot be opened or is not a score store
+     * @since 2026-10-18
+     *
+     * Opens the store, rebuilding the index from the file, and starts the
+     * writer thread.
+     */
+    public ScoreStore(Path file, Consumer<String> log) throws IOException {
+        this(file, log, null);
+    }
+
+    /**
+     * @param file   File to keep scores in, created if it does not exist
+     * @param log    Receives recovery reports and write errors
+     * @param writer Executor to run the writer on (eg. VirtualThreads.newExecutor()),
+     *               or null for a platform thread of its own. The store
+     *               shuts it down on close()
+     * @throws IOException if the file cannot be opened or is not a score store
+     * @since 2026-10-18
+     */
+    public ScoreStore(Path file, Consumer<String> log, ExecutorService writer) throws IOException {
+        this.file = file;
+        this.log = log;
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.live = new LinkedHashMap<>();
+        this.crc = new CRC32();
+        this.nextCompaction = COMPACT_MIN_RECORDS;
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            if (writer != null)
+                writer.shutdown();
+            throw e;
+        }
+        this.recovered = new ArrayList<>(live.values());
+
+        this.writer = (writer != null) ? writer : Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ScoreStore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.open = true;
+        this.writer.execute(this::writeLoop);
+    }
+
+    /* ---------------------- Recovery -------------------- */
+
+    /**
+     * @throws IOException if the file is not a score store
+     * @since 2026-10-18
+     *
+     * Scans the file once, keeping the latest record of each client, and
+     * cuts off anything after the last intact record.
+     */
+    private void recover() throws IOException {
+
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Score store is too large: " + file);
+
+        boolean cleanEnd = false;
+        if (size < HEADER_SIZE) {
+            position = HEADER_SIZE;
+        } else {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (in.getInt(0) != MAGIC || in.getInt(4) != VERSION)
+                throw new IOException("Not a score store: " + file);
+
+            position = HEADER_SIZE;
+            while (position + RECORD_HEADER_SIZE <= size) {
+                int length = in.getInt(position);
+                if (length == 0) {
+                    cleanEnd = true; //Unused end of the last mapping
+                    break;
+                }
+                if (length < 0 || length > size - position - RECORD_HEADER_SIZE)
+                    break;
+
+                ByteBuffer body = in.slice(position + RECORD_HEADER_SIZE, length);
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != in.getInt(position + 4) || !apply(body))
+                    break;
+
+                position += RECORD_HEADER_SIZE + length;
+                recordCount++;
+            }
+
+            if (position < size && !cleanEnd)
+                log.accept("Score store: discarded " + (size - position) + " bytes after the last intact record\n");
+        }
+
+        //Drop the torn tail so nothing stale is left beyond the append position
+        channel.truncate(position);
+        remap(Math.max(INITIAL_MAP_SIZE, position * 2L));
+        map.putInt(0, MAGIC).putInt(4, VERSION);
+        dirty = true;
+
+        log.accept("Score store: recovered " + live.size() + " players from " + recordCount + " records\n");
+    }
+
+    /**
+     * @return Returns false if the body does not decode
+     */
+    private boolean apply(ByteBuffer body) {
+        try {
+            byte kind = body.get();
+            String clientID = getString(body);
+
+            if (kind == REMOVED) {
+                live.remove(clientID);
+            } else if (kind == SCORE) {
+                String name = getString(body);
+                live.put(clientID, new PlayerRecord(clientID, name, body.getInt(), body.getInt(), body.getInt()));
+            } else {
+                return false;
+            }
+            return !body.hasRemaining();
+        } catch (RuntimeException e) {
+            return false; //BufferUnderflowException or a bad length
+        }
+    }
+
+    private static String getString(ByteBuffer body) {
+        int length = body.getInt();
+        if (length < 0 || length > body.remaining())
+            throw new IllegalArgumentException("Bad string length " + length);
+
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /* ---------------------- Appending -------------------- */
+
+    /**
+     * @param record Record to save. Records without game data are ignored
+     * @since 2026-10-18
+     *
+     * Queues the record and returns straight away.
+     */
+    public void append(PlayerRecord record) {
+        if (record.hasScore())
+            offer(record);
+    }
+
+    /**
+     * @param clientID UUID of a player to drop from the store
+     * @since 2026-10-18
+     */
+    public void appendRemoval(String clientID) {
+        offer(new Removal(clientID));
+    }
+
+    private void offer(Object op) {
+        if (open) {
+            queue.offer(op);
+            if (idle)
+                wake();
+        }
+    }
+
+    /**
+     * @param timeoutMillis Longest time to wait
+     * @return Returns true once every record queued before the call is
+     * written and forced to disk
+     * @throws InterruptedException if interrupted while waiting
+     * @since 2026-10-18
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        CountDownLatch flushed = new CountDownLatch(1);
+        queue.offer(flushed);
+        wake();
+        return flushed.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Body of the writer thread.
+     */
+    private void writeLoop() {
+
+        writerThread = Thread.currentThread();
+        while (open || !queue.isEmpty()) {
+            Object op = queue.poll();
+
+            if (op == null) {
+                if (dirty && System.currentTimeMillis() - lastForce >= FLUSH_MILLIS) {
+                    force();
+                } else if (dirty) {
+                    LockSupport.parkNanos(this, BATCH_PARK_NANOS); //Let appends pile up
+                } else {
+                    //Set before the last look at the queue, so an append either lands before it or unparks us
+                    idle = true;
+                    if (queue.isEmpty() && open)
+                        LockSupport.park(this); //Until append(), flush() or close()
+                    idle = false;
+                }
+                continue;
+            }
+
+            try {
+                if (op instanceof PlayerRecord) {
+                    PlayerRecord record = (PlayerRecord) op;
+                    write(SCORE, record.getClientID(), record);
+                    live.put(record.getClientID(), record);
+                } else if (op instanceof Removal) {
+                    String clientID = ((Removal) op).clientID;
+                    if (live.remove(clientID) != null)
+                        write(REMOVED, clientID, null);
+                } else {
+                    force();
+                    ((CountDownLatch) op).countDown();
+                }
+
+                if (recordCount >= nextCompaction && recordCount > (long) COMPACT_RATIO * live.size())
+                    compact();
+            } catch (IOException | RuntimeException e) {
+                log.accept("Score store: write failed - " + e.getMessage() + "\n");
+            }
+        }
+
+        force();
+        try {
+            channel.truncate(position);
+            channel.close();
+        } catch (IOException ioe) {
+            log.accept("Score store: close failed - " + ioe.getMessage() + "\n");
+        }
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Unparks the writer. Before it has started there is nothing to do;
+     * it looks at the queue first thing.
+     */
+    private void wake() {
+        Thread thread = writerThread;
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    private void write(byte kind, String clientID, PlayerRecord record) throws IOException {
+
+        byte[] id = clientID.getBytes(StandardCharsets.UTF_8);
+        byte[] name = (record == null) ? null : record.getName().getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 4 + id.length + ((name == null) ? 0 : 4 + name.length + 12);
+
+        long end = (long) position + RECORD_HEADER_SIZE + length;
+        if (end > Integer.MAX_VALUE)
+            throw new IOException("Score store is full: " + file);
+        if (end > map.capacity())
+            remap(Math.max((long) map.capacity() * 2, end));
+
+        ByteBuffer body = map.slice(position + RECORD_HEADER_SIZE, length);
+        body.put(kind).putInt(id.length).put(id);
+        if (name != null)
+            body.putInt(name.length).put(name).putInt(record.getScore()).putInt(record.getTimeSeconds()).putInt(record.getDimension());
+
+        crc.reset();
+        crc.update(body.flip());
+        map.putInt(position + 4, (int) crc.getValue());
+        map.putInt(position, length);
+
+        position += RECORD_HEADER_SIZE + length;
+        recordCount++;
+        dirty = true;
+    }
+
+    /**
+     * @param capacity Size to map, clamped to the largest single mapping
+     */
+    private void remap(long capacity) throws IOException {
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(capacity, Integer.MAX_VALUE));
+    }
+
+    private void force() {
+        if (dirty) {
+            map.force();
+            dirty = false;
+        }
+        lastForce = System.currentTimeMillis();
+    }
+
+    /* ---------------------- Compaction -------------------- */
+
+    /**
+     * @throws IOException if the store cannot be reopened after a failure
+     * @since 2026-10-18
+     *
+     * Writes the live records to a new file, then swaps it in. Appends
+     * keep queueing meanwhile. If anything fails, the old file is kept and
+     * compaction is not tried again until the file has doubled.
+     */
+    private void compact() throws IOException {
+
+        long before = recordCount;
+        int oldPosition = position;
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        force();
+
+        try {
+            FileChannel old = channel;
+            try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                //Reuse write() against the new file
+                channel = out;
+                position = HEADER_SIZE;
+                recordCount = 0;
+                remap(Math.max(INITIAL_MAP_SIZE, oldPosition));
+                map.putInt(0, MAGIC).putInt(4, VERSION);
+                for (PlayerRecord record : live.values())
+                    write(SCORE, record.getClientID(), record);
+                map.force();
+                out.truncate(position);
+            } finally {
+                channel = old;
+            }
+
+            old.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.accept("Score store: compaction failed - " + e.getMessage() + "\n");
+            Files.deleteIfExists(compacted);
+            position = oldPosition;
+            recordCount = before;
+            nextCompaction = before * 2;
+        }
+
+        if (!channel.isOpen())
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        remap(Math.max(INITIAL_MAP_SIZE, position * 2L));
+        dirty = false;
+
+        if (recordCount < before) {
+            nextCompaction = Math.max(COMPACT_MIN_RECORDS, recordCount * 2);
+            log.accept("Score store: compacted " + before + " records to " + recordCount + "\n");
+        }
+    }
+
+    /* ---------------------- Getters -------------------- */
+
+    /**
+     * @return Returns the live records found in the file when it was opened
+     * @since 2026-10-18
+     */
+    public Collection<PlayerRecord> getRecovered() {
+        return recovered;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Stops accepting records, and waits (briefly) for the queued ones to
+     * be written and forced to disk.
+     */
+    @Override
+    public void close() {
+        open = false;
+        wake();
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
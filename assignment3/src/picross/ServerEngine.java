@@ -0,0 +1,76 @@
+package picross;
+
+import java.io.IOException;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * ServerEngine accepts client connections on a port, splits incoming
+ * bytes into lines and hands each line to a ServerProtocol. Engines
+ * differ only in how they map connections onto threads.
+ */
+public interface ServerEngine {
+
+    /**
+     * @param port The port to listen on
+     * @throws IOException if the server socket cannot be opened
+     * @since 2026-10-18
+     *
+     * Opens the server socket and starts accepting clients in the
+     * background. Returns once the socket is bound.
+     */
+    void start(int port) throws IOException;
+
+    /**
+     * @since 2026-10-18
+     *
+     * Stops accepting clients but keeps serving the ones connected, so
+     * they can be drained (See ServerProtocol.drain()).
+     */
+    void stopAccepting();
+
+    /**
+     * @since 2026-10-18
+     *
+     * Stops accepting clients and closes every connection.
+     */
+    void stop();
+
+    /**
+     * @return Returns the port the engine is listening on, which is only
+     * known once started if it was started on port 0
+     * @since 2026-10-18
+     */
+    int getLocalPort();
+
+    /**
+     * @return Returns the number of currently open connections
+     * @since 2026-10-18
+     */
+    int getConnectionCount();
+
+    /**
+     * @return Returns the name used to select the engine (See create())
+     * @since 2026-10-18
+     */
+    String getName();
+
+    /**
+     * @param name     "blocking" for one thread per client, "virtual" for one
+     *                 virtual thread per client, or "nio" for selector event loops
+     * @param protocol The protocol to hand lines to
+     * @return Returns a new, unstarted engine
+     * @throws IllegalArgumentException if the name is not recognized
+     * @since 2026-10-18
+     */
+    static ServerEngine create(String name, ServerProtocol protocol) {
+        return switch (name.toLowerCase()) {
+            case BlockingServerEngine.NAME -> new BlockingServerEngine(protocol);
+            case BlockingServerEngine.VIRTUAL_NAME -> BlockingServerEngine.withVirtualThreads(protocol);
+            case NioServerEngine.NAME -> new NioServerEngine(protocol);
+            default -> throw new IllegalArgumentException("Unrecognized server engine - " + name);
+        };
+    }
+}
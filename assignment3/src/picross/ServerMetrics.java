@@ -0,0 +1,306 @@
+package picross;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * ServerMetrics counts what the server does, for watching it under load.
+ * Counters are LongAdders, striped per thread, so the engines' and
+ * workers' threads can all update them on every read, write and request
+ * without contending on a shared cache line. Each opcode has a request
+ * count and a LatencyHistogram of its handling time, from when the
+ * request was decoded until its reply was queued, which includes any
+ * wait for a worker.
+ *
+ * The metrics are exported through JMX (See register()) and as plain
+ * text (See toText() and MetricsEndpoint).
+ */
+public class ServerMetrics implements ServerMetricsMXBean {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final String OBJECT_NAME = "picross:type=ServerMetrics";
+    private static final String PREFIX = "picross_";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final LongAdder connectionsAccepted;
+    private final LongAdder connectionsClosed;
+    private final LongAdder bytesIn;
+    private final LongAdder bytesOut;
+    private final LongAdder malformed;
+    private final LongAdder dropped;
+    private final LongAdder coalesced;
+    private final LongAdder slowClientsClosed;
+    private final LongAdder[] requests;       //Indexed by protocol value
+    private final LongAdder[] requestNanos;   //Total handling time, for the mean
+    private final LatencyHistogram[] latencies;
+
+    private volatile IntSupplier workerQueueDepth = () -> 0;
+    private volatile IntSupplier workersBusy = () -> 0;
+    private volatile IntSupplier rooms = () -> 0;
+    private ObjectName registeredName;
+
+    public ServerMetrics() {
+        int opcodes = GameServer.Protocols.values().length;
+
+        connectionsAccepted = new LongAdder();
+        connectionsClosed = new LongAdder();
+        bytesIn = new LongAdder();
+        bytesOut = new LongAdder();
+        malformed = new LongAdder();
+        dropped = new LongAdder();
+        coalesced = new LongAdder();
+        slowClientsClosed = new LongAdder();
+        requests = new LongAdder[opcodes];
+        requestNanos = new LongAdder[opcodes];
+        latencies = new LatencyHistogram[opcodes];
+        for (int op = 0; op < opcodes; op++) {
+            requests[op] = new LongAdder();
+            requestNanos[op] = new LongAdder();
+            latencies[op] = new LatencyHistogram();
+        }
+    }
+
+    /* ---------------------- Recording -------------------- */
+
+    public void accepted() {
+        connectionsAccepted.increment();
+    }
+
+    /**
+     * @param outbound Queue of the connection that closed, whose losses are added up
+     * @since 2026-10-18
+     */
+    public void closed(OutboundQueue outbound) {
+        connectionsClosed.increment();
+        dropped.add(outbound.getDropped());
+        coalesced.add(outbound.getCoalesced());
+        if (outbound.getCloseReason() != null)
+            slowClientsClosed.increment();
+    }
+
+    public void bytesIn(long bytes) {
+        bytesIn.add(bytes);
+    }
+
+    public void bytesOut(long bytes) {
+        bytesOut.add(bytes);
+    }
+
+    public void malformed() {
+        malformed.increment();
+    }
+
+    /**
+     * @param protocol Opcode of the request
+     * @param nanos    Time from decoding the request to queueing its reply
+     * @since 2026-10-18
+     */
+    public void handled(GameServer.Protocols protocol, long nanos) {
+        int op = protocol.getValue();
+        requests[op].increment();
+        requestNanos[op].add(nanos);
+        latencies[op].record(nanos);
+    }
+
+    /**
+     * @param queueDepth Number of requests waiting for a worker
+     * @param busy       Number of workers processing a request
+     * @since 2026-10-18
+     */
+    public void setWorkerGauges(IntSupplier queueDepth, IntSupplier busy) {
+        this.workerQueueDepth = queueDepth;
+        this.workersBusy = busy;
+    }
+
+    /**
+     * @param rooms Number of game rooms, the lobby included (See Rooms)
+     * @since 2026-10-18
+     */
+    public void setRoomGauge(IntSupplier rooms) {
+        this.rooms = rooms;
+    }
+
+    /* ---------------------- JMX -------------------- */
+
+    /**
+     * @return Returns true if the metrics were registered with the
+     * platform MBean server, false if another server in this JVM already
+     * holds the name
+     * @since 2026-10-18
+     */
+    public synchronized boolean register() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name))
+                return false;
+
+            server.registerMBean(this, name);
+            registeredName = name;
+            return true;
+        } catch (JMException e) {
+            return false;
+        }
+    }
+
+    public synchronized void unregister() {
+        if (registeredName == null)
+            return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            //Already gone
+        }
+        registeredName = null;
+    }
+
+    /* ---------------------- ServerMetricsMXBean -------------------- */
+
+    @Override
+    public long getConnectionsOpen() {
+        return connectionsAccepted.sum() - connectionsClosed.sum();
+    }
+
+    @Override
+    public long getConnectionsAccepted() {
+        return connectionsAccepted.sum();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public long getMalformedRequests() {
+        return malformed.sum();
+    }
+
+    @Override
+    public long getMessagesDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public long getMessagesCoalesced() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public long getSlowClientsClosed() {
+        return slowClientsClosed.sum();
+    }
+
+    @Override
+    public int getWorkerQueueDepth() {
+        return workerQueueDepth.getAsInt();
+    }
+
+    @Override
+    public int getWorkersBusy() {
+        return workersBusy.getAsInt();
+    }
+
+    @Override
+    public int getRooms() {
+        return rooms.getAsInt();
+    }
+
+    @Override
+    public Map<String, Long> getRequestCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (GameServer.Protocols protocol : GameServer.Protocols.values())
+            counts.put(protocol.name(), requests[protocol.getValue()].sum());
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP50Micros() {
+        return latencyMicros(0.50);
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP99Micros() {
+        return latencyMicros(0.99);
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMaxMicros() {
+        return latencyMicros(1.0);
+    }
+
+    private Map<String, Double> latencyMicros(double fraction) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (GameServer.Protocols protocol : GameServer.Protocols.values()) {
+            LatencyHistogram histogram = latencies[protocol.getValue()];
+            long nanos = (fraction >= 1.0) ? histogram.getMax() : histogram.percentile(fraction);
+            values.put(protocol.name(), nanos / 1000.0);
+        }
+        return values;
+    }
+
+    /* ---------------------- Text -------------------- */
+
+    /**
+     * @return Returns every metric in the Prometheus text format, one
+     * sample per line, with handling times as summaries in seconds
+     * @since 2026-10-18
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder(2048);
+
+        sample(sb, "connections_open", "gauge", getConnectionsOpen());
+        sample(sb, "connections_accepted_total", "counter", getConnectionsAccepted());
+        sample(sb, "bytes_in_total", "counter", getBytesIn());
+        sample(sb, "bytes_out_total", "counter", getBytesOut());
+        sample(sb, "malformed_requests_total", "counter", getMalformedRequests());
+        sample(sb, "messages_dropped_total", "counter", getMessagesDropped());
+        sample(sb, "messages_coalesced_total", "counter", getMessagesCoalesced());
+        sample(sb, "slow_clients_closed_total", "counter", getSlowClientsClosed());
+        sample(sb, "worker_queue_depth", "gauge", getWorkerQueueDepth());
+        sample(sb, "workers_busy", "gauge", getWorkersBusy());
+        sample(sb, "rooms", "gauge", getRooms());
+
+        sb.append("# TYPE ").append(PREFIX).append("requests_total counter\n");
+        for (GameServer.Protocols protocol : GameServer.Protocols.values())
+            sb.append(PREFIX).append("requests_total{opcode=\"").append(protocol.name()).append("\"} ")
+                    .append(requests[protocol.getValue()].sum()).append('\n');
+
+        sb.append("# TYPE ").append(PREFIX).append("request_seconds summary\n");
+        for (GameServer.Protocols protocol : GameServer.Protocols.values()) {
+            int op = protocol.getValue();
+            String label = "{opcode=\"" + protocol.name() + "\"";
+            for (double quantile : QUANTILES)
+                sb.append(PREFIX).append("request_seconds").append(label).append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(latencies[op].percentile(quantile) / 1e9).append('\n');
+            sb.append(PREFIX).append("request_seconds_sum").append(label).append("} ").append(requestNanos[op].sum() / 1e9).append('\n');
+            sb.append(PREFIX).append("request_seconds_count").append(label).append("} ").append(requests[op].sum()).append('\n');
+            sb.append(PREFIX).append("request_seconds_max").append(label).append("} ").append(latencies[op].getMax() / 1e9).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void sample(StringBuilder sb, String name, String type, long value) {
+        sb.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+        sb.append(PREFIX).append(name).append(' ').append(value).append('\n');
+    }
+}
@@ -0,0 +1,46 @@
+package picross;
+
+import java.util.Map;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * ServerMetricsMXBean is the JMX view of ServerMetrics, registered as
+ * picross:type=ServerMetrics. Per-opcode values are keyed by the name
+ * of the opcode (See GameServer.Protocols) and show up as tables in
+ * JConsole or VisualVM.
+ */
+public interface ServerMetricsMXBean {
+
+    long getConnectionsOpen();
+
+    long getConnectionsAccepted();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    long getMalformedRequests();
+
+    long getMessagesDropped();
+
+    long getMessagesCoalesced();
+
+    long getSlowClientsClosed();
+
+    int getWorkerQueueDepth();
+
+    int getWorkersBusy();
+
+    int getRooms();
+
+    Map<String, Long> getRequestCounts();
+
+    Map<String, Double> getLatencyP50Micros();
+
+    Map<String, Double> getLatencyP99Micros();
+
+    Map<String, Double> getLatencyMaxMicros();
+}
@@ -0,0 +1,758 @@
+package picross;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static picross.GameServer.PROTOCOL_SEP;
+import static picross.GameServer.REQUEST_SEP;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * ServerProtocol holds the server's shared state (the game rooms and
+ * each client's record) and acts on the datagrams sent by clients
+ * (See genDatagram() in GameClient), or the frames that replace them
+ * once a client negotiates version 2 (See Frame). It has no Swing or socket
+ * dependency; engines feed it lines and frames and it replies through the
+ * client's ClientConnection. Every method may be called from any
+ * number of threads at once.
+ *
+ * Each client is in one room at a time, starting in the lobby, and every
+ * request about a puzzle is answered from the puzzle of the client's
+ * room, on that room's shard (See Rooms).
+ *
+ * On shutdown the server drains its clients (See drain()): it stops
+ * taking requests, lets the ones already being handled reply, then says
+ * goodbye to every client with an END_GAME message of its own and waits
+ * for their connections to close.
+ */
+public class ServerProtocol {
+
+    /* ---------------------- Constants -------------------- */
+
+    protected static final int MAX_SOLVED_CONFIGS = 4096;
+    protected static final String BROADCAST_ID = "*"; //Stands in for the clientID of pushed lines
+    protected static final long BROADCAST_HANDLE = 0;
+    protected static final int DEFAULT_WORKERS = Integer.getInteger("picross.server.workers", Runtime.getRuntime().availableProcessors());
+    protected static final long DRAIN_TIMEOUT_MILLIS = Long.getLong("picross.server.drainMillis", 5000);
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private final Consumer<String> log;
+    private final AtomicInteger numOfClients;
+    private final Set<ClientConnection> clients;
+    private final AtomicInteger inFlight; //Requests dispatched but not yet answered
+    private final PlayerStore players;
+    private final Map<Long, PicrossSolver.Result> solvedConfigs;
+    private final ThreadPoolExecutor workers;
+    private final ServerMetrics metrics;
+    private final Set<ClientConnection> subscribed; //Clients wanting pushes, in whichever room they are
+    private final Rooms rooms;
+
+    private volatile boolean draining;
+    private volatile boolean finalizeBox;
+    private volatile Runnable onLastClient;
+
+    /**
+     * @param log Receives every event worth reporting, one message at a time
+     * @since 2026-10-18
+     */
+    public ServerProtocol(Consumer<String> log) {
+        this.log = log;
+        this.numOfClients = new AtomicInteger();
+        this.clients = ConcurrentHashMap.newKeySet();
+        this.inFlight = new AtomicInteger();
+        this.players = new PlayerStore();
+        this.solvedConfigs = new ConcurrentHashMap<>();
+        this.subscribed = ConcurrentHashMap.newKeySet();
+        this.rooms = new Rooms();
+        this.workers = new ThreadPoolExecutor(DEFAULT_WORKERS, DEFAULT_WORKERS, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread worker = new Thread(runnable, "ServerProtocol-worker");
+            worker.setDaemon(true);
+            return worker;
+        });
+        this.metrics = new ServerMetrics();
+        metrics.setWorkerGauges(() -> workers.getQueue().size(), workers::getActiveCount);
+        metrics.setRoomGauge(rooms::getRoomCount);
+    }
+
+    /* ---------------------- Connection Events -------------------- */
+
+    /**
+     * @param client The newly connected client
+     * @return Returns the UUID assigned to the client
+     * @since 2026-10-18
+     *
+     * Generates a unique identifier (UUID) for the client, creates its
+     * record, puts it in the lobby and sends the UUID to it. A client
+     * that connects while the server is draining is sent its goodbye
+     * straight after.
+     */
+    public String connect(ClientConnection client) {
+
+        String clientID = String.valueOf(UUID.randomUUID());
+        players.register(clientID);
+        rooms.execute(Rooms.LOBBY, room -> room.add(clientID, client, false));
+        clients.add(client);
+
+        metrics.accepted();
+        log.accept("Current number of clients: " + numOfClients.incrementAndGet() + "\n");
+        client.send(clientID);
+        if (draining)
+            goodbye(client, clientID);
+        return clientID;
+    }
+
+    /**
+     * @param client The client whose connection has closed
+     * @since 2026-10-18
+     *
+     * Releases the client's record (See PlayerStore.disconnect()) however
+     * the connection ended, reports a client that lost messages because
+     * it read too slowly (See OutboundQueue), and ends the server through
+     * the onLastClient callback if finalizeBox is checked and no clients
+     * are left, unless the server is already shutting down.
+     */
+    public void disconnected(ClientConnection client) {
+        String clientID = client.getClientID();
+        clients.remove(client);
+        subscribed.remove(client);
+        players.disconnect(clientID);
+        rooms.execute(rooms.forget(clientID), room -> room.remove(clientID));
+
+        OutboundQueue outbound = client.getOutbound();
+        metrics.closed(outbound);
+        if (outbound.getDropped() > 0 || outbound.getCoalesced() > 0 || outbound.getCloseReason() != null)
+            log.accept("Client " + client.getClientID() + " could not keep up: " + outbound + "\n");
+
+        if (numOfClients.decrementAndGet() == 0 && finalizeBox && !draining) {
+            log.accept("There are no more clients left. Quiting server...\n");
+            Runnable callback = onLastClient;
+            if (callback != null)
+                callback.run();
+        }
+    }
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Request is one decoded datagram or frame. Its payload is copied out
+     * of the engine's buffer, so it can be processed on a worker thread.
+     */
+    private static class Request {
+
+        private final ClientConnection client;
+        private final String clientID; //As assigned by the server, never as sent
+        private final GameServer.Protocols protocol;
+        private final int requestId; //0 if the client did not send one
+        private final String text;   //Payload of a datagram
+        private final byte[] data;   //Payload of a frame
+        private final boolean framed;
+        private final long received; //System.nanoTime() once decoded
+
+        Request(ClientConnection client, String clientID, GameServer.Protocols protocol, int requestId, String text, byte[] data) {
+            this.client = client;
+            this.clientID = clientID;
+            this.protocol = protocol;
+            this.requestId = requestId;
+            this.text = text;
+            this.data = data;
+            this.framed = (data != null);
+            this.received = System.nanoTime();
+        }
+    }
+
+    /**
+     * @param client    The client that sent the message
+     * @param clientMsg One line received from the client
+     * @since 2026-10-18
+     *
+     * Acts on a datagram according to its protocolID. Malformed datagrams,
+     * and datagrams sent under another client's UUID, are reported and
+     * ignored rather than ending the connection.
+     * The protocolID may carry a request ID, ie. clientID#2@17, in which
+     * case the reply echoes it and may overtake earlier requests (See
+     * dispatch()).
+     */
+    public void handle(ClientConnection client, String clientMsg) {
+
+        String[] datagram = clientMsg.split(String.valueOf(PROTOCOL_SEP));
+        String clientID = client.getClientID();
+        GameServer.Protocols protocol;
+        int requestId;
+
+        //The UUID only echoes the one the server assigned, so it is never trusted
+        if (!datagram[0].equals(clientID)) {
+            metrics.malformed();
+            log.accept("Ignoring datagram with the wrong client ID from " + clientID + "\n");
+            return;
+        }
+
+        //Version negotiation (See Frame)
+        if (datagram.length > 2 && datagram[1].equals(Frame.NEGOTIATE)) {
+            negotiate(client, clientID, datagram[2]);
+            return;
+        }
+
+        try {
+            protocol = GameServer.Protocols.values()[Character.getNumericValue(datagram[1].charAt(0))]; //"Casting" protocol id to an enum
+            int sep = datagram[1].indexOf(REQUEST_SEP);
+            requestId = (sep < 0) ? 0 : Integer.parseInt(datagram[1], sep + 1, datagram[1].length(), 10);
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            metrics.malformed();
+            log.accept("Ignoring malformed datagram - " + clientMsg + "\n");
+            return;
+        }
+
+        log.accept(clientMsg);
+        dispatch(new Request(client, clientID, protocol, requestId, (datagram.length > 2) ? datagram[2] : "", null));
+    }
+
+    /**
+     * @param client The client that sent the frame
+     * @param body   One frame without its length field (See Frame). Only
+     *               valid during the call; the engine reuses the buffer
+     * @since 2026-10-18
+     *
+     * Acts on a frame the same way handle() acts on a line. Replies echo
+     * the frame's request ID. Malformed frames are reported and ignored.
+     */
+    public void handleFrame(ClientConnection client, ByteBuffer body) {
+
+        String clientID = client.getClientID();
+        Frame frame;
+        GameServer.Protocols protocol;
+
+        try {
+            frame = Frame.decode(body);
+            protocol = GameServer.Protocols.values()[frame.getOpcode()];
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            metrics.malformed();
+            log.accept("Ignoring malformed frame from " + clientID + " - " + e.getMessage() + "\n");
+            return;
+        }
+
+        if (frame.getHandle() != Frame.handleOf(clientID)) {
+            metrics.malformed();
+            log.accept("Ignoring frame with the wrong client handle from " + clientID + "\n");
+            return;
+        }
+
+        log.accept(clientID + PROTOCOL_SEP + protocol.getValue() + " (frame " + frame.getRequestId() + ", " + frame.getPayload().remaining() + " bytes)\n");
+        dispatch(new Request(client, clientID, protocol, frame.getRequestId(), null, frame.getBytes()));
+    }
+
+    /**
+     * @param request A decoded request
+     * @since 2026-10-18
+     *
+     * Sends the request to the shard of the client's room, where it is
+     * answered in turn with every other request about that room. Joining
+     * and leaving take effect here, before the request is queued, so the
+     * requests that follow go to the new room.
+     *
+     * SEND_GAME and SEND_DATA first do their own work (solving or scoring)
+     * without holding up the room. Without a request ID, that work is done
+     * on the connection's thread, so requests are answered in the order
+     * they were sent, as older clients expect. With one, it is handed to
+     * the worker pool, so a client can pipeline requests and the
+     * connection's thread goes straight back to reading; their replies may
+     * come back in any order. Replies from different rooms are never
+     * ordered with respect to each other.
+     *
+     * Once the server is draining, every request but END_GAME is ignored;
+     * the client is about to be sent its goodbye.
+     */
+    private void dispatch(Request request) {
+        String clientID = request.client.getClientID();
+
+        //Counted before checking, so drain() cannot miss a request that slips past the check
+        inFlight.incrementAndGet();
+        if (draining && request.protocol != GameServer.Protocols.END_GAME) {
+            inFlight.decrementAndGet();
+            return;
+        }
+
+        switch (request.protocol) {
+            case JOIN -> {
+                String name;
+                try {
+                    name = Rooms.checkName(request.framed ? new String(request.data, StandardCharsets.UTF_8) : request.text);
+                } catch (IllegalArgumentException iae) {
+                    String status = "Room not joined: " + iae.getMessage();
+                    onRoom(request, rooms.roomOf(clientID), room -> reply(request, status, null));
+                    return;
+                }
+                move(request, rooms.move(clientID, name), name);
+            }
+            case LEAVE -> move(request, rooms.move(clientID, Rooms.LOBBY), Rooms.LOBBY);
+            case END_GAME -> onRoom(request, rooms.forget(clientID), room -> endGame(request, room));
+            case SUBSCRIBE -> {
+                boolean subscribe = request.framed ? (request.data.length == 0 || request.data[0] != 0) : !request.text.equals("0");
+                if (subscribe)
+                    subscribed.add(request.client);
+                else
+                    subscribed.remove(request.client);
+                onRoom(request, rooms.roomOf(clientID), room -> subscribe(request, room, subscribe));
+            }
+            case RECEIVE_GAME -> onRoom(request, rooms.roomOf(clientID), room -> receiveGame(request, room));
+            case SEND_GAME, SEND_DATA -> {
+                String name = rooms.roomOf(clientID);
+                Runnable work = (request.protocol == GameServer.Protocols.SEND_GAME) ? () -> sendGame(request, name) : () -> sendData(request, name);
+                if (request.requestId == 0) {
+                    work.run();
+                    return;
+                }
+
+                try {
+                    workers.execute(work);
+                } catch (RejectedExecutionException ree) {
+                    work.run(); //Shutting down, work on the caller's thread instead
+                }
+            }
+        }
+    }
+
+    /**
+     * @param request The request being answered
+     * @param name    Room to answer it in
+     * @param task    Answers the request on the room's shard
+     * @since 2026-10-18
+     */
+    private void onRoom(Request request, String name, Consumer<Room> task) {
+        boolean queued = rooms.execute(name, room -> {
+            try {
+                task.accept(room);
+            } finally {
+                inFlight.decrementAndGet();
+                metrics.handled(request.protocol, System.nanoTime() - request.received);
+            }
+        });
+        if (!queued)
+            inFlight.decrementAndGet(); //Shut down, dropped unanswered
+    }
+
+    /**
+     * @param request JOIN or LEAVE
+     * @param from    Room the client was in
+     * @param to      Room the client is now in
+     * @since 2026-10-18
+     *
+     * Takes the client out of one room on its shard and adds it to the
+     * other on its own. A subscribed client stays subscribed and is sent
+     * the puzzle of the room it joins, if it has one.
+     */
+    private void move(Request request, String from, String to) {
+        ClientConnection client = request.client;
+        String clientID = client.getClientID();
+        boolean subscribe = subscribed.contains(client);
+
+        if (!from.equals(to))
+            rooms.execute(from, room -> room.remove(clientID));
+
+        onRoom(request, to, room -> {
+            room.add(clientID, client, subscribe);
+
+            String status;
+            if (room.isLobby())
+                status = from.equals(to) ? "Not in a room" : "Left room " + from;
+            else
+                status = "Joined room " + to + " (" + room.size() + ((room.size() == 1) ? " player)" : " players)");
+            reply(request, status, null);
+
+            if (subscribe && room.getConfig() != null)
+                broadcast(room.getConfig(), List.of(client));
+            log.accept("Client " + clientID + ": " + status + " (" + rooms.getRoomCount() + " rooms)\n");
+        });
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Takes the client out of its room and closes the connection once
+     * the goodbye message has been sent. Its record is released once the
+     * connection has closed (See disconnected()).
+     */
+    private void endGame(Request request, Room room) {
+        log.accept("(Client: Initiated a disconnection request...)\n");
+        subscribed.remove(request.client);
+        room.remove(request.client.getClientID());
+
+        String goodbye = "Disconnected from host: " + request.client.getLocalAddress() + "\n";
+        if (request.framed)
+            reply(request, goodbye, null);
+        else
+            request.client.send(goodbye);
+        request.client.close();
+        log.accept("Disconnected from client " + request.clientID + "\n");
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Pushes every new puzzle of the room to the client until it
+     * unsubscribes. Answers with the room's current puzzle, on the room's
+     * shard, so no push can slip in before it.
+     */
+    private void subscribe(Request request, Room room, boolean subscribe) {
+        room.setSubscribed(request.client, subscribe);
+
+        byte[] encoded = room.getConfig();
+        reply(request, (!subscribe || encoded == null) ? "" : PuzzleCodec.toText(encoded), subscribe ? encoded : null);
+        log.accept("Client " + request.clientID + (subscribe ? " subscribed" : " unsubscribed") + " (" + room.getSubscribers().size() + " subscribers in " + room + ")\n");
+    }
+
+    private void receiveGame(Request request, Room room) {
+        log.accept("(Client: Requesting configuration string)\n");
+        log.accept("Sending sequence to client...\n");
+
+        byte[] encoded = room.getConfig();
+        reply(request, (encoded == null) ? "" : PuzzleCodec.toText(encoded), encoded);
+        log.accept("Sequence sent");
+    }
+
+    /**
+     * @param request SEND_GAME
+     * @param name    Room the client was in when it sent the puzzle
+     * @since 2026-10-18
+     *
+     * Decodes and solves the puzzle, then saves it as the room's puzzle
+     * and pushes it to the room's subscribers on the room's shard.
+     * Accepts both the encoded form and plain '0'/'1' strings from older
+     * clients.
+     */
+    private void sendGame(Request request, String name) {
+        byte[] encoded;
+        long fingerprint;
+        try {
+            if (!request.framed)
+                log.accept("(Client: Sent configuration string - " + request.text + ")\n");
+            PackedBoard board = request.framed ? PuzzleCodec.decode(request.data) : PuzzleCodec.decodeText(request.text);
+
+            log.accept("Saving configuration...\n");
+            fingerprint = board.fingerprint();
+            checkConfig(board, fingerprint);
+            encoded = PuzzleCodec.encode(board);
+        } catch (IllegalArgumentException iae) {
+            String status = "Configuration not saved: " + iae.getMessage();
+            onRoom(request, name, room -> status(request, status));
+            return;
+        }
+
+        onRoom(request, name, room -> {
+            if (!room.contains(request.client.getClientID())) {
+                status(request, "Configuration not saved: no longer in " + room);
+                return;
+            }
+
+            if (room.setConfig(encoded, fingerprint))
+                log.accept("Configuration is identical to the one already saved\n");
+            broadcast(encoded, room.getSubscribers());
+            status(request, "Configuration saved" + (room.isLobby() ? "" : " in " + room) + " (" + encoded.length + " bytes)");
+        });
+    }
+
+    /**
+     * @param request SEND_DATA
+     * @param name    Room the client was in when it sent the score
+     * @since 2026-10-18
+     *
+     * Updates the data stored for the user eg. name, score, and time, then
+     * ranks it among the players of the room on the room's shard. Players
+     * in the lobby are ranked among every player on the server.
+     */
+    private void sendData(Request request, String name) {
+        if (!request.framed)
+            log.accept("(Client: Sent game data - " + request.text + ")\n");
+        log.accept("Saving data...\n");
+
+        PlayerRecord record;
+        try {
+            record = request.framed ? players.submitScore(request.clientID, ByteBuffer.wrap(request.data)) : players.submitScore(request.clientID, request.text);
+        } catch (IllegalArgumentException iae) {
+            String status = "Data not saved: " + iae.getMessage();
+            onRoom(request, name, room -> status(request, status));
+            return;
+        }
+
+        onRoom(request, name, room -> {
+            if (record == null) {
+                status(request, "Data not saved: unknown client " + request.clientID);
+                return;
+            }
+
+            room.scored(record);
+            Leaderboard leaderboard = room.isLobby() ? players.getLeaderboard() : room.getLeaderboard();
+            status(request, "Data saved (rank " + leaderboard.rank(record) + " of " + leaderboard.size(record.getDimension())
+                    + (room.isLobby() ? ")" : " in " + room + ")"));
+        });
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Reports the outcome of SEND_GAME or SEND_DATA, and answers with it
+     * if the client sent a request ID.
+     */
+    private void status(Request request, String status) {
+        log.accept(status + "\n");
+        if (request.requestId != 0)
+            reply(request, status, null);
+    }
+
+    /**
+     * @param request The request being answered
+     * @param text    Payload of the reply as text
+     * @param data    Payload of the reply as a frame, or null to send the text
+     * @since 2026-10-18
+     *
+     * Answers with the request's own opcode and request ID, as a frame or
+     * as clientID#opcode[@requestId]#text, whichever the request was.
+     */
+    private void reply(Request request, String text, byte[] data) {
+        int opcode = request.protocol.getValue();
+
+        if (request.framed) {
+            ByteBuffer payload = (data != null) ? ByteBuffer.wrap(data) : (text.isEmpty() ? null : Frame.text(text));
+            request.client.sendFrame(Frame.encode(opcode, request.requestId, Frame.handleOf(request.clientID), payload));
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(request.clientID).append(PROTOCOL_SEP).append(opcode);
+        if (request.requestId != 0)
+            sb.append(REQUEST_SEP).append(request.requestId);
+        sb.append(PROTOCOL_SEP).append(text);
+        request.client.send(sb.toString());
+    }
+
+    /**
+     * @param client    The client asking to change protocol
+     * @param clientID  UUID of the client
+     * @param requested Highest version the client supports
+     * @since 2026-10-18
+     *
+     * Answers with the highest version both sides support, and switches
+     * the connection to frames if that is version 2 or later.
+     */
+    private void negotiate(ClientConnection client, String clientID, String requested) {
+        int version;
+        try {
+            version = Math.max(Frame.TEXT_VERSION, Math.min(Frame.VERSION, Integer.parseInt(requested.trim())));
+        } catch (NumberFormatException nfe) {
+            version = Frame.TEXT_VERSION;
+        }
+
+        client.send(clientID + PROTOCOL_SEP + Frame.NEGOTIATE + PROTOCOL_SEP + version);
+        if (version >= Frame.VERSION)
+            client.upgrade(version);
+        log.accept("Client " + clientID + " is using protocol version " + version + "\n");
+    }
+
+    /**
+     * @param encoded     A room's new configuration (See PuzzleCodec)
+     * @param subscribers Clients to push it to
+     * @since 2026-10-18
+     *
+     * Pushes the configuration to every subscriber as a SUBSCRIBE message
+     * with no request ID. The message is encoded once per protocol
+     * version and the same bytes are shared by every connection. Sending
+     * never blocks, and a subscriber that has not taken the previous
+     * push yet only gets this one (See ClientConnection.sendLatest()).
+     * Called on the room's shard, so pushes go out in the order the
+     * configurations were saved.
+     */
+    private void broadcast(byte[] encoded, Collection<ClientConnection> subscribers) {
+        if (subscribers.isEmpty())
+            return;
+
+        int opcode = GameClient.Protocols.SUBSCRIBE.getValue();
+        ByteBuffer line = null;
+        ByteBuffer frame = null;
+
+        for (ClientConnection subscriber : subscribers) {
+            if (subscriber.getVersion() >= Frame.VERSION) {
+                if (frame == null)
+                    frame = Frame.encode(opcode, 0, BROADCAST_HANDLE, ByteBuffer.wrap(encoded));
+                subscriber.sendLatest(frame);
+            } else {
+                if (line == null)
+                    line = Frame.text(BROADCAST_ID + PROTOCOL_SEP + opcode + PROTOCOL_SEP + PuzzleCodec.toText(encoded) + "\n");
+                subscriber.sendLatest(line);
+            }
+        }
+        log.accept("Pushed configuration to " + subscribers.size() + " subscribers\n");
+    }
+
+    /**
+     * @param board       Configuration submitted by a client
+     * @param fingerprint Fingerprint of the configuration
+     * @since 2026-10-18
+     *
+     * Reports whether the solution of a submitted configuration is
+     * unique. Solver results are cached by hint fingerprint, so a puzzle
+     * that is submitted again, to any room, is never re-solved.
+     */
+    private void checkConfig(PackedBoard board, long fingerprint) {
+
+        log.accept("Configuration fingerprint: " + Fingerprint.toHex(fingerprint) + "\n");
+
+        HintEngine hints = new HintEngine();
+        hints.compute(board);
+
+        //Start over rather than let the cache grow with every submission
+        if (solvedConfigs.size() >= MAX_SOLVED_CONFIGS)
+            solvedConfigs.clear();
+
+        long hintFingerprint = Fingerprint.of(hints);
+        PicrossSolver.Result result = solvedConfigs.get(hintFingerprint);
+        if (result == null) {
+            result = new PicrossSolver(board.getDimension()).solve(hints);
+            solvedConfigs.put(hintFingerprint, result);
+        } else {
+            log.accept("Puzzle has been submitted before\n");
+        }
+
+        log.accept((result == PicrossSolver.Result.SOLVED) ? "Puzzle has a unique solution\n" : "Puzzle may have more than one solution\n");
+    }
+
+    /**
+     * @param store Store opened on the scores of an earlier run
+     * @since 2026-10-18
+     *
+     * Restores the players and leaderboards saved in the store, up to
+     * PlayerStore.RETAINED_PER_BOARD per board, then saves every later
+     * score and removal to it.
+     */
+    public void attachScoreStore(ScoreStore store) {
+        //Attached first, so that records restore() pushes out are dropped from it too
+        players.setScoreStore(store);
+        for (PlayerRecord record : store.getRecovered())
+            players.restore(record);
+
+        log.accept("Restored " + players.size() + " of " + store.getRecovered().size() + " scores from " + store.getFile() + "\n");
+    }
+
+    /**
+     * @param timeoutMillis Longest time to wait for the clients to go
+     * @return Returns true if every client was gone before the timeout
+     * @since 2026-10-18
+     *
+     * Stops taking requests, waits for the ones already dispatched to be
+     * answered, then sends every client a goodbye and closes its
+     * connection once its pending replies have been written. Meant to be
+     * called after the engine stops accepting (See
+     * ServerEngine.stopAccepting()) and before it stops; whatever is left
+     * at the timeout is closed by ServerEngine.stop().
+     */
+    public boolean drain(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        draining = true;
+        log.accept("Draining " + clients.size() + " clients...\n");
+
+        //Let requests already being handled queue their replies ahead of the goodbye
+        while (inFlight.get() > 0 && System.nanoTime() - deadline < 0)
+            LockSupport.parkNanos(DRAIN_POLL_NANOS);
+
+        for (ClientConnection client : clients)
+            goodbye(client, client.getClientID());
+
+        while (!clients.isEmpty() && System.nanoTime() - deadline < 0)
+            LockSupport.parkNanos(DRAIN_POLL_NANOS);
+
+        if (!clients.isEmpty()) {
+            log.accept(clients.size() + " clients still connected after " + timeoutMillis + " ms, closing them\n");
+            return false;
+        }
+        log.accept("Every client has been disconnected\n");
+        return true;
+    }
+
+    /**
+     * @param client   A connected client
+     * @param clientID UUID of the client
+     * @since 2026-10-18
+     *
+     * Sends the client an END_GAME message with no request ID, which
+     * tells it the server is going away, then closes the connection.
+     */
+    private void goodbye(ClientConnection client, String clientID) {
+        int opcode = GameServer.Protocols.END_GAME.getValue();
+        String goodbye = "Server is shutting down. Disconnected from host: " + client.getLocalAddress();
+
+        if (client.getVersion() >= Frame.VERSION)
+            client.sendFrame(Frame.encode(opcode, 0, Frame.handleOf(clientID), Frame.text(goodbye)));
+        else
+            client.send(clientID + PROTOCOL_SEP + opcode + PROTOCOL_SEP + goodbye);
+        client.close();
+    }
+
+    /**
+     * @since 2026-10-18
+     *
+     * Stops the worker pool and the room shards. Requests still queued
+     * are processed first; later ones are processed on the connection's
+     * own thread.
+     */
+    public void shutdown() {
+        workers.shutdown();
+        rooms.shutdown();
+    }
+
+    /* ---------------------- Getters/Setters -------------------- */
+
+    public PlayerStore getPlayers() {
+        return players;
+    }
+
+    public Rooms getRooms() {
+        return rooms;
+    }
+
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getNumOfClients() {
+        return numOfClients.get();
+    }
+
+    public void setFinalizeBox(boolean finalizeBox) {
+        this.finalizeBox = finalizeBox;
+    }
+
+    public boolean isFinalizeBox() {
+        return finalizeBox;
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * @param onLastClient Called on the disconnecting client's thread
+     * when finalizeBox is checked and the last client leaves
+     * @since 2026-10-18
+     */
+    public void setOnLastClient(Runnable onLastClient) {
+        this.onLastClient = onLastClient;
+    }
+}
@@ -4,8 +4,8 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
 
-import static picross.Game.MIN_WIN_HEIGHT;
-import static picross.Game.MIN_WIN_WIDTH;
+import static picross.Game.Screen.MIN_WIN_HEIGHT;
+import static picross.Game.Screen.MIN_WIN_WIDTH;
 
 public class SplashThread extends Thread {
 
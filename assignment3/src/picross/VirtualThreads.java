@@ -0,0 +1,71 @@
+package picross;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * VirtualThreads gives access to virtual threads (Java 21 and later)
+ * while the game itself still builds and runs on Java 17. The JDK
+ * methods are looked up reflectively; on an older JVM factory()
+ * returns null and newExecutor() falls back to a cached pool of
+ * platform threads.
+ */
+public class VirtualThreads {
+
+    /* ---------------------- Constants -------------------- */
+
+    private static final ThreadFactory FACTORY = lookupFactory();
+
+    private VirtualThreads() {
+    }
+
+    private static ThreadFactory lookupFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null; //Not available on this JVM
+        }
+    }
+
+    /**
+     * @return Returns true if this JVM supports virtual threads
+     * @since 2026-10-18
+     */
+    public static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    /**
+     * @return Returns a factory of virtual threads, or null if this JVM has none
+     * @since 2026-10-18
+     */
+    public static ThreadFactory factory() {
+        return FACTORY;
+    }
+
+    /**
+     * @return Returns an executor that runs every task on its own virtual
+     * thread, or a cached pool of platform threads if this JVM has none
+     * @since 2026-10-18
+     *
+     * Meant for blocking work, such as the ScoreStore's writes.
+     */
+    public static ExecutorService newExecutor() {
+        if (FACTORY != null) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                //Fall through to platform threads
+            }
+        }
+        return Executors.newCachedThreadPool();
+    }
+}
@@ -0,0 +1,130 @@
+package picross;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * ConfigParserTest checks that every parse() overload builds the same
+ * board as setting the cells one by one, for plain and comma-decorated
+ * configs, on both sides of a word boundary, and that malformed configs
+ * are rejected. Run it with the compiled sources on the classpath:
+ *   java -cp out:test-out picross.ConfigParserTest
+ * It exits with status 1 if any check fails.
+ */
+public class ConfigParserTest {
+
+    /* ---------------------- Constants -------------------- */
+
+    private static final int[] DIMENSIONS = {1, 2, 3, 8, 63, 64, 65, 130};
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        run("parses every source alike", ConfigParserTest::parsesEverySourceAlike);
+        run("skips separators", ConfigParserTest::skipsSeparators);
+        run("infers the dimension", ConfigParserTest::infersDimension);
+        run("overwrites the destination", ConfigParserTest::overwritesDestination);
+        run("rejects malformed configs", ConfigParserTest::rejectsMalformedConfigs);
+
+        System.out.println((failures == 0) ? "ConfigParserTest passed" : "ConfigParserTest: " + failures + " failed");
+        System.exit((failures == 0) ? 0 : 1);
+    }
+
+    /* ---------------------- Parsing -------------------- */
+
+    private static void parsesEverySourceAlike() {
+        Random random = new Random(17);
+
+        for (int dimension : DIMENSIONS) {
+            PackedBoard expected = new PackedBoard(dimension);
+            for (int y = 0; y < dimension; y++)
+                for (int x = 0; x < dimension; x++)
+                    expected.set(x, y, random.nextBoolean());
+
+            String config = expected.toString();
+            byte[] bytes = ("xx" + config + "yy").getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, config.length());
+
+            PackedBoard fromBytes = new PackedBoard(dimension);
+            ConfigParser.parse(bytes, 2, config.length(), fromBytes);
+            PackedBoard fromBuffer = new PackedBoard(dimension);
+            ConfigParser.parse(buffer, fromBuffer);
+
+            check(expected.equals(ConfigParser.parse(config)), dimension + "x" + dimension + " from a string");
+            check(expected.equals(ConfigParser.parse(config, dimension)), dimension + "x" + dimension + " with its dimension");
+            check(expected.equals(fromBytes), dimension + "x" + dimension + " from bytes");
+            check(expected.equals(fromBuffer), dimension + "x" + dimension + " from a buffer");
+            check(buffer.position() == buffer.limit(), "the buffer is consumed");
+        }
+    }
+
+    private static void skipsSeparators() {
+        PackedBoard expected = ConfigParser.parse("101010111");
+
+        check(expected.equals(ConfigParser.parse("101,010,111")), "commas");
+        check(expected.equals(ConfigParser.parse("101,010,111,")), "a trailing comma");
+        check(expected.equals(ConfigParser.parse(" 1 0 1\r\n010\t111\n", 3)), "whitespace");
+    }
+
+    private static void infersDimension() {
+        check(ConfigParser.inferDimension("1010,0101,1010,0101") == 4, "from the first comma");
+        check(ConfigParser.inferDimension("1010010110100101") == 4, "from the length");
+        check(ConfigParser.inferDimension("") == 0, "of an empty config");
+    }
+
+    private static void overwritesDestination() {
+        PackedBoard dest = ConfigParser.parse("1111111111111111");
+        ConfigParser.parse("1000,0100,0010,0001", dest);
+
+        check(dest.toString().equals("1000010000100001"), "cells were " + dest);
+        check(dest.popCount() == 4, "no cells are left over");
+    }
+
+    /* ---------------------- Malformed Input -------------------- */
+
+    private static void rejectsMalformedConfigs() {
+        expectRejected("an unexpected character", "101,0x0,111", 3);
+        expectRejected("too many cells", "101,010,1110", 3);
+        expectRejected("too few cells", "101,010,11", 3);
+        expectRejected("an empty config for a 1x1 board", "", 1);
+        expectRejected("a config that is not square", "10101", -1);
+    }
+
+    /* ---------------------- Helpers -------------------- */
+
+    /**
+     * @param dimension Dimension of the board, or -1 to infer it
+     */
+    private static void expectRejected(String label, String config, int dimension) {
+        try {
+            if (dimension < 0)
+                ConfigParser.parse(config);
+            else
+                ConfigParser.parse(config, dimension);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        throw new AssertionError(label + " was accepted");
+    }
+
+    private static void check(boolean condition, String label) {
+        if (!condition)
+            throw new AssertionError(label);
+    }
+
+    private static void run(String name, Runnable test) {
+        try {
+            test.run();
+        } catch (AssertionError | RuntimeException e) {
+            failures++;
+            System.out.println("FAILED " + name + ": " + e);
+        }
+    }
+}
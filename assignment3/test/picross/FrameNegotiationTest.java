@@ -0,0 +1,211 @@
+package picross;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static picross.GameServer.PROTOCOL_SEP;
+import static picross.GameServer.REQUEST_SEP;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * FrameNegotiationTest starts each server engine on a loopback port and
+ * negotiates the protocol version the way GameClient does (See Frame):
+ * the client that asks for frames gets them straight after the answer,
+ * even when its first frame arrives in the same packet as the request,
+ * and a client that asks for anything else stays on text. Run it with
+ * the compiled sources on the classpath:
+ *   java -cp out:test-out picross.FrameNegotiationTest
+ * It exits with status 1 if any check fails.
+ */
+public class FrameNegotiationTest {
+
+    /* ---------------------- Constants -------------------- */
+
+    private static final String[] ENGINES = {BlockingServerEngine.NAME, BlockingServerEngine.VIRTUAL_NAME, NioServerEngine.NAME};
+    private static final int TIMEOUT_MILLIS = 5000;
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private static int failures;
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * Client is one test connection. It reads lines and frames from the
+     * same buffered stream, as GameClient does.
+     */
+    private static class Client implements AutoCloseable {
+
+        private final Socket socket;
+        private final DataInputStream in;
+        private final OutputStream out;
+        private final String clientID;
+        private final long handle;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = socket.getOutputStream();
+            clientID = Frame.readLine(in);
+            handle = Frame.handleOf(clientID);
+        }
+
+        String negotiation(String version) {
+            return clientID + PROTOCOL_SEP + Frame.NEGOTIATE + PROTOCOL_SEP + version + "\n";
+        }
+
+        ByteBuffer frame(GameServer.Protocols protocol, int requestId, ByteBuffer payload) {
+            return Frame.encode(protocol.getValue(), requestId, handle, payload);
+        }
+
+        void write(Object... parts) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            for (Object part : parts) {
+                if (part instanceof ByteBuffer) {
+                    ByteBuffer buffer = ((ByteBuffer) part).duplicate();
+                    byte[] array = new byte[buffer.remaining()];
+                    buffer.get(array);
+                    bytes.write(array);
+                } else {
+                    bytes.write(part.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            out.write(bytes.toByteArray()); //One write, so the parts tend to arrive together
+            out.flush();
+        }
+
+        String readLine() throws IOException {
+            return Frame.readLine(in);
+        }
+
+        Frame readFrame() throws IOException {
+            ByteBuffer body = Frame.read(in);
+            check(body != null, "the server closed the connection");
+            return Frame.decode(body);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * NegotiationTest is a test case run against one started engine.
+     */
+    private interface NegotiationTest {
+        void run(int port) throws Exception;
+    }
+
+    public static void main(String[] args) {
+        for (String engine : ENGINES) {
+            run(engine, "switches to frames", FrameNegotiationTest::switchesToFrames);
+            run(engine, "reads a frame sent with the request", FrameNegotiationTest::readsPipelinedFrame);
+            run(engine, "ignores frames with another handle", FrameNegotiationTest::ignoresOtherHandles);
+            run(engine, "stays on text", FrameNegotiationTest::staysOnText);
+        }
+
+        System.out.println((failures == 0) ? "FrameNegotiationTest passed" : "FrameNegotiationTest: " + failures + " failed");
+        System.exit((failures == 0) ? 0 : 1);
+    }
+
+    /* ---------------------- Negotiation -------------------- */
+
+    private static void switchesToFrames(int port) throws Exception {
+        PackedBoard board = ConfigParser.parse("10110,01001,11100,00111,10101");
+
+        try (Client client = new Client(port)) {
+            client.write(client.negotiation(String.valueOf(Frame.VERSION)));
+            check(client.negotiation(String.valueOf(Frame.VERSION)).trim().equals(client.readLine()), "answered with version 2");
+
+            client.write(client.frame(GameServer.Protocols.SEND_GAME, 7, ByteBuffer.wrap(PuzzleCodec.encode(board))));
+            Frame saved = client.readFrame();
+            check(saved.getRequestId() == 7 && saved.getHandle() == client.handle, "SEND_GAME reply echoes the request");
+            check(saved.getText().startsWith("Configuration saved"), "SEND_GAME reply was " + saved.getText());
+
+            client.write(client.frame(GameServer.Protocols.RECEIVE_GAME, 8, null));
+            Frame received = client.readFrame();
+            check(received.getOpcode() == GameServer.Protocols.RECEIVE_GAME.getValue() && received.getRequestId() == 8, "RECEIVE_GAME reply");
+            check(board.equals(PuzzleCodec.decode(received.getBytes())), "the saved puzzle comes back");
+        }
+    }
+
+    /*
+     * The frame follows the request line in the same write, so the engine
+     * must not have consumed it as text before switching.
+     */
+    private static void readsPipelinedFrame(int port) throws Exception {
+        try (Client client = new Client(port)) {
+            client.write(client.negotiation("9"), client.frame(GameServer.Protocols.JOIN, 3, Frame.text("pipelined")));
+
+            check(client.negotiation(String.valueOf(Frame.VERSION)).trim().equals(client.readLine()), "a newer version is answered with 2");
+            Frame joined = client.readFrame();
+            check(joined.getRequestId() == 3 && joined.getText().startsWith("Joined room pipelined"), "JOIN reply was " + joined.getText());
+        }
+    }
+
+    private static void ignoresOtherHandles(int port) throws Exception {
+        try (Client client = new Client(port)) {
+            client.write(client.negotiation(String.valueOf(Frame.VERSION)));
+            client.readLine();
+
+            client.write(Frame.encode(GameServer.Protocols.LEAVE.getValue(), 1, client.handle + 1, null),
+                    client.frame(GameServer.Protocols.LEAVE, 2, null));
+            Frame left = client.readFrame();
+            check(left.getRequestId() == 2, "only the frame with the right handle is answered, got request " + left.getRequestId());
+        }
+    }
+
+    private static void staysOnText(int port) throws Exception {
+        for (String version : new String[]{"1", "0", "-3", "two"}) {
+            try (Client client = new Client(port)) {
+                client.write(client.negotiation(version));
+                check(client.negotiation(String.valueOf(Frame.TEXT_VERSION)).trim().equals(client.readLine()), "version " + version + " is answered with 1");
+
+                client.write(client.clientID + PROTOCOL_SEP + GameServer.Protocols.LEAVE.getValue() + REQUEST_SEP + "4\n");
+                String reply = client.readLine();
+                check(reply.equals(client.clientID + PROTOCOL_SEP + GameServer.Protocols.LEAVE.getValue() + REQUEST_SEP + "4" + PROTOCOL_SEP + "Not in a room"),
+                        "text reply after version " + version + " was " + reply);
+            }
+        }
+    }
+
+    /* ---------------------- Helpers -------------------- */
+
+    private static void check(boolean condition, String label) {
+        if (!condition)
+            throw new AssertionError(label);
+    }
+
+    private static void run(String engineName, String name, NegotiationTest test) {
+        ServerProtocol protocol = new ServerProtocol(line -> { });
+        ServerEngine engine = ServerEngine.create(engineName, protocol);
+        try {
+            engine.start(0);
+            test.run(engine.getLocalPort());
+        } catch (AssertionError | Exception e) {
+            failures++;
+            System.out.println("FAILED " + name + " (" + engineName + "): " + e);
+        } finally {
+            engine.stop();
+            protocol.shutdown();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package picross;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * HintEngineTest checks the one-pass hints against runs counted cell by
+ * cell, for rows and columns, on boards of several dimensions computed
+ * one after another by the same engine. Run it with the compiled sources
+ * on the classpath:
+ *   java -cp out:test-out picross.HintEngineTest
+ * It exits with status 1 if any check fails.
+ */
+public class HintEngineTest {
+
+    /* ---------------------- Constants -------------------- */
+
+    private static final int[] DIMENSIONS = {1, 2, 5, 8, 63, 64, 65, 130, 7};
+    private static final double[] DENSITIES = {0.0, 0.3, 0.5, 0.9, 1.0};
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        run("computes known hints", HintEngineTest::computesKnownHints);
+        run("matches runs counted by cell", HintEngineTest::matchesCountedRuns);
+
+        System.out.println((failures == 0) ? "HintEngineTest passed" : "HintEngineTest: " + failures + " failed");
+        System.exit((failures == 0) ? 0 : 1);
+    }
+
+    /* ---------------------- Hints -------------------- */
+
+    private static void computesKnownHints() {
+        HintEngine hints = new HintEngine();
+        hints.compute(ConfigParser.parse("11011,00000,10101,11111,01110"));
+
+        check(hints.getRowHints().toString().equals("[2, 2][][1, 1, 1][5][3]"), "rows were " + hints.getRowHints());
+        check(hints.getColumnHints().toString().equals("[1, 2][1, 2][3][1, 2][1, 2]"), "columns were " + hints.getColumnHints());
+        check(hints.getRowHints().getRunSum(3) == 5, "sum of a full row");
+        check(hints.getRowHints().getRunCount(1) == 0, "runs of an empty row");
+    }
+
+    /*
+     * One engine sees every board, so storage sized for an earlier
+     * dimension is reused or reallocated along the way.
+     */
+    private static void matchesCountedRuns() {
+        Random random = new Random(23);
+        HintEngine hints = new HintEngine();
+
+        for (int dimension : DIMENSIONS) {
+            for (double density : DENSITIES) {
+                PackedBoard board = new PackedBoard(dimension);
+                for (int y = 0; y < dimension; y++)
+                    for (int x = 0; x < dimension; x++)
+                        board.set(x, y, random.nextDouble() < density);
+
+                hints.compute(board);
+                String label = dimension + "x" + dimension + " at density " + density;
+
+                check(hints.getDimension() == dimension, "dimension of " + label);
+                for (int line = 0; line < dimension; line++) {
+                    checkLine(hints.getRowHints(), line, countRuns(board, line, true), "row " + line + " of " + label);
+                    checkLine(hints.getColumnHints(), line, countRuns(board, line, false), "column " + line + " of " + label);
+                }
+            }
+        }
+    }
+
+    /* ---------------------- Helpers -------------------- */
+
+    private static List<Integer> countRuns(PackedBoard board, int line, boolean isRow) {
+        List<Integer> runs = new ArrayList<>();
+        int run = 0;
+
+        for (int i = 0; i < board.getDimension(); i++) {
+            if (isRow ? board.get(i, line) : board.get(line, i)) {
+                run++;
+            } else if (run > 0) {
+                runs.add(run);
+                run = 0;
+            }
+        }
+        if (run > 0)
+            runs.add(run);
+        return runs;
+    }
+
+    private static void checkLine(HintEngine.Axis axis, int line, List<Integer> expected, String label) {
+        check(axis.getRunCount(line) == expected.size(), label + " has " + axis.getRunCount(line) + " runs, expected " + expected);
+
+        int sum = 0;
+        for (int i = 0; i < expected.size(); i++) {
+            check(axis.getRun(line, i) == expected.get(i), label + " run " + i + " was " + axis.getRun(line, i) + ", expected " + expected);
+            sum += expected.get(i);
+        }
+        check(axis.getRunSum(line) == sum, label + " sums to " + axis.getRunSum(line) + ", expected " + sum);
+    }
+
+    private static void check(boolean condition, String label) {
+        if (!condition)
+            throw new AssertionError(label);
+    }
+
+    private static void run(String name, Runnable test) {
+        try {
+            test.run();
+        } catch (AssertionError | RuntimeException e) {
+            failures++;
+            System.out.println("FAILED " + name + ": " + e);
+        }
+    }
+}
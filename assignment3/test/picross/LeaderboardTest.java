@@ -0,0 +1,205 @@
+package picross;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * LeaderboardTest checks rank() and top() against a plain sort of the
+ * same records, with scores tied, out of the range the Fenwick tree
+ * counts (negative, or more than the number of tiles), and on the
+ * unknown-dimension board. Run it with the compiled sources on the
+ * classpath:
+ *   java -cp out:test-out picross.LeaderboardTest
+ * It exits with status 1 if any check fails.
+ */
+public class LeaderboardTest {
+
+    /* ---------------------- Constants -------------------- */
+
+    private static final int[] DIMENSIONS = {Leaderboard.UNKNOWN_DIMENSION, 3, 5, 100};
+    private static final int RECORDS = 2000;
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        run("ranks ties by time, then client", LeaderboardTest::ranksTies);
+        run("ranks out-of-range scores", LeaderboardTest::ranksOutOfRangeScores);
+        run("matches a sorted list", LeaderboardTest::matchesSortedList);
+        run("moves and removes records", LeaderboardTest::movesAndRemovesRecords);
+        run("ignores records without a score", LeaderboardTest::ignoresUnscoredRecords);
+
+        System.out.println((failures == 0) ? "LeaderboardTest passed" : "LeaderboardTest: " + failures + " failed");
+        System.exit((failures == 0) ? 0 : 1);
+    }
+
+    /* ---------------------- Ranks -------------------- */
+
+    private static void ranksTies() {
+        Leaderboard leaderboard = new Leaderboard();
+        PlayerRecord fast = record("a", 5, 10, 3);
+        PlayerRecord slowB = record("b", 5, 20, 3);
+        PlayerRecord slowC = record("c", 5, 20, 3);
+        PlayerRecord best = record("d", 7, 99, 3);
+        PlayerRecord worst = record("e", 1, 0, 3);
+
+        for (PlayerRecord record : new PlayerRecord[]{slowC, worst, fast, best, slowB})
+            leaderboard.update(null, record);
+
+        check(leaderboard.rank(best) == 1, "highest score first");
+        check(leaderboard.rank(fast) == 2, "faster of a tie first");
+        check(leaderboard.rank(slowB) == 3, "same score and time by client, b");
+        check(leaderboard.rank(slowC) == 4, "same score and time by client, c");
+        check(leaderboard.rank(worst) == 5, "lowest score last");
+        check(leaderboard.top(3, 10).equals(List.of(best, fast, slowB, slowC, worst)), "top() in rank order");
+        check(leaderboard.top(3, 2).equals(List.of(best, fast)), "top() stops at k");
+    }
+
+    private static void ranksOutOfRangeScores() {
+        Leaderboard leaderboard = new Leaderboard();
+
+        //A 3x3 board counts scores 0 to 9
+        PlayerRecord huge = record("a", 50, 1, 3);
+        PlayerRecord above = record("b", 10, 1, 3);
+        PlayerRecord top = record("c", 9, 1, 3);
+        PlayerRecord middle = record("d", 4, 1, 3);
+        PlayerRecord zero = record("e", 0, 1, 3);
+        PlayerRecord negative = record("f", -1, 1, 3);
+        PlayerRecord lowest = record("g", Integer.MIN_VALUE, 1, 3);
+        PlayerRecord highest = record("h", Integer.MAX_VALUE, 1, 3);
+
+        for (PlayerRecord record : new PlayerRecord[]{middle, lowest, zero, top, huge, negative, above, highest})
+            leaderboard.update(null, record);
+
+        check(leaderboard.rank(highest) == 1, "Integer.MAX_VALUE");
+        check(leaderboard.rank(huge) == 2, "score far above the tiles");
+        check(leaderboard.rank(above) == 3, "score just above the tiles");
+        check(leaderboard.rank(top) == 4, "score equal to the tiles");
+        check(leaderboard.rank(middle) == 5, "score in range");
+        check(leaderboard.rank(zero) == 6, "score of zero");
+        check(leaderboard.rank(negative) == 7, "negative score");
+        check(leaderboard.rank(lowest) == 8, "Integer.MIN_VALUE");
+    }
+
+    /*
+     * Random records, with few distinct scores and times so that most
+     * of them tie, and scores on both sides of each board's range.
+     */
+    private static void matchesSortedList() {
+        Random random = new Random(3);
+        Leaderboard leaderboard = new Leaderboard();
+        List<PlayerRecord> records = new ArrayList<>();
+
+        for (int i = 0; i < RECORDS; i++) {
+            int dimension = DIMENSIONS[random.nextInt(DIMENSIONS.length)];
+            int maxScore = (dimension == Leaderboard.UNKNOWN_DIMENSION) ? 64 * 64 : dimension * dimension;
+            int score = random.nextInt(maxScore + 21) - 10;
+
+            PlayerRecord record = record("client-" + i, score, random.nextInt(4), dimension);
+            records.add(record);
+            leaderboard.update(null, record);
+        }
+
+        checkAgainst(leaderboard, records);
+    }
+
+    private static void movesAndRemovesRecords() {
+        Random random = new Random(5);
+        Leaderboard leaderboard = new Leaderboard();
+        List<PlayerRecord> records = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            PlayerRecord record = record("client-" + i, random.nextInt(30) - 5, random.nextInt(3), 5);
+            records.add(record);
+            leaderboard.update(null, record);
+        }
+
+        //A new game replaces the old record, possibly on another board
+        for (int i = 0; i < 100; i++) {
+            PlayerRecord old = records.get(i);
+            PlayerRecord current = old.withGame(old.getName(), random.nextInt(30) - 5, random.nextInt(3), (i % 2 == 0) ? 5 : 3);
+            records.set(i, current);
+            leaderboard.update(old, current);
+        }
+        checkAgainst(leaderboard, records);
+
+        List<PlayerRecord> kept = new ArrayList<>(records);
+        for (int i = 100; i < 150; i++)
+            leaderboard.remove(records.get(i));
+        kept.subList(100, 150).clear();
+        checkAgainst(leaderboard, kept);
+
+        for (PlayerRecord record : records)
+            leaderboard.remove(record);
+        check(leaderboard.getDimensions().isEmpty(), "empty boards are dropped, left " + leaderboard.getDimensions());
+        check(leaderboard.rank(records.get(0)) == -1, "rank of a removed record");
+    }
+
+    private static void ignoresUnscoredRecords() {
+        Leaderboard leaderboard = new Leaderboard();
+        PlayerRecord unscored = new PlayerRecord("a");
+
+        leaderboard.update(null, unscored);
+        check(leaderboard.getDimensions().isEmpty(), "an unscored record makes no board");
+        check(leaderboard.rank(unscored) == -1, "rank of an unscored record");
+        check(leaderboard.rank(null) == -1, "rank of null");
+        check(leaderboard.top(3, 5).isEmpty(), "top() of a missing board");
+    }
+
+    /* ---------------------- Helpers -------------------- */
+
+    private static PlayerRecord record(String clientID, int score, int timeSeconds, int dimension) {
+        return new PlayerRecord(clientID, "player " + clientID, score, timeSeconds, dimension);
+    }
+
+    /**
+     * @param records Every record on the leaderboard
+     *
+     * Sorts each dimension's records, then checks that the board holds
+     * exactly those, in that order, and that each one's rank is its
+     * position in the sorted list.
+     */
+    private static void checkAgainst(Leaderboard leaderboard, List<PlayerRecord> records) {
+        List<Integer> dimensions = new ArrayList<>();
+        for (PlayerRecord record : records)
+            if (!dimensions.contains(record.getDimension()))
+                dimensions.add(record.getDimension());
+        check(leaderboard.getDimensions().containsAll(dimensions) && dimensions.containsAll(leaderboard.getDimensions()),
+                "boards " + leaderboard.getDimensions() + ", expected " + dimensions);
+
+        for (int dimension : dimensions) {
+            List<PlayerRecord> board = new ArrayList<>();
+            for (PlayerRecord record : records)
+                if (record.getDimension() == dimension)
+                    board.add(record);
+            board.sort(Leaderboard::compare);
+
+            check(leaderboard.size(dimension) == board.size(), "size of board " + dimension);
+            check(leaderboard.top(dimension, board.size()).equals(board), "top() of board " + dimension);
+            for (int i = 0; i < board.size(); i++) {
+                int rank = leaderboard.rank(board.get(i));
+                check(rank == i + 1, board.get(i) + " ranked " + rank + ", expected " + (i + 1));
+            }
+        }
+    }
+
+    private static void check(boolean condition, String label) {
+        if (!condition)
+            throw new AssertionError(label);
+    }
+
+    private static void run(String name, Runnable test) {
+        try {
+            test.run();
+        } catch (AssertionError | RuntimeException e) {
+            failures++;
+            System.out.println("FAILED " + name + ": " + e);
+        }
+    }
+}
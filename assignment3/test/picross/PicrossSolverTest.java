@@ -0,0 +1,173 @@
+package picross;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * PicrossSolverTest checks the solver's results, and above all that
+ * SOLVED really does mean the hints have only one solution. Every board
+ * of the smallest dimensions is enumerated, so the number of boards that
+ * share each set of hints is known exactly. Run it with the compiled
+ * sources on the classpath:
+ *   java -cp out:test-out picross.PicrossSolverTest
+ * It exits with status 1 if any check fails.
+ */
+public class PicrossSolverTest {
+
+    /* ---------------------- Constants -------------------- */
+
+    private static final int MAX_EXHAUSTIVE_DIMENSION = 4; //2^16 boards
+    private static final int MIN_GENERATED_DIMENSION = 3;
+    private static final int MAX_GENERATED_DIMENSION = 8;
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        run("solves unique puzzles", PicrossSolverTest::solvesUniquePuzzles);
+        run("stalls on ambiguous puzzles", PicrossSolverTest::stallsOnAmbiguousPuzzles);
+        run("finds contradictions", PicrossSolverTest::findsContradictions);
+        run("solves only unique puzzles", PicrossSolverTest::solvesOnlyUniquePuzzles);
+        run("solves generated puzzles", PicrossSolverTest::solvesGeneratedPuzzles);
+        run("rejects hints of another dimension", PicrossSolverTest::rejectsOtherDimensions);
+
+        System.out.println((failures == 0) ? "PicrossSolverTest passed" : "PicrossSolverTest: " + failures + " failed");
+        System.exit((failures == 0) ? 0 : 1);
+    }
+
+    /* ---------------------- Results -------------------- */
+
+    private static void solvesUniquePuzzles() {
+        for (String config : new String[]{"1", "0", "010,111,010", "000,000,000", "1111,1001,1001,1111", "11111,10001,10101,10001,11111"}) {
+            PackedBoard board = ConfigParser.parse(config);
+            PicrossSolver solver = new PicrossSolver(board.getDimension());
+
+            check(solver.solve(hintsOf(board)) == PicrossSolver.Result.SOLVED, config + " is solved");
+            checkSolution(solver, board, config);
+        }
+    }
+
+    private static void stallsOnAmbiguousPuzzles() {
+        //Both diagonals, and both phases of a checkerboard, share their hints
+        for (String config : new String[]{"10,01", "01,10", "1010,0101,1010,0101"}) {
+            PackedBoard board = ConfigParser.parse(config);
+            PicrossSolver solver = new PicrossSolver(board.getDimension());
+
+            check(solver.solve(hintsOf(board)) == PicrossSolver.Result.STALLED, config + " stalls");
+        }
+    }
+
+    private static void findsContradictions() {
+        HintEngine full = hintsOf(ConfigParser.parse("111,111,111"));
+        HintEngine empty = hintsOf(ConfigParser.parse("000,000,000"));
+        HintEngine cross = hintsOf(ConfigParser.parse("010,111,010"));
+        PicrossSolver solver = new PicrossSolver(3);
+
+        check(solver.solve(full.getRowHints(), empty.getColumnHints()) == PicrossSolver.Result.CONTRADICTION, "full rows and empty columns");
+        check(solver.solve(cross.getRowHints(), full.getColumnHints()) == PicrossSolver.Result.CONTRADICTION, "cross rows and full columns");
+
+        //The solver is reusable after a contradiction
+        check(solver.solve(cross) == PicrossSolver.Result.SOLVED, "cross after a contradiction");
+    }
+
+    /* ---------------------- Uniqueness -------------------- */
+
+    /*
+     * Groups every board by its hints, then checks that the solver only
+     * reports SOLVED for boards that are alone in their group, and that
+     * it then deduced that very board.
+     */
+    private static void solvesOnlyUniquePuzzles() {
+        for (int dimension = 1; dimension <= MAX_EXHAUSTIVE_DIMENSION; dimension++) {
+            int boards = 1 << (dimension * dimension);
+            HintEngine hints = new HintEngine();
+            PicrossSolver solver = new PicrossSolver(dimension);
+            Map<String, Integer> solutions = new HashMap<>();
+
+            for (int bits = 0; bits < boards; bits++) {
+                hints.compute(boardOf(dimension, bits));
+                solutions.merge(keyOf(hints), 1, Integer::sum);
+            }
+
+            int solved = 0;
+            for (int bits = 0; bits < boards; bits++) {
+                PackedBoard board = boardOf(dimension, bits);
+                hints.compute(board);
+                PicrossSolver.Result result = solver.solve(hints);
+                int count = solutions.get(keyOf(hints));
+
+                check(result != PicrossSolver.Result.CONTRADICTION, board + " has a solution");
+                if (result == PicrossSolver.Result.SOLVED) {
+                    check(count == 1, board + " was solved but its hints have " + count + " solutions");
+                    checkSolution(solver, board, board.toString());
+                    solved++;
+                }
+            }
+            check(solved > 0, "solved some " + dimension + "x" + dimension + " boards");
+        }
+    }
+
+    private static void solvesGeneratedPuzzles() {
+        PuzzleGenerator generator = new PuzzleGenerator();
+
+        for (int dimension = MIN_GENERATED_DIMENSION; dimension <= MAX_GENERATED_DIMENSION; dimension++) {
+            PackedBoard board = generator.generateUnique(dimension);
+            PicrossSolver solver = new PicrossSolver(dimension);
+
+            check(solver.solve(hintsOf(board)) == PicrossSolver.Result.SOLVED, "generated " + board + " is solved");
+            checkSolution(solver, board, board.toString());
+        }
+    }
+
+    private static void rejectsOtherDimensions() {
+        try {
+            new PicrossSolver(4).solve(hintsOf(ConfigParser.parse("010,111,010")));
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        throw new AssertionError("3x3 hints were accepted by a 4x4 solver");
+    }
+
+    /* ---------------------- Helpers -------------------- */
+
+    private static HintEngine hintsOf(PackedBoard board) {
+        HintEngine hints = new HintEngine();
+        hints.compute(board);
+        return hints;
+    }
+
+    private static PackedBoard boardOf(int dimension, int bits) {
+        PackedBoard board = new PackedBoard(dimension);
+        for (int cell = 0; cell < dimension * dimension; cell++)
+            board.set(cell % dimension, cell / dimension, ((bits >>> cell) & 1) != 0);
+        return board;
+    }
+
+    private static String keyOf(HintEngine hints) {
+        return hints.getRowHints() + "|" + hints.getColumnHints();
+    }
+
+    private static void checkSolution(PicrossSolver solver, PackedBoard board, String label) {
+        check(solver.getFilled().equals(board), label + " deduced as " + solver.getFilled());
+        check(solver.getFilled().popCount() + solver.getEmpty().popCount() == board.getDimension() * board.getDimension(), label + " has unknown cells");
+    }
+
+    private static void check(boolean condition, String label) {
+        if (!condition)
+            throw new AssertionError(label);
+    }
+
+    private static void run(String name, Runnable test) {
+        try {
+            test.run();
+        } catch (AssertionError | RuntimeException e) {
+            failures++;
+            System.out.println("FAILED " + name + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package picross;
+
+import java.util.Random;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * PuzzleCodecTest checks that boards come back unchanged from both the
+ * binary and the text encodings, and that malformed encodings from a
+ * client are rejected with an IllegalArgumentException. There is no test
+ * framework; run it with the compiled sources on the classpath:
+ *   java -cp out:test-out picross.PuzzleCodecTest
+ * It exits with status 1 if any check fails.
+ */
+public class PuzzleCodecTest {
+
+    /* ---------------------- Constants -------------------- */
+
+    private static final double[] DENSITIES = {0.0, 0.02, 0.5, 0.98, 1.0};
+    private static final int MAX_RANDOM_DIMENSION = 70; //Past one word per row
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        run("round trips random boards", PuzzleCodecTest::roundTripsRandomBoards);
+        run("round trips the largest board", PuzzleCodecTest::roundTripsLargestBoard);
+        run("picks the smaller format", PuzzleCodecTest::picksSmallerFormat);
+        run("decodes plain configurations", PuzzleCodecTest::decodesPlainConfigurations);
+        run("rejects malformed encodings", PuzzleCodecTest::rejectsMalformedEncodings);
+        run("rejects malformed text", PuzzleCodecTest::rejectsMalformedText);
+
+        System.out.println((failures == 0) ? "PuzzleCodecTest passed" : "PuzzleCodecTest: " + failures + " failed");
+        System.exit((failures == 0) ? 0 : 1);
+    }
+
+    /* ---------------------- Round Trips -------------------- */
+
+    private static void roundTripsRandomBoards() {
+        Random random = new Random(42);
+
+        for (int dimension = 0; dimension <= MAX_RANDOM_DIMENSION; dimension++) {
+            for (double density : DENSITIES) {
+                PackedBoard board = randomBoard(random, dimension, density);
+                String label = dimension + "x" + dimension + " at density " + density;
+
+                check(board.equals(PuzzleCodec.decode(PuzzleCodec.encode(board))), "binary round trip of " + label);
+                check(board.equals(PuzzleCodec.decodeText(PuzzleCodec.encodeText(board))), "text round trip of " + label);
+            }
+        }
+    }
+
+    private static void roundTripsLargestBoard() {
+        int dimension = PuzzleCodec.MAX_DIMENSION;
+        PackedBoard board = new PackedBoard(dimension);
+        for (int i = 0; i < dimension; i++) {
+            board.set(i, i, true);
+            board.set(dimension - 1 - i, i, true);
+        }
+
+        check(board.equals(PuzzleCodec.decode(PuzzleCodec.encode(board))), "round trip of " + dimension + "x" + dimension);
+    }
+
+    private static void picksSmallerFormat() {
+        int dimension = 64;
+        int packedSize = 1 + 1 + (dimension * dimension) / 8; //Format, one-byte varint, cells
+
+        byte[] empty = PuzzleCodec.encode(new PackedBoard(dimension));
+        check(empty[0] == PuzzleCodec.FORMAT_RLE, "an empty board is run-length encoded");
+        check(empty.length < packedSize, "an empty board is smaller than packed, was " + empty.length);
+
+        byte[] noisy = PuzzleCodec.encode(randomBoard(new Random(7), dimension, 0.5));
+        check(noisy[0] == PuzzleCodec.FORMAT_PACKED, "a noisy board is packed");
+        check(noisy.length == packedSize, "a packed board is " + packedSize + " bytes, was " + noisy.length);
+    }
+
+    private static void decodesPlainConfigurations() {
+        String config = "101,010,111";
+        PackedBoard board = PuzzleCodec.decodeText(config);
+
+        check(!PuzzleCodec.isEncoded(config), "a plain configuration is not encoded");
+        check(board.equals(ConfigParser.parse(config)), "decodes the same as ConfigParser");
+        check(board.toString().equals("101010111"), "cells of " + config + ", was " + board);
+    }
+
+    /* ---------------------- Malformed Input -------------------- */
+
+    private static void rejectsMalformedEncodings() {
+        int tooLarge = PuzzleCodec.MAX_DIMENSION + 1;
+
+        expectRejected("an empty encoding", new byte[0]);
+        expectRejected("a format byte alone", new byte[]{0});
+        expectRejected("an unknown format", new byte[]{7, 2, 0});
+        expectRejected("a truncated varint", new byte[]{0, (byte) 0x80});
+        expectRejected("a varint over five bytes", new byte[]{0, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0});
+        expectRejected("a negative dimension", new byte[]{0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+        expectRejected("a dimension over MAX_DIMENSION", new byte[]{0, (byte) (tooLarge | 0x80), (byte) (tooLarge >>> 7)});
+        expectRejected("too few packed bytes", new byte[]{0, 3, 0});
+        expectRejected("too many packed bytes", new byte[]{0, 3, 0, 0, 0});
+        expectRejected("runs past the last cell", new byte[]{1, 3, 4, 6});
+        expectRejected("more runs than cells", new byte[]{1, 2, 0, 1, 0, 1, 0, 1});
+    }
+
+    private static void rejectsMalformedText() {
+        PackedBoard board = randomBoard(new Random(11), 16, 0.5);
+        String text = PuzzleCodec.encodeText(board);
+
+        expectRejected("text that is not base64", () -> PuzzleCodec.decodeText(PuzzleCodec.TEXT_PREFIX + "!!!!"));
+        expectRejected("truncated text", () -> PuzzleCodec.decodeText(text.substring(0, text.length() - 4)));
+        expectRejected("a configuration that is not square", () -> PuzzleCodec.decodeText("10101"));
+    }
+
+    /* ---------------------- Helpers -------------------- */
+
+    private static PackedBoard randomBoard(Random random, int dimension, double density) {
+        PackedBoard board = new PackedBoard(dimension);
+        for (int y = 0; y < dimension; y++)
+            for (int x = 0; x < dimension; x++)
+                board.set(x, y, random.nextDouble() < density);
+        return board;
+    }
+
+    private static void expectRejected(String label, byte[] encoded) {
+        expectRejected(label, () -> PuzzleCodec.decode(encoded));
+    }
+
+    private static void expectRejected(String label, Runnable decode) {
+        try {
+            decode.run();
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        throw new AssertionError(label + " was accepted");
+    }
+
+    private static void check(boolean condition, String label) {
+        if (!condition)
+            throw new AssertionError(label);
+    }
+
+    private static void run(String name, Runnable test) {
+        try {
+            test.run();
+        } catch (AssertionError | RuntimeException e) {
+            failures++;
+            System.out.println("FAILED " + name + ": " + e);
+        }
+    }
+}
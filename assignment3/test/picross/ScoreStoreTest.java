@@ -0,0 +1,273 @@
+package picross;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * @author Neil Kingdom
+ * @version 1.0
+ * @since 2026-10-18
+ *
+ * ScoreStoreTest writes score stores, damages them the way a crash or a
+ * bad disk would, and checks what is recovered when they are reopened:
+ * every record before the damage, nothing from it on, and a store that
+ * accepts new records afterwards. Run it with the compiled sources on the
+ * classpath:
+ *   java -cp out:test-out picross.ScoreStoreTest
+ * It exits with status 1 if any check fails.
+ */
+public class ScoreStoreTest {
+
+    /* ---------------------- Constants -------------------- */
+
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final long FLUSH_TIMEOUT_MILLIS = 5000;
+
+    private static final List<PlayerRecord> RECORDS = List.of(
+            new PlayerRecord("client-a", "alice", 12, 65, 5),
+            new PlayerRecord("client-b", "bob", 7, 30, 3),
+            new PlayerRecord("client-c", "carol", 25, 190, 8),
+            new PlayerRecord("client-d", "dave", 3, 5, 3));
+
+    /* ---------------------- Member Variables -------------------- */
+
+    private static int failures;
+
+    /**
+     * @author Neil Kingdom
+     * @version 1.0
+     * @since 2026-10-18
+     *
+     * StoreTest is a test case that may throw, given an empty directory.
+     */
+    private interface StoreTest {
+        void run(Path dir) throws Exception;
+    }
+
+    public static void main(String[] args) {
+        run("recovers the latest records", ScoreStoreTest::recoversLatestRecords);
+        run("recovers a truncated record", ScoreStoreTest::recoversTruncatedRecord);
+        run("recovers a corrupt record", ScoreStoreTest::recoversCorruptRecord);
+        run("recovers a corrupt length", ScoreStoreTest::recoversCorruptLength);
+        run("recovers a truncated header", ScoreStoreTest::recoversTruncatedHeader);
+        run("rejects other files", ScoreStoreTest::rejectsOtherFiles);
+
+        System.out.println((failures == 0) ? "ScoreStoreTest passed" : "ScoreStoreTest: " + failures + " failed");
+        System.exit((failures == 0) ? 0 : 1);
+    }
+
+    /* ---------------------- Recovery -------------------- */
+
+    private static void recoversLatestRecords(Path dir) throws Exception {
+        Path file = dir.resolve("scores.dat");
+        PlayerRecord replaced = RECORDS.get(0).withGame("alice", 40, 100, 6);
+
+        try (ScoreStore store = open(file, new StringBuilder())) {
+            for (PlayerRecord record : RECORDS)
+                store.append(record);
+            store.append(replaced);
+            store.appendRemoval("client-b");
+            store.append(new PlayerRecord("client-e")); //No score, ignored
+            check(store.flush(FLUSH_TIMEOUT_MILLIS), "flushed");
+        }
+
+        checkRecovered(file, Map.of("client-a", replaced, "client-c", RECORDS.get(2), "client-d", RECORDS.get(3)));
+    }
+
+    private static void recoversTruncatedRecord(Path dir) throws Exception {
+        Path file = writeRecords(dir);
+        long size = Files.size(file);
+
+        //Cut the last record in half, as a crash in the middle of a write would
+        truncate(file, size - recordSize(RECORDS.get(3)) / 2);
+
+        StringBuilder log = new StringBuilder();
+        checkRecovered(file, log, RECORDS.subList(0, 3));
+        check(log.indexOf("discarded") >= 0, "the torn record is reported, log was: " + log);
+        checkAppendsAfterRecovery(file, RECORDS.subList(0, 3));
+    }
+
+    private static void recoversCorruptRecord(Path dir) throws Exception {
+        Path file = writeRecords(dir);
+
+        //Flip a byte of the score of the second record, so it fails its CRC
+        long second = HEADER_SIZE + recordSize(RECORDS.get(0));
+        long score = second + recordSize(RECORDS.get(1)) - 12;
+        ByteBuffer b = read(file, score, 1);
+        write(file, score, ByteBuffer.wrap(new byte[]{(byte) (b.get(0) ^ 0x40)}));
+
+        //The rest of the file cannot be trusted once a record is corrupt
+        StringBuilder log = new StringBuilder();
+        checkRecovered(file, log, RECORDS.subList(0, 1));
+        check(log.indexOf("discarded") >= 0, "the corrupt record is reported, log was: " + log);
+        checkAppendsAfterRecovery(file, RECORDS.subList(0, 1));
+    }
+
+    private static void recoversCorruptLength(Path dir) throws Exception {
+        for (int length : new int[]{-1, Integer.MAX_VALUE, 3}) {
+            Path file = writeRecords(dir);
+            long third = HEADER_SIZE + recordSize(RECORDS.get(0)) + recordSize(RECORDS.get(1));
+            write(file, third, ByteBuffer.allocate(4).putInt(0, length));
+
+            checkRecovered(file, new StringBuilder(), RECORDS.subList(0, 2));
+            Files.delete(file);
+        }
+    }
+
+    private static void recoversTruncatedHeader(Path dir) throws Exception {
+        for (long size : new long[]{0, 5}) {
+            Path file = writeRecords(dir);
+            truncate(file, size);
+
+            checkRecovered(file, new StringBuilder(), List.of());
+            checkAppendsAfterRecovery(file, List.of());
+            Files.delete(file);
+        }
+    }
+
+    private static void rejectsOtherFiles(Path dir) throws Exception {
+        Path file = dir.resolve("other.txt");
+        Files.write(file, "not a score store at all".getBytes(StandardCharsets.UTF_8));
+
+        try (ScoreStore store = open(file, new StringBuilder())) {
+            throw new AssertionError("opened " + store.getFile());
+        } catch (IOException e) {
+            check(e.getMessage().startsWith("Not a score store"), "message was " + e.getMessage());
+        }
+        check(Files.size(file) == 24, "the file was left alone");
+    }
+
+    /* ---------------------- Helpers -------------------- */
+
+    private static ScoreStore open(Path file, StringBuilder log) throws IOException {
+        return new ScoreStore(file, log::append);
+    }
+
+    private static Path writeRecords(Path dir) throws Exception {
+        Path file = dir.resolve("scores.dat");
+        try (ScoreStore store = open(file, new StringBuilder())) {
+            for (PlayerRecord record : RECORDS)
+                store.append(record);
+            check(store.flush(FLUSH_TIMEOUT_MILLIS), "flushed");
+        }
+        check(Files.size(file) == HEADER_SIZE + RECORDS.stream().mapToLong(ScoreStoreTest::recordSize).sum(), "store size");
+        return file;
+    }
+
+    /**
+     * @return Returns the size of the record on disk (See ScoreStore)
+     */
+    private static long recordSize(PlayerRecord record) {
+        int id = record.getClientID().getBytes(StandardCharsets.UTF_8).length;
+        int name = record.getName().getBytes(StandardCharsets.UTF_8).length;
+        return RECORD_HEADER_SIZE + 1 + 4 + id + 4 + name + 12;
+    }
+
+    /*
+     * A store recovered from damage must also keep what is appended
+     * afterwards, so nothing stale is left past the new records.
+     */
+    private static void checkAppendsAfterRecovery(Path file, List<PlayerRecord> recovered) throws Exception {
+        PlayerRecord added = new PlayerRecord("client-z", "zed", 9, 9, 3);
+        try (ScoreStore store = open(file, new StringBuilder())) {
+            store.append(added);
+            check(store.flush(FLUSH_TIMEOUT_MILLIS), "flushed");
+        }
+
+        StringBuilder log = new StringBuilder();
+        Map<String, PlayerRecord> expected = toMap(recovered);
+        expected.put(added.getClientID(), added);
+        checkRecovered(file, log, expected);
+        check(log.indexOf("discarded") < 0, "nothing discarded after recovery, log was: " + log);
+    }
+
+    private static void checkRecovered(Path file, StringBuilder log, List<PlayerRecord> expected) throws IOException {
+        checkRecovered(file, log, toMap(expected));
+    }
+
+    private static void checkRecovered(Path file, Map<String, PlayerRecord> expected) throws IOException {
+        checkRecovered(file, new StringBuilder(), expected);
+    }
+
+    private static void checkRecovered(Path file, StringBuilder log, Map<String, PlayerRecord> expected) throws IOException {
+        try (ScoreStore store = open(file, log)) {
+            Map<String, PlayerRecord> recovered = new HashMap<>();
+            for (PlayerRecord record : store.getRecovered())
+                recovered.put(record.getClientID(), record);
+
+            check(recovered.keySet().equals(expected.keySet()), "recovered " + recovered.keySet() + ", expected " + expected.keySet());
+            for (PlayerRecord record : expected.values())
+                check(sameRecord(record, recovered.get(record.getClientID())), "recovered " + recovered.get(record.getClientID()) + ", expected " + record);
+        }
+    }
+
+    private static Map<String, PlayerRecord> toMap(List<PlayerRecord> records) {
+        Map<String, PlayerRecord> map = new HashMap<>();
+        for (PlayerRecord record : records)
+            map.put(record.getClientID(), record);
+        return map;
+    }
+
+    private static boolean sameRecord(PlayerRecord a, PlayerRecord b) {
+        return a.getClientID().equals(b.getClientID()) && a.getName().equals(b.getName()) && a.getScore() == b.getScore()
+                && a.getTimeSeconds() == b.getTimeSeconds() && a.getDimension() == b.getDimension();
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static ByteBuffer read(Path file, long position, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            channel.read(buffer, position);
+            return buffer.flip();
+        }
+    }
+
+    private static void write(Path file, long position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+
+    private static void check(boolean condition, String label) {
+        if (!condition)
+            throw new AssertionError(label);
+    }
+
+    private static void run(String name, StoreTest test) {
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("picross-scores");
+            test.run(dir);
+        } catch (AssertionError | Exception e) {
+            failures++;
+            System.out.println("FAILED " + name + ": " + e);
+        } finally {
+            if (dir != null)
+                deleteTree(dir);
+        }
+    }
+
+    private static void deleteTree(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.out.println("Could not delete " + dir + ": " + e);
+        }
+    }
+}